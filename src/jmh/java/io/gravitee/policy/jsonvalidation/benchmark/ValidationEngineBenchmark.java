@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.gravitee.policy.jsonvalidation.configuration.ValidationEngineType;
+import io.gravitee.policy.jsonvalidation.engine.SchemaValidator;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngines;
+import io.gravitee.policy.jsonvalidation.engine.ValidationOptions;
+import io.gravitee.policy.jsonvalidation.engine.ValidationReport;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the validation engines on an order-like document. Run with <code>mvn -Pjmh test-compile exec:exec</code>,
+ * optionally restricted with <code>-Djmh.include=ValidationEngineBenchmark</code>.
+ *
+ * @author GraviteeSource Team
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationEngineBenchmark {
+
+    private static final String SCHEMA = """
+        {
+          "type": "object",
+          "required": ["id", "customer", "lines"],
+          "properties": {
+            "id": { "type": "string", "pattern": "^[A-Z]{3}-[0-9]+$" },
+            "status": { "enum": ["NEW", "PAID", "SHIPPED"] },
+            "customer": {
+              "type": "object",
+              "required": ["name", "email"],
+              "properties": {
+                "name": { "type": "string", "minLength": 1, "maxLength": 100 },
+                "email": { "type": "string", "pattern": "^[^@]+@[^@]+$" }
+              }
+            },
+            "lines": {
+              "type": "array",
+              "minItems": 1,
+              "items": {
+                "type": "object",
+                "required": ["sku", "quantity", "price"],
+                "additionalProperties": false,
+                "properties": {
+                  "sku": { "type": "string" },
+                  "quantity": { "type": "integer", "minimum": 1 },
+                  "price": { "type": "number", "minimum": 0 }
+                }
+              }
+            }
+          }
+        }
+        """;
+
+    @Param({ "FGE", "STREAMING", "COMPILED" })
+    public ValidationEngineType engine;
+
+    @Param({ "10", "1000" })
+    public int lines;
+
+    private SchemaValidator validator;
+    private byte[] payload;
+    private final ValidationOptions options = new ValidationOptions(false, false);
+
+    @Setup
+    public void setUp() throws Exception {
+        JsonNode schema = JsonMapper.builder().build().readTree(SCHEMA);
+        validator = ValidationEngines.create(engine, null).compile(schema);
+        validator.warmUp();
+
+        StringBuilder document = new StringBuilder("{\"id\":\"ORD-42\",\"status\":\"PAID\",");
+        document.append("\"customer\":{\"name\":\"Jane Doe\",\"email\":\"jane@example.com\"},\"lines\":[");
+        for (int i = 0; i < lines; i++) {
+            if (i > 0) {
+                document.append(',');
+            }
+            document.append("{\"sku\":\"SKU-").append(i).append("\",\"quantity\":").append(i + 1);
+            document.append(",\"price\":").append(i).append(".5}");
+        }
+        payload = document.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ValidationReport validate() throws Exception {
+        return validator.validate(payload, options);
+    }
+}
@@ -20,14 +20,14 @@ import static io.gravitee.policy.jsonvalidation.JsonValidationPolicy.HttpSource.
 import static io.gravitee.policy.jsonvalidation.handler.kafka.KafkaValidationResultHandlerFactory.createValidationResultHandler;
 import static io.gravitee.policy.jsonvalidation.schema.SchemaResolverFactory.createSchemaResolver;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
 import com.fasterxml.jackson.databind.json.JsonMapper;
-import com.github.fge.jackson.JsonLoader;
-import com.github.fge.jsonschema.core.exceptions.ProcessingException;
-import com.github.fge.jsonschema.core.report.ProcessingReport;
+import io.gravitee.common.http.HttpStatusCode;
 import io.gravitee.common.http.MediaType;
 import io.gravitee.gateway.api.buffer.Buffer;
+import io.gravitee.gateway.api.http.HttpHeaders;
 import io.gravitee.gateway.reactive.api.ExecutionFailure;
+import io.gravitee.gateway.reactive.api.context.base.BaseExecutionContext;
 import io.gravitee.gateway.reactive.api.context.http.HttpBaseExecutionContext;
 import io.gravitee.gateway.reactive.api.context.http.HttpMessageExecutionContext;
 import io.gravitee.gateway.reactive.api.context.http.HttpPlainExecutionContext;
@@ -38,18 +38,35 @@ import io.gravitee.gateway.reactive.api.policy.http.HttpPolicy;
 import io.gravitee.gateway.reactive.api.policy.kafka.KafkaPolicy;
 import io.gravitee.policy.JsonValidationException;
 import io.gravitee.policy.jsonvalidation.configuration.JsonValidationPolicyConfiguration;
+import io.gravitee.policy.jsonvalidation.configuration.ValidationEngineType;
 import io.gravitee.policy.jsonvalidation.configuration.errorhandling.NativeErrorHandling;
+import io.gravitee.policy.jsonvalidation.engine.IncrementalValidation;
+import io.gravitee.policy.jsonvalidation.engine.ParsingLimits;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import io.gravitee.policy.jsonvalidation.engine.ValidationOptions;
+import io.gravitee.policy.jsonvalidation.engine.ValidationReport;
 import io.gravitee.policy.jsonvalidation.handler.ValidationResultHandler;
 import io.gravitee.policy.jsonvalidation.handler.kafka.KafkaValidationResultHandler;
+import io.gravitee.policy.jsonvalidation.offload.ValidationOffloader;
+import io.gravitee.policy.jsonvalidation.payload.Payloads;
+import io.gravitee.policy.jsonvalidation.schema.CompilableSchema;
+import io.gravitee.policy.jsonvalidation.schema.CompiledSchema;
+import io.gravitee.policy.jsonvalidation.schema.CompiledSchemaPool;
+import io.gravitee.policy.jsonvalidation.schema.ResourceBasedSchemaResolver;
 import io.gravitee.policy.jsonvalidation.schema.SchemaResolver;
-import io.gravitee.policy.jsonvalidation.schema.StaticSchema;
 import io.gravitee.policy.jsonvalidation.schema.ValidatableSchemaResolver;
 import io.gravitee.policy.v3.jsonvalidation.JsonValidationPolicyV3;
 import io.gravitee.resource.schema_registry.api.Schema;
 import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Maybe;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import lombok.extern.slf4j.Slf4j;
 
@@ -61,10 +78,28 @@ public class JsonValidationPolicy extends JsonValidationPolicyV3 implements Http
 
     public static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
 
+    /**
+     * Attribute holding the number of validations queued on the offload pool once the payload of the exchange was
+     * offloaded.
+     */
+    public static final String OFFLOAD_QUEUE_DEPTH_ATTRIBUTE = "json-validation.offload.queue-depth";
+
+    /**
+     * Custom metric reporting, with the metrics of the exchange, the same queue depth as
+     * {@link #OFFLOAD_QUEUE_DEPTH_ATTRIBUTE}.
+     */
+    public static final String OFFLOAD_QUEUE_DEPTH_METRIC = "json-validation-offload-queue-depth";
+
+    private static final String OFFLOAD_REJECTED_MESSAGE = "JSON validation rejected, the offload pool is full";
+
+    static final String VALIDATION_REJECTED_KEY = "JSON_VALIDATION_REJECTED";
+
     private final boolean straightRespond;
 
     private final SchemaResolver schemaResolver;
 
+    private final ValidationOffloader offloader;
+
     /**
      * Create a new JsonMetadata Policy instance based on its associated configuration
      *
@@ -73,7 +108,8 @@ public class JsonValidationPolicy extends JsonValidationPolicyV3 implements Http
     public JsonValidationPolicy(JsonValidationPolicyConfiguration configuration) throws IOException {
         super(configuration);
         straightRespond = configuration.isStraightRespondMode();
-        schemaResolver = createSchemaResolver(configuration);
+        schemaResolver = createSchemaResolver(configuration, validationEngine());
+        offloader = ValidationOffloader.of(configuration.getOffload());
 
         validateSchemaResolver();
     }
@@ -85,16 +121,31 @@ public class JsonValidationPolicy extends JsonValidationPolicyV3 implements Http
 
     @Override
     public Completable onRequest(HttpPlainExecutionContext ctx) {
+        if (!mediaTypeFilter.accepts(ctx.request().headers())) {
+            return Completable.complete();
+        }
+        try {
+            checkDeclaredLength(ctx.request().headers());
+        } catch (StreamConstraintsException e) {
+            return errorHandling(ctx, e, HttpSource.REQUEST, false, JsonValidationPolicy::interrupt);
+        }
+        // Only the STREAMING engine reports before the body is complete; the others validate the aggregated body.
+        if (configuration.isStreamRequestBody() && configuration.getEngine() == ValidationEngineType.STREAMING) {
+            return ctx.request().onChunks(chunks -> validateChunks(ctx, chunks));
+        }
         return ctx
             .request()
             .body()
             .flatMapCompletable(buffer ->
                 schemaResolver
                     .resolveSchema(ctx)
-                    .flatMapCompletable(schema -> validate(ctx, buffer, schema, HttpSource.REQUEST, false, JsonValidationPolicy::interrupt))
+                    .doOnEvent((schema, th) -> reportResolverStats(ctx))
+                    .flatMapCompletable(schema ->
+                        validateBody(ctx, buffer, schema, HttpSource.REQUEST, false, JsonValidationPolicy::interrupt)
+                    )
             )
             .onErrorResumeNext(th -> {
-                if (th instanceof IOException || th instanceof ProcessingException) {
+                if (th instanceof IOException || th instanceof ValidationEngineException) {
                     return errorHandling(ctx, th, HttpSource.REQUEST, false, JsonValidationPolicy::interrupt);
                 }
                 return Completable.error(th);
@@ -103,14 +154,23 @@ public class JsonValidationPolicy extends JsonValidationPolicyV3 implements Http
 
     @Override
     public Completable onResponse(HttpPlainExecutionContext ctx) {
+        if (!mediaTypeFilter.accepts(ctx.response().headers()) || !isResponseSampled()) {
+            return Completable.complete();
+        }
+        try {
+            checkDeclaredLength(ctx.response().headers());
+        } catch (StreamConstraintsException e) {
+            return errorHandling(ctx, e, HttpSource.RESPONSE, configuration.isStraightRespondMode(), JsonValidationPolicy::interrupt);
+        }
         return ctx
             .response()
             .body()
             .flatMapCompletable(buffer ->
                 schemaResolver
                     .resolveSchema(ctx)
+                    .doOnEvent((schema, th) -> reportResolverStats(ctx))
                     .flatMapCompletable(schema ->
-                        validate(
+                        validateBody(
                             ctx,
                             buffer,
                             schema,
@@ -121,7 +181,7 @@ public class JsonValidationPolicy extends JsonValidationPolicyV3 implements Http
                     )
             )
             .onErrorResumeNext(th -> {
-                if (th instanceof IOException || th instanceof ProcessingException) {
+                if (th instanceof IOException || th instanceof ValidationEngineException) {
                     return errorHandling(
                         ctx,
                         th,
@@ -195,13 +255,19 @@ public class JsonValidationPolicy extends JsonValidationPolicyV3 implements Http
     private Maybe<Message> validateMessage(HttpMessageExecutionContext ctx, Message message, HttpSource source) {
         return schemaResolver
             .resolveSchema(ctx, message)
+            .doOnEvent((schema, th) -> reportResolverStats(ctx))
             .flatMapMaybe(schema -> {
                 try {
-                    return validate(ctx, message.content(), schema, source, straightRespond, JsonValidationPolicy::interrupt).andThen(
-                        Maybe.just(message)
-                    );
-                } catch (IOException | ProcessingException e) {
-                    throw new JsonValidationException("Error occurred during json validation " + e.getMessage(), e);
+                    return validateBody(ctx, message.content(), schema, source, straightRespond, JsonValidationPolicy::interrupt)
+                        // Failures of offloaded validations are reported as the ones of inline validations.
+                        .onErrorResumeNext(th ->
+                            Completable.error(
+                                th instanceof IOException || th instanceof ValidationEngineException ? messageValidationFailure(th) : th
+                            )
+                        )
+                        .andThen(Maybe.just(message));
+                } catch (IOException | ValidationEngineException e) {
+                    throw messageValidationFailure(e);
                 }
             })
             .onErrorResumeNext(th -> {
@@ -212,6 +278,10 @@ public class JsonValidationPolicy extends JsonValidationPolicyV3 implements Http
             });
     }
 
+    private static JsonValidationException messageValidationFailure(Throwable th) {
+        return new JsonValidationException("Error occurred during json validation " + th.getMessage(), th);
+    }
+
     private <T extends HttpBaseExecutionContext> Completable validate(
         T ctx,
         Buffer buffer,
@@ -219,13 +289,63 @@ public class JsonValidationPolicy extends JsonValidationPolicyV3 implements Http
         HttpSource source,
         boolean straightMode,
         BiFunction<T, ExecutionFailure, Completable> interrupt
-    ) throws IOException, ProcessingException {
-        var parsedSchema = parseSchema(schema);
-        var jsonNode = JSON_MAPPER.readTree(buffer.getBytes());
+    ) throws IOException, ValidationEngineException {
+        var compiledSchema = compileSchema(schema);
+        return report(ctx, check(compiledSchema, buffer, straightMode), source, straightMode, interrupt);
+    }
+
+    // Large payloads are parsed and validated on the offload pool, so that the event loop keeps serving the other
+    // exchanges; the exchange then resumes on its own event loop.
+    private <T extends HttpBaseExecutionContext> Completable validateBody(
+        T ctx,
+        Buffer buffer,
+        Schema schema,
+        HttpSource source,
+        boolean straightMode,
+        BiFunction<T, ExecutionFailure, Completable> interrupt
+    ) throws IOException, ValidationEngineException {
+        if (!offloader.offloads(buffer.length())) {
+            return validate(ctx, buffer, schema, source, straightMode, interrupt);
+        }
+        var compiledSchema = compileSchema(schema);
+        return offloader
+            .submit(() -> check(compiledSchema, buffer, straightMode), depth -> reportQueueDepth(ctx, depth))
+            .flatMapCompletable(outcome -> report(ctx, outcome, source, straightMode, interrupt))
+            .onErrorResumeNext(th -> {
+                if (th instanceof RejectedExecutionException) {
+                    log.warn(OFFLOAD_REJECTED_MESSAGE);
+                    return errorHandling(
+                        ctx,
+                        OFFLOAD_REJECTED_MESSAGE,
+                        HttpStatusCode.SERVICE_UNAVAILABLE_503,
+                        VALIDATION_REJECTED_KEY,
+                        straightMode,
+                        null,
+                        interrupt
+                    );
+                }
+                return Completable.error(th);
+            });
+    }
 
-        var report = validatePayload(parsedSchema, jsonNode);
+    // The counters of the schema registry caches are reported with the metrics of each exchange, or Kafka message,
+    // resolving a schema.
+    private void reportResolverStats(BaseExecutionContext ctx) {
+        if (schemaResolver instanceof ResourceBasedSchemaResolver resourceBasedSchemaResolver) {
+            resourceBasedSchemaResolver.reportStats(ctx.metrics());
+        }
+    }
+
+    private static void reportQueueDepth(HttpBaseExecutionContext ctx, int depth) {
+        ctx.setAttribute(OFFLOAD_QUEUE_DEPTH_ATTRIBUTE, depth);
+        ctx.metrics().addCustomMetric(OFFLOAD_QUEUE_DEPTH_METRIC, Integer.toString(depth));
+    }
+
+    private Outcome check(CompiledSchema compiledSchema, Buffer buffer, boolean straightMode)
+        throws IOException, ValidationEngineException {
+        var report = validatePayload(compiledSchema, buffer);
         if (report.isSuccess()) {
-            return Completable.complete();
+            return new Outcome(report, null);
         }
         log.debug("Invalid body '{}'", report);
 
@@ -235,13 +355,127 @@ public class JsonValidationPolicy extends JsonValidationPolicyV3 implements Http
         String detailedMessage = null;
         if (configuration.isReturnDetailedErrorReport() && !straightMode) {
             try {
-                detailedMessage = buildDetailedMessage(parsedSchema, jsonNode).orElse(null);
+                // The tree is only built when a detailed report is requested for an invalid payload.
+                detailedMessage = buildDetailedMessage(compiledSchema, parsingLimits.readTree(Payloads.open(buffer))).orElse(null);
             } catch (RuntimeException ex) {
                 log.error("Unexpected error during JSON validation", ex);
             }
         }
+        return new Outcome(report, detailedMessage);
+    }
+
+    private <T extends HttpBaseExecutionContext> Completable report(
+        T ctx,
+        Outcome outcome,
+        HttpSource source,
+        boolean straightMode,
+        BiFunction<T, ExecutionFailure, Completable> interrupt
+    ) {
+        if (outcome.report().isSuccess()) {
+            return Completable.complete();
+        }
+        return errorHandling(
+            ctx,
+            outcome.report().toString(),
+            source.status,
+            source.getPayloadKey(),
+            straightMode,
+            outcome.detailedMessage(),
+            interrupt
+        );
+    }
+
+    // The chunks are held back until the body is known to be valid, so that the backend never receives an invalid body:
+    // the request is interrupted by the first chunk revealing a violation, or at the end of the body. A schema the
+    // engine cannot validate incrementally is validated once the body is aggregated, as without streaming.
+    private Flowable<Buffer> validateChunks(HttpPlainExecutionContext ctx, Flowable<Buffer> chunks) {
+        return schemaResolver
+            .resolveSchema(ctx)
+            .doOnEvent((schema, th) -> reportResolverStats(ctx))
+            .flatMapPublisher(schema -> {
+                CompiledSchema compiledSchema = compileSchema(schema);
+                if (!compiledSchema.validatesIncrementally()) {
+                    return chunks
+                        .reduce(Buffer.buffer(), Buffer::appendBuffer)
+                        // As when the body is aggregated, an empty body is not validated.
+                        .filter(body -> body.length() > 0)
+                        .flatMapPublisher(body ->
+                            validateBody(ctx, body, schema, HttpSource.REQUEST, false, JsonValidationPolicy::interrupt).andThen(
+                                Flowable.just(body)
+                            )
+                        );
+                }
+                return validateChunks(ctx, chunks, compiledSchema);
+            })
+            .onErrorResumeNext(th -> {
+                if (th instanceof IOException || th instanceof ValidationEngineException) {
+                    return errorHandling(ctx, th, HttpSource.REQUEST, false, JsonValidationPolicy::interrupt).toFlowable();
+                }
+                return Flowable.error(th);
+            });
+    }
+
+    private Flowable<Buffer> validateChunks(HttpPlainExecutionContext ctx, Flowable<Buffer> chunks, CompiledSchema compiledSchema) {
+        return Flowable.defer(() -> {
+            IncrementalValidation validation = compiledSchema.newIncrementalValidation(validationOptions());
+            List<Buffer> heldBack = new ArrayList<>();
+            AtomicLong received = new AtomicLong();
+            return chunks
+                .concatMap(chunk -> {
+                    // The size is checked on every chunk, even once the document is validated.
+                    parsingLimits.checkLength(received.addAndGet(chunk.length()));
+                    if (validation.isDone()) {
+                        return Flowable.just(chunk);
+                    }
+                    heldBack.add(chunk);
+                    if (chunk.length() > 0 && feed(validation, chunk)) {
+                        return reportChunks(ctx, validation.end()).andThen(release(heldBack));
+                    }
+                    return Flowable.<Buffer>empty();
+                })
+                .concatWith(
+                    Flowable.defer(() -> {
+                        // As when the body is aggregated, an empty body is not validated.
+                        boolean pending = received.get() > 0 && !validation.isDone();
+                        return (pending ? reportChunks(ctx, validation.end()) : Completable.complete()).andThen(release(heldBack));
+                    })
+                );
+        });
+    }
+
+    // The parser reads the chunk from the gateway buffer, which is held back anyway, instead of from a copy.
+    private static boolean feed(IncrementalValidation validation, Buffer chunk) throws IOException, ValidationEngineException {
+        for (ByteBuffer view : Payloads.views(chunk)) {
+            if (validation.feed(view)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        return errorHandling(ctx, report.toString(), source.status, source.getPayloadKey(), straightMode, detailedMessage, interrupt);
+    private static Flowable<Buffer> release(List<Buffer> heldBack) {
+        return Flowable.defer(() -> {
+            List<Buffer> released = new ArrayList<>(heldBack);
+            heldBack.clear();
+            return Flowable.fromIterable(released);
+        });
+    }
+
+    private Completable reportChunks(HttpPlainExecutionContext ctx, ValidationReport report) {
+        if (report.isSuccess()) {
+            return Completable.complete();
+        }
+        log.debug("Invalid body '{}'", report);
+        // The payload is not kept, so no detailed report can be built from it.
+        return errorHandling(
+            ctx,
+            report.toString(),
+            HttpSource.REQUEST.status,
+            HttpSource.REQUEST.getPayloadKey(),
+            false,
+            null,
+            JsonValidationPolicy::interrupt
+        );
     }
 
     private <T extends KafkaMessageExecutionContext> Completable validate(
@@ -251,40 +485,84 @@ public class JsonValidationPolicy extends JsonValidationPolicyV3 implements Http
     ) {
         return schemaResolver
             .resolveSchema(ctx, message)
+            .doOnEvent((schema, th) -> reportResolverStats(ctx))
             .flatMapCompletable(schema -> {
                 try {
-                    var report = validatePayload(message.content(), schema);
-                    if (!report.isSuccess()) {
-                        log.debug("Invalid message body '{}'", report);
+                    var compiledSchema = compileSchema(schema);
+                    Buffer content = message.content();
+                    if (!offloader.offloads(content.length())) {
+                        return report(ctx, message, validatePayload(compiledSchema, content), handler);
                     }
-                    return report.isSuccess() ? handler.onSuccess(ctx, message) : errorHandling(ctx, message, report.toString(), handler);
-                } catch (IOException | ProcessingException e) {
-                    log.error("Error occurred during message validation: {}", e.getMessage(), e);
-                    return errorHandling(ctx, message, e.toString(), handler);
+                    return offloader
+                        .submit(() -> validatePayload(compiledSchema, content))
+                        .flatMapCompletable(validationReport -> report(ctx, message, validationReport, handler))
+                        .onErrorResumeNext(th -> failure(ctx, message, th, handler));
+                } catch (IOException | ValidationEngineException e) {
+                    return failure(ctx, message, e, handler);
                 }
             });
     }
 
-    private ProcessingReport validatePayload(Buffer buffer, Schema schema) throws IOException, ProcessingException {
-        JsonNode parsedSchema = parseSchema(schema);
-        JsonNode jsonNode = JSON_MAPPER.readTree(buffer.getBytes());
-        return validatePayload(parsedSchema, jsonNode);
+    private <T extends KafkaMessageExecutionContext> Completable report(
+        T ctx,
+        KafkaMessage message,
+        ValidationReport report,
+        ValidationResultHandler<T, KafkaMessage> handler
+    ) {
+        if (report.isSuccess()) {
+            return handler.onSuccess(ctx, message);
+        }
+        log.debug("Invalid message body '{}'", report);
+        return errorHandling(ctx, message, report.toString(), handler);
     }
 
-    // Parse the schema, reusing the parsed JsonNode for static schemas (parsed once, immutable per policy
-    // instance). Registry-resolved schemas are parsed per request since their content may change.
-    private static JsonNode parseSchema(Schema schema) throws IOException {
-        if (schema instanceof StaticSchema staticSchema) {
-            return staticSchema.parsedSchema();
+    private <T extends KafkaMessageExecutionContext> Completable failure(
+        T ctx,
+        KafkaMessage message,
+        Throwable th,
+        ValidationResultHandler<T, KafkaMessage> handler
+    ) {
+        if (th instanceof RejectedExecutionException) {
+            log.warn(OFFLOAD_REJECTED_MESSAGE);
+            return errorHandling(ctx, message, OFFLOAD_REJECTED_MESSAGE, handler);
+        }
+        if (th instanceof IOException || th instanceof ValidationEngineException) {
+            log.error("Error occurred during message validation: {}", th.getMessage(), th);
+            return errorHandling(ctx, message, th.toString(), handler);
         }
-        return JsonLoader.fromString(schema.getContent());
+        return Completable.error(th);
     }
 
-    // callers always supply pre-parsed nodes — validate() and validatePayload(Buffer,Schema) handle Buffer→JsonNode conversion
-    private ProcessingReport validatePayload(JsonNode parsedSchema, JsonNode jsonNode) throws ProcessingException {
-        return configuration.isValidateUnchecked()
-            ? validator.validateUnchecked(parsedSchema, jsonNode)
-            : validator.validate(parsedSchema, jsonNode);
+    // Static schemas and registry schemas served from the resolver cache keep their compiled form; any other schema
+    // implementation goes through the shared pool.
+    private CompiledSchema compileSchema(Schema schema) throws IOException, ValidationEngineException {
+        if (schema instanceof CompilableSchema compilableSchema) {
+            return compilableSchema.compiledSchema();
+        }
+        return CompiledSchemaPool.shared().intern(schema.getContent(), validationEngine());
+    }
+
+    // Payloads are streamed to the engine from the buffer, without copying them: engines that do not need a tree never
+    // build one.
+    private ValidationReport validatePayload(CompiledSchema compiledSchema, Buffer buffer) throws IOException, ValidationEngineException {
+        parsingLimits.checkLength(buffer.length());
+        return compiledSchema.validate(Payloads.open(buffer), validationOptions());
+    }
+
+    private ValidationOptions validationOptions() {
+        return new ValidationOptions(
+            configuration.isValidateUnchecked(),
+            false,
+            configuration.isFailFast(),
+            parallelArrayThreshold(),
+            parsingLimits
+        );
+    }
+
+    // A body announcing more bytes than allowed is rejected before it is read. Without a Content-Length, the size is
+    // checked once received.
+    private void checkDeclaredLength(HttpHeaders headers) throws StreamConstraintsException {
+        parsingLimits.checkLength(declaredLength(headers));
     }
 
     private void validateSchemaResolver() throws IOException {
@@ -300,9 +578,14 @@ public class JsonValidationPolicy extends JsonValidationPolicyV3 implements Http
         boolean straightMode,
         BiFunction<T, ExecutionFailure, Completable> interrupt
     ) {
-        String key = (th instanceof ProcessingException || th.getCause() instanceof ProcessingException)
-            ? source.getPayloadKey()
-            : source.getFormatKey();
+        String key;
+        if (ParsingLimits.isExceeded(th)) {
+            key = source.getLimitKey();
+        } else if (th instanceof ValidationEngineException || th.getCause() instanceof ValidationEngineException) {
+            key = source.getPayloadKey();
+        } else {
+            key = source.getFormatKey();
+        }
         return errorHandling(ctx, th.getMessage(), source.status, key, straightMode, null, interrupt);
     }
 
@@ -355,19 +638,33 @@ public class JsonValidationPolicy extends JsonValidationPolicyV3 implements Http
         return ctx.interruptMessageWith(executionFailure).ignoreElement();
     }
 
+    private record Outcome(ValidationReport report, String detailedMessage) {}
+
     enum HttpSource {
-        REQUEST("JSON_INVALID_PAYLOAD", "JSON_INVALID_FORMAT", 400),
-        RESPONSE("JSON_INVALID_RESPONSE_PAYLOAD", "JSON_INVALID_RESPONSE_FORMAT", 500),
-        MESSAGE_REQUEST("JSON_INVALID_MESSAGE_REQUEST_PAYLOAD", "JSON_INVALID_MESSAGE_REQUEST_FORMAT", 400),
-        MESSAGE_RESPONSE("JSON_INVALID_MESSAGE_RESPONSE_PAYLOAD", "JSON_INVALID_MESSAGE_RESPONSE_FORMAT", 400);
+        REQUEST("JSON_INVALID_PAYLOAD", "JSON_INVALID_FORMAT", "JSON_PAYLOAD_LIMIT_EXCEEDED", 400),
+        RESPONSE("JSON_INVALID_RESPONSE_PAYLOAD", "JSON_INVALID_RESPONSE_FORMAT", "JSON_RESPONSE_PAYLOAD_LIMIT_EXCEEDED", 500),
+        MESSAGE_REQUEST(
+            "JSON_INVALID_MESSAGE_REQUEST_PAYLOAD",
+            "JSON_INVALID_MESSAGE_REQUEST_FORMAT",
+            "JSON_MESSAGE_REQUEST_PAYLOAD_LIMIT_EXCEEDED",
+            400
+        ),
+        MESSAGE_RESPONSE(
+            "JSON_INVALID_MESSAGE_RESPONSE_PAYLOAD",
+            "JSON_INVALID_MESSAGE_RESPONSE_FORMAT",
+            "JSON_MESSAGE_RESPONSE_PAYLOAD_LIMIT_EXCEEDED",
+            400
+        );
 
         private final String invalidPayloadKey;
         private final String invalidFormatKey;
+        private final String limitExceededKey;
         private final int status;
 
-        HttpSource(String invalidPayloadKey, String invalidFormatKey, int status) {
+        HttpSource(String invalidPayloadKey, String invalidFormatKey, String limitExceededKey, int status) {
             this.invalidPayloadKey = invalidPayloadKey;
             this.invalidFormatKey = invalidFormatKey;
+            this.limitExceededKey = limitExceededKey;
             this.status = status;
         }
 
@@ -378,5 +675,9 @@ public class JsonValidationPolicy extends JsonValidationPolicyV3 implements Http
         String getFormatKey() {
             return invalidFormatKey;
         }
+
+        String getLimitKey() {
+            return limitExceededKey;
+        }
     }
 }
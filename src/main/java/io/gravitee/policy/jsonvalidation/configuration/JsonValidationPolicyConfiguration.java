@@ -17,7 +17,11 @@ package io.gravitee.policy.jsonvalidation.configuration;
 
 import io.gravitee.policy.api.PolicyConfiguration;
 import io.gravitee.policy.jsonvalidation.configuration.errorhandling.NativeErrorHandling;
+import io.gravitee.policy.jsonvalidation.configuration.limits.PayloadLimits;
+import io.gravitee.policy.jsonvalidation.configuration.offload.ValidationOffload;
+import io.gravitee.policy.jsonvalidation.configuration.reference.ReferenceResolution;
 import io.gravitee.policy.jsonvalidation.configuration.schema.SchemaSource;
+import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -37,10 +41,30 @@ public class JsonValidationPolicyConfiguration implements PolicyConfiguration {
 
     private SchemaSource schemaSource;
 
+    private List<String> mediaTypes;
+
+    private ValidationEngineType engine = ValidationEngineType.FGE;
+
+    private ReferenceResolution referenceResolution;
+
+    private boolean normalizeSchema;
+
     private boolean validateUnchecked;
 
     private boolean deepCheck;
 
+    private boolean failFast;
+
+    private int parallelArrayThreshold;
+
+    private boolean streamRequestBody;
+
+    private PayloadLimits payloadLimits;
+
+    private ValidationOffload offload;
+
+    private Double responseSamplingRate;
+
     private boolean straightRespondMode;
 
     private boolean returnDetailedErrorReport;
@@ -0,0 +1,36 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.configuration;
+
+/**
+ * @author GraviteeSource Team
+ */
+public enum ValidationEngineType {
+    /**
+     * <a href="https://github.com/java-json-tools/json-schema-validator">java-json-tools JSON Schema Validator</a> (draft-04).
+     */
+    FGE,
+    /**
+     * Validates payloads token by token without building a tree. Schemas using keywords it cannot check in a single pass
+     * (<code>format</code>, <code>uniqueItems</code>, schema dependencies, remote references...) are validated by {@link #FGE}.
+     */
+    STREAMING,
+    /**
+     * Compiles each schema into specialized checks once, when it is resolved. Schemas using keywords it does not support
+     * are validated by {@link #FGE}, like with {@link #STREAMING}.
+     */
+    COMPILED,
+}
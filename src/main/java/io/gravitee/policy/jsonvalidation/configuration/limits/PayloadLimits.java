@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.configuration.limits;
+
+import lombok.*;
+
+/**
+ * Bounds on the payloads accepted for validation. A limit of <code>0</code> keeps the default of the JSON parser, or
+ * no limit at all for the body size and the number of properties.
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayloadLimits {
+
+    /**
+     * Maximum size of a body or message, in bytes. Checked against the <code>Content-Length</code> header when there
+     * is one, before the body is even read.
+     */
+    private long maxBytes;
+
+    /**
+     * Maximum nesting depth of objects and arrays.
+     */
+    private int maxDepth;
+
+    /**
+     * Maximum length of a string value or property name, in characters.
+     */
+    private int maxStringLength;
+
+    /**
+     * Maximum length of a number, in characters.
+     */
+    private int maxNumberLength;
+
+    /**
+     * Maximum number of properties of a single object.
+     */
+    private int maxProperties;
+}
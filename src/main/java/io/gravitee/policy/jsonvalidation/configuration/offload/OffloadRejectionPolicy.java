@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.configuration.offload;
+
+/**
+ * What happens to a validation when the offload pool and its queue are full.
+ *
+ * @author GraviteeSource Team
+ */
+public enum OffloadRejectionPolicy {
+    /**
+     * The validation runs on the event loop, as if it was not offloaded.
+     */
+    CALLER_RUNS,
+    /**
+     * The exchange fails with a <code>503 Service Unavailable</code> and the <code>JSON_VALIDATION_REJECTED</code> key.
+     */
+    REJECT,
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.configuration.offload;
+
+import lombok.*;
+
+/**
+ * Moves the validation of large bodies off the event loop, to a bounded pool shared by the policies configured alike.
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValidationOffload {
+
+    /**
+     * Size, in bytes, from which a body is parsed and validated on the pool. <code>0</code> validates every body on the
+     * event loop.
+     */
+    private long threshold;
+
+    /**
+     * Number of threads of the pool, <code>0</code> for the number of processors.
+     */
+    private int threads;
+
+    /**
+     * Number of validations waiting for a thread beyond which new ones are rejected.
+     */
+    @Builder.Default
+    private int queueSize = 256;
+
+    /**
+     * Runs the validations on virtual threads, when the JVM supports them. The pool stays bounded by
+     * {@link #threads}.
+     */
+    private boolean virtualThreads;
+
+    @Builder.Default
+    private OffloadRejectionPolicy rejectionPolicy = OffloadRejectionPolicy.CALLER_RUNS;
+}
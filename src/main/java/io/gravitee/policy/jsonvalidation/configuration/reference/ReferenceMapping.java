@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.configuration.reference;
+
+import lombok.*;
+
+/**
+ * Maps a URI to a schema shipped with the configuration, or a URI prefix to a local directory.
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReferenceMapping {
+
+    /**
+     * Absolute URI of the referenced schema, or a URI prefix ending with <code>/</code> when mapped to a directory.
+     */
+    private String uri;
+
+    /**
+     * Content of the schema served for {@link #uri}.
+     */
+    private String schema;
+
+    /**
+     * Local directory holding the schemas (<code>.json</code> files) of the {@link #uri} namespace, read when the schema
+     * is compiled, used when no {@link #schema} is given.
+     */
+    private String directory;
+}
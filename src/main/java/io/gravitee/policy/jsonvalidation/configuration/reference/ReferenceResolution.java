@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.configuration.reference;
+
+import java.util.List;
+import lombok.*;
+
+/**
+ * How the <code>$ref</code> of the configured schemas are resolved.
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReferenceResolution {
+
+    /**
+     * Schemas, or directories of schemas, to resolve in place of the remote URI they are mapped to.
+     */
+    private List<ReferenceMapping> mappings;
+
+    /**
+     * When <code>true</code>, <code>http</code> and <code>https</code> references are never fetched: a reference that
+     * is not covered by a mapping fails validation instead of blocking on the network.
+     */
+    private boolean offline;
+}
@@ -33,4 +33,16 @@ public class SchemaSource {
     private String resourceName;
 
     private String schemaMapping;
+
+    /**
+     * Seconds after which a schema resolved from the registry is refreshed in the background. The previously resolved
+     * schema keeps being served meanwhile. <code>null</code> or <code>0</code> resolves the schema on every call.
+     */
+    private Integer refreshInterval;
+
+    /**
+     * Seconds during which a subject (or resource) that could not be found is rejected without asking the registry
+     * again. <code>null</code> uses a 5 seconds default, <code>0</code> disables it.
+     */
+    private Integer negativeCacheTtl;
 }
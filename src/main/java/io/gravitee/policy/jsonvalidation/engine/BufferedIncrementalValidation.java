@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Accumulates the chunks and validates the whole payload at the end, for the engines which cannot validate a
+ * document before it is complete.
+ *
+ * @author GraviteeSource Team
+ */
+final class BufferedIncrementalValidation implements IncrementalValidation {
+
+    private final SchemaValidator validator;
+    private final ValidationOptions options;
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    private ValidationReport report;
+
+    BufferedIncrementalValidation(SchemaValidator validator, ValidationOptions options) {
+        this.validator = validator;
+        this.options = options;
+    }
+
+    @Override
+    public boolean feed(ByteBuffer chunk) {
+        if (report != null) {
+            throw new IllegalStateException("The payload is already validated");
+        }
+        if (chunk.hasArray()) {
+            payload.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+        } else {
+            byte[] bytes = new byte[chunk.remaining()];
+            chunk.duplicate().get(bytes);
+            payload.writeBytes(bytes);
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isDone() {
+        return report != null;
+    }
+
+    @Override
+    public ValidationReport end() throws IOException, ValidationEngineException {
+        if (report == null) {
+            report = validator.validate(payload.toByteArray(), options);
+        }
+        return report;
+    }
+}
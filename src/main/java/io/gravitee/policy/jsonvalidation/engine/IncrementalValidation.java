@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The validation of one payload whose bytes arrive in chunks. Instances are not thread-safe: chunks must be fed in
+ * order, by one caller at a time.
+ *
+ * @author GraviteeSource Team
+ */
+public interface IncrementalValidation {
+    /**
+     * Feeds the next chunk of the payload.
+     *
+     * @return <code>true</code> once the result is known, the remaining chunks do not need to be fed.
+     * @throws IOException if the payload is not well-formed JSON.
+     */
+    default boolean feed(byte[] chunk) throws IOException, ValidationEngineException {
+        return feed(ByteBuffer.wrap(chunk));
+    }
+
+    /**
+     * Feeds the next chunk of the payload, read from its position to its limit. The content of the buffer must not
+     * change until the next call.
+     *
+     * @return <code>true</code> once the result is known, the remaining chunks do not need to be fed.
+     * @throws IOException if the payload is not well-formed JSON.
+     */
+    boolean feed(ByteBuffer chunk) throws IOException, ValidationEngineException;
+
+    /**
+     * Whether the result is already known, i.e. the document is complete or, in fail-fast mode, revealed a violation.
+     */
+    boolean isDone();
+
+    /**
+     * Signals the end of the payload and returns the report.
+     *
+     * @throws IOException if the payload is truncated or empty.
+     */
+    ValidationReport end() throws IOException, ValidationEngineException;
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import io.gravitee.policy.jsonvalidation.configuration.limits.PayloadLimits;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Parses payloads within the configured {@link PayloadLimits}. Depth, string and number lengths are enforced by the
+ * parser itself, the number of properties by a thin parser wrapper; either way a payload breaking a limit fails with a
+ * {@link StreamConstraintsException} while it is read, before a tree is built out of it.
+ *
+ * @author GraviteeSource Team
+ */
+public final class ParsingLimits {
+
+    public static final ParsingLimits NONE = new ParsingLimits(new PayloadLimits());
+
+    private final long maxBytes;
+    private final int maxProperties;
+    private final JsonFactory factory;
+    private final JsonMapper mapper;
+    private final ObjectReader documentReader;
+
+    private ParsingLimits(PayloadLimits limits) {
+        this.maxBytes = limits.getMaxBytes();
+        this.maxProperties = limits.getMaxProperties();
+        StreamReadConstraints.Builder constraints = StreamReadConstraints.builder();
+        if (limits.getMaxDepth() > 0) {
+            constraints.maxNestingDepth(limits.getMaxDepth());
+        }
+        if (limits.getMaxStringLength() > 0) {
+            constraints.maxStringLength(limits.getMaxStringLength());
+            constraints.maxNameLength(limits.getMaxStringLength());
+        }
+        if (limits.getMaxNumberLength() > 0) {
+            constraints.maxNumberLength(limits.getMaxNumberLength());
+        }
+        this.factory = JsonFactory.builder().streamReadConstraints(constraints.build()).build();
+        this.mapper = JsonMapper.builder(factory).build();
+        this.documentReader = mapper.reader().with(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+    }
+
+    public static ParsingLimits of(PayloadLimits limits) {
+        return limits == null ? NONE : new ParsingLimits(limits);
+    }
+
+    /**
+     * The maximum size of a payload, in bytes, <code>0</code> for no limit.
+     */
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Checks the size of a payload, as declared or once received.
+     *
+     * @throws StreamConstraintsException if the payload is larger than allowed.
+     */
+    public void checkLength(long length) throws StreamConstraintsException {
+        if (maxBytes > 0 && length > maxBytes) {
+            throw new StreamConstraintsException("Document length (" + length + ") exceeds the maximum allowed (" + maxBytes + ")");
+        }
+    }
+
+    public JsonParser createParser(byte[] payload) throws IOException {
+        return limit(factory.createParser(payload));
+    }
+
+    public JsonParser createParser(InputStream payload) throws IOException {
+        return limit(factory.createParser(payload));
+    }
+
+    /**
+     * A parser fed with byte buffers through its {@link JsonParser#getNonBlockingInputFeeder() feeder}.
+     */
+    public JsonParser createNonBlockingParser() throws IOException {
+        return limit(factory.createNonBlockingByteBufferParser());
+    }
+
+    /**
+     * Reads the whole payload as a tree; an empty payload is a {@link MissingNode}, as with
+     * {@link JsonMapper#readTree(InputStream)}.
+     */
+    public JsonNode readTree(byte[] payload) throws IOException {
+        try (JsonParser parser = createParser(payload)) {
+            return readTree(parser);
+        }
+    }
+
+    public JsonNode readTree(InputStream payload) throws IOException {
+        try (JsonParser parser = createParser(payload)) {
+            return readTree(parser);
+        }
+    }
+
+    /**
+     * Reads the whole payload as a single document, as strictly as the <code>JsonLoader</code> of fge: an empty
+     * payload, or content following the document, is malformed.
+     */
+    public JsonNode readDocument(InputStream payload) throws IOException {
+        try (JsonParser parser = createParser(payload)) {
+            JsonNode tree = documentReader.readTree(parser);
+            if (tree == null || tree.isMissingNode()) {
+                throw new IOException("No content to validate");
+            }
+            return tree;
+        }
+    }
+
+    /**
+     * Whether a failure, or one of its causes, is a payload breaking a limit.
+     */
+    public static boolean isExceeded(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof StreamConstraintsException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private JsonNode readTree(JsonParser parser) throws IOException {
+        JsonNode tree = mapper.readTree(parser);
+        return tree == null ? MissingNode.getInstance() : tree;
+    }
+
+    private JsonParser limit(JsonParser parser) {
+        return maxProperties > 0 ? new PropertyCountingParser(parser, maxProperties) : parser;
+    }
+}
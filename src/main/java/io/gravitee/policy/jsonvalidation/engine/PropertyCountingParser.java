@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.async.NonBlockingInputFeeder;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Fails as soon as an object has more properties than allowed. Every way of advancing the parser goes through
+ * {@link #nextToken()}, so that no property escapes the count.
+ *
+ * @author GraviteeSource Team
+ */
+final class PropertyCountingParser extends JsonParserDelegate {
+
+    private static final int ARRAY = -1;
+
+    private final int maxProperties;
+    // The number of properties read so far in each enclosing object, or ARRAY for arrays.
+    private int[] counts = new int[16];
+    private int depth;
+
+    PropertyCountingParser(JsonParser parser, int maxProperties) {
+        super(parser);
+        this.maxProperties = maxProperties;
+    }
+
+    @Override
+    public JsonToken nextToken() throws IOException {
+        JsonToken token = delegate.nextToken();
+        if (token == null) {
+            return null;
+        }
+        switch (token) {
+            case START_OBJECT -> push(0);
+            case START_ARRAY -> push(ARRAY);
+            case END_OBJECT, END_ARRAY -> depth--;
+            case FIELD_NAME -> {
+                if (++counts[depth - 1] > maxProperties) {
+                    throw new StreamConstraintsException(
+                        "Number of properties (" + counts[depth - 1] + ") exceeds the maximum allowed (" + maxProperties + ")"
+                    );
+                }
+            }
+            default -> {}
+        }
+        return token;
+    }
+
+    @Override
+    public JsonToken nextValue() throws IOException {
+        JsonToken token = nextToken();
+        return token == JsonToken.FIELD_NAME ? nextToken() : token;
+    }
+
+    @Override
+    public String nextFieldName() throws IOException {
+        return nextToken() == JsonToken.FIELD_NAME ? currentName() : null;
+    }
+
+    @Override
+    public boolean nextFieldName(SerializableString name) throws IOException {
+        return nextToken() == JsonToken.FIELD_NAME && name.getValue().equals(currentName());
+    }
+
+    @Override
+    public JsonParser skipChildren() throws IOException {
+        JsonToken token = currentToken();
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            // Properties of the skipped children are still read, and counted.
+            int target = depth - 1;
+            while (depth > target) {
+                JsonToken next = nextToken();
+                if (next == null || next == JsonToken.NOT_AVAILABLE) {
+                    break;
+                }
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public NonBlockingInputFeeder getNonBlockingInputFeeder() {
+        return delegate.getNonBlockingInputFeeder();
+    }
+
+    private void push(int count) {
+        if (depth == counts.length) {
+            counts = Arrays.copyOf(counts, depth * 2);
+        }
+        counts[depth++] = count;
+    }
+}
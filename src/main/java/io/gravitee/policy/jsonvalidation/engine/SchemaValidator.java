@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A schema compiled by a {@link ValidationEngine}. Implementations are thread-safe and reused across requests.
+ *
+ * @author GraviteeSource Team
+ */
+public interface SchemaValidator {
+    ValidationReport validate(JsonNode instance, ValidationOptions options) throws ValidationEngineException;
+
+    ValidationReport validate(byte[] payload, ValidationOptions options) throws IOException, ValidationEngineException;
+
+    /**
+     * Validates a payload read from a stream, which engines should parse as it is read rather than buffering it first.
+     * The stream is closed once read.
+     */
+    default ValidationReport validate(InputStream payload, ValidationOptions options) throws IOException, ValidationEngineException {
+        byte[] bytes;
+        try (payload) {
+            bytes = payload.readAllBytes();
+        }
+        return validate(bytes, options);
+    }
+
+    /**
+     * Starts the validation of a payload fed chunk by chunk. By default, the chunks are accumulated and the payload is
+     * validated once complete; engines able to validate a document as it is parsed override this to keep memory
+     * bounded by the chunk size.
+     */
+    default IncrementalValidation newIncrementalValidation(ValidationOptions options) {
+        return new BufferedIncrementalValidation(this, options);
+    }
+
+    /**
+     * Whether {@link #newIncrementalValidation(ValidationOptions)} can report a violation before the payload is
+     * complete, rather than only accumulating the chunks.
+     */
+    default boolean validatesIncrementally() {
+        return false;
+    }
+
+    /**
+     * Prepares whatever the engine builds lazily, so that the first validation runs at steady-state speed.
+     */
+    default void warmUp() {}
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.List;
+
+/**
+ * A JSON schema validation implementation. The policy compiles each schema once through its engine and then validates
+ * every payload with the resulting {@link SchemaValidator}.
+ *
+ * @author GraviteeSource Team
+ */
+public interface ValidationEngine {
+    /**
+     * Identifies the engine and its settings. Schemas compiled by engines with equal keys are interchangeable and may be
+     * shared between policy instances.
+     */
+    String key();
+
+    SchemaValidator compile(JsonNode schema) throws ValidationEngineException;
+
+    /**
+     * Checks the schema itself, without validating any instance.
+     *
+     * @return the syntax errors found, empty when the schema is valid.
+     */
+    List<String> checkSyntax(JsonNode schema);
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine;
+
+import io.gravitee.policy.jsonvalidation.configuration.ValidationEngineType;
+import io.gravitee.policy.jsonvalidation.configuration.reference.ReferenceResolution;
+import io.gravitee.policy.jsonvalidation.engine.compiled.CompiledValidationEngine;
+import io.gravitee.policy.jsonvalidation.engine.fge.FgeValidationEngine;
+import io.gravitee.policy.jsonvalidation.engine.fge.SchemaLoading;
+import io.gravitee.policy.jsonvalidation.engine.normalizer.NormalizingValidationEngine;
+import io.gravitee.policy.jsonvalidation.engine.streaming.StreamingValidationEngine;
+import java.io.IOException;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class ValidationEngines {
+
+    public static final ValidationEngine DEFAULT = new FgeValidationEngine(SchemaLoading.DEFAULT);
+
+    private ValidationEngines() {}
+
+    public static ValidationEngine create(ValidationEngineType engineType, ReferenceResolution referenceResolution) throws IOException {
+        return create(engineType, referenceResolution, false);
+    }
+
+    /**
+     * @param normalizeSchemas compile the normalized form of the schemas, see {@link NormalizingValidationEngine}.
+     */
+    public static ValidationEngine create(
+        ValidationEngineType engineType,
+        ReferenceResolution referenceResolution,
+        boolean normalizeSchemas
+    ) throws IOException {
+        ValidationEngine engine = engine(engineType == null ? ValidationEngineType.FGE : engineType, referenceResolution);
+        return normalizeSchemas ? new NormalizingValidationEngine(engine) : engine;
+    }
+
+    private static ValidationEngine engine(ValidationEngineType type, ReferenceResolution referenceResolution) throws IOException {
+        return switch (type) {
+            case FGE -> fge(referenceResolution);
+            case STREAMING -> new StreamingValidationEngine(fge(referenceResolution));
+            case COMPILED -> new CompiledValidationEngine(fge(referenceResolution));
+        };
+    }
+
+    private static ValidationEngine fge(ReferenceResolution referenceResolution) throws IOException {
+        SchemaLoading schemaLoading = SchemaLoading.of(referenceResolution);
+        return schemaLoading == SchemaLoading.DEFAULT ? DEFAULT : new FgeValidationEngine(schemaLoading);
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine;
+
+/**
+ * @param unchecked report anomalies (unresolvable reference, invalid schema, ...) in the report instead of failing.
+ * @param deepCheck validate children even if their container fails to validate.
+ * @param failFast stop at the first violation; the report then holds that violation only.
+ * @param parallelThreshold number of items from which the items of an array are checked in parallel, by the engines
+ * supporting it; <code>0</code> to always check them sequentially.
+ * @param limits the limits within which raw payloads are parsed.
+ *
+ * @author GraviteeSource Team
+ */
+public record ValidationOptions(boolean unchecked, boolean deepCheck, boolean failFast, int parallelThreshold, ParsingLimits limits) {
+    public ValidationOptions(boolean unchecked, boolean deepCheck) {
+        this(unchecked, deepCheck, false);
+    }
+
+    public ValidationOptions(boolean unchecked, boolean deepCheck, boolean failFast) {
+        this(unchecked, deepCheck, failFast, 0);
+    }
+
+    public ValidationOptions(boolean unchecked, boolean deepCheck, boolean failFast, int parallelThreshold) {
+        this(unchecked, deepCheck, failFast, parallelThreshold, ParsingLimits.NONE);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.compiled;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gravitee.policy.jsonvalidation.engine.rule.JsonValues;
+import io.gravitee.policy.jsonvalidation.engine.rule.Rule;
+import io.gravitee.policy.jsonvalidation.engine.rule.RuleMessages;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The array keywords that do not descend into the items: <code>minItems</code>, <code>maxItems</code>,
+ * <code>additionalItems: false</code> and <code>uniqueItems</code>, checked in linear time by hashing the canonical form
+ * of each item.
+ *
+ * @author GraviteeSource Team
+ */
+final class ArrayCheck implements Check {
+
+    private final String schemaPointer;
+    private final Integer minItems;
+    private final Integer maxItems;
+    private final Integer allowedItems;
+    private final boolean uniqueItems;
+
+    ArrayCheck(Rule rule) {
+        this.schemaPointer = rule.getSchemaPointer();
+        this.minItems = rule.getMinItems();
+        this.maxItems = rule.getMaxItems();
+        this.allowedItems = rule.getTupleItems() != null && !rule.isAdditionalItemsAllowed() ? rule.getTupleItems().size() : null;
+        this.uniqueItems = rule.isUniqueItems();
+    }
+
+    static boolean appliesTo(Rule rule) {
+        return (
+            rule.getMinItems() != null ||
+            rule.getMaxItems() != null ||
+            (rule.getTupleItems() != null && !rule.isAdditionalItemsAllowed()) ||
+            rule.isUniqueItems()
+        );
+    }
+
+    @Override
+    public void check(JsonNode instance, CheckContext context) {
+        if (!instance.isArray()) {
+            return;
+        }
+        int size = instance.size();
+        if (minItems != null && size < minItems) {
+            context.violation(schemaPointer, "minItems", RuleMessages.minItems(size, minItems));
+        }
+        if (maxItems != null && size > maxItems) {
+            context.violation(schemaPointer, "maxItems", RuleMessages.maxItems(size, maxItems));
+        }
+        if (allowedItems != null && size > allowedItems) {
+            context.violation(schemaPointer, "additionalItems", RuleMessages.additionalItems(allowedItems, size));
+        }
+        if (uniqueItems && size > 1) {
+            Set<Object> seen = new HashSet<>(size * 2);
+            for (JsonNode item : instance) {
+                if (!seen.add(JsonValues.key(item))) {
+                    context.violation(schemaPointer, "uniqueItems", RuleMessages.uniqueItems());
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.compiled;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * One keyword (or group of keywords) of a schema, compiled by the {@link CheckCompiler}. Checks are stateless and shared
+ * by all validations: everything specific to a validation lives in the {@link CheckContext}.
+ *
+ * @author GraviteeSource Team
+ */
+@FunctionalInterface
+interface Check {
+    void check(JsonNode instance, CheckContext context);
+}
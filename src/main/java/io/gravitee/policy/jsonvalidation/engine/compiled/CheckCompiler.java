@@ -0,0 +1,155 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.compiled;
+
+import io.gravitee.policy.jsonvalidation.engine.regex.EcmaRegex;
+import io.gravitee.policy.jsonvalidation.engine.rule.Discriminator;
+import io.gravitee.policy.jsonvalidation.engine.rule.Rule;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns {@link Rule}s into {@link Check}s. Only the keywords a schema actually uses get a check, bounds and lookups are
+ * precomputed, and subschemas accepting any value are not visited at all.
+ *
+ * @author GraviteeSource Team
+ */
+final class CheckCompiler {
+
+    /** Accepts any value. */
+    static final Check ACCEPT = (instance, context) -> {};
+
+    private final Map<Rule, RuleCheck> checks = new IdentityHashMap<>();
+
+    private CheckCompiler() {}
+
+    static Check compile(Rule rule) {
+        Check check = new CheckCompiler().check(rule);
+        return check == null ? ACCEPT : check;
+    }
+
+    /**
+     * @return <code>null</code> when the rule accepts any value.
+     */
+    private Check check(Rule rule) {
+        if (rule == null || rule.isTrivial()) {
+            return null;
+        }
+        Rule resolved = rule.resolve();
+        RuleCheck existing = checks.get(resolved);
+        if (existing != null) {
+            return existing;
+        }
+        RuleCheck check = new RuleCheck();
+        // Registered before its keywords are compiled so that recursive references resolve to it.
+        checks.put(resolved, check);
+
+        String schemaPointer = resolved.getSchemaPointer();
+        List<Check> own = new ArrayList<>();
+        if (resolved.getTypes() != null) {
+            own.add(new TypeCheck(schemaPointer, resolved.getTypes()));
+        }
+        if (resolved.getEnumValues() != null) {
+            own.add(new EnumCheck(schemaPointer, resolved.getEnumValues(), resolved.getEnumKeys(), resolved.isEnumContainers()));
+        }
+        if (resolved.hasStringKeywords()) {
+            own.add(new StringCheck(resolved));
+        }
+        if (resolved.hasNumberKeywords()) {
+            own.add(new NumberCheck(resolved));
+        }
+        if (ObjectCheck.appliesTo(resolved)) {
+            own.add(new ObjectCheck(resolved));
+        }
+        if (ArrayCheck.appliesTo(resolved)) {
+            own.add(new ArrayCheck(resolved));
+        }
+        addCombinator(own, resolved, CombinatorCheck.Kind.ALL_OF, resolved.getAllOf());
+        addCombinator(own, resolved, CombinatorCheck.Kind.ANY_OF, resolved.getAnyOf());
+        addCombinator(own, resolved, CombinatorCheck.Kind.ONE_OF, resolved.getOneOf());
+        if (resolved.getNot() != null) {
+            addCombinator(own, resolved, CombinatorCheck.Kind.NOT, List.of(resolved.getNot()));
+        }
+
+        List<Check> children = new ArrayList<>();
+        Check properties = properties(resolved);
+        if (properties != null) {
+            children.add(properties);
+        }
+        Check items = items(resolved);
+        if (items != null) {
+            children.add(items);
+        }
+
+        check.init(own.toArray(Check[]::new), children.toArray(Check[]::new));
+        return check;
+    }
+
+    private void addCombinator(List<Check> own, Rule rule, CombinatorCheck.Kind kind, List<Rule> rules) {
+        if (rules != null) {
+            Discriminator discriminator = kind == CombinatorCheck.Kind.ANY_OF || kind == CombinatorCheck.Kind.ONE_OF
+                ? Discriminator.of(rules, rule.getDiscriminatorProperty())
+                : null;
+            Check[] branches = rules.stream().map(this::orAccept).toArray(Check[]::new);
+            own.add(new CombinatorCheck(rule.getSchemaPointer(), kind, branches, discriminator));
+        }
+    }
+
+    private Check properties(Rule rule) {
+        Map<String, Check> properties = new HashMap<>();
+        boolean needed = false;
+        if (rule.getProperties() != null) {
+            for (Map.Entry<String, Rule> property : rule.getProperties().entrySet()) {
+                Check check = orAccept(property.getValue());
+                needed |= check != ACCEPT;
+                properties.put(property.getKey(), check);
+            }
+        }
+        List<Rule.PatternRule> patternRules = rule.getPatternProperties() == null ? List.of() : rule.getPatternProperties();
+        EcmaRegex[] patterns = new EcmaRegex[patternRules.size()];
+        Check[] patternChecks = new Check[patternRules.size()];
+        for (int i = 0; i < patterns.length; i++) {
+            patterns[i] = patternRules.get(i).pattern();
+            patternChecks[i] = orAccept(patternRules.get(i).rule());
+        }
+        Check additional = check(rule.getAdditionalProperties());
+        // Even accepting patterns are evaluated, to report the names on which they exhaust their budget
+        needed |= additional != null || patterns.length > 0;
+        return needed ? new PropertiesCheck(rule.getSchemaPointer(), properties, patterns, patternChecks, additional) : null;
+    }
+
+    private Check items(Rule rule) {
+        if (rule.getTupleItems() == null) {
+            Check items = check(rule.getItems());
+            return items == null ? null : new ItemsCheck(new Check[0], items);
+        }
+        Check[] tuple = rule.getTupleItems().stream().map(this::orAccept).toArray(Check[]::new);
+        Check rest = check(rule.getAdditionalItems());
+        boolean needed = rest != null;
+        for (Check item : tuple) {
+            needed |= item != ACCEPT;
+        }
+        return needed ? new ItemsCheck(tuple, rest) : null;
+    }
+
+    private Check orAccept(Rule rule) {
+        Check check = check(rule);
+        return check == null ? ACCEPT : check;
+    }
+}
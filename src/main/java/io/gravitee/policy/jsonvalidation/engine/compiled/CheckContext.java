@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.compiled;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gravitee.policy.jsonvalidation.engine.ValidationOptions;
+import io.gravitee.policy.jsonvalidation.engine.rule.RuleCompiler;
+import io.gravitee.policy.jsonvalidation.engine.rule.RuleValidationReport;
+import io.gravitee.policy.jsonvalidation.engine.rule.RuleViolation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * State of one validation: the path of the value being checked and the violations found so far. Pointers and messages
+ * are only built for violations that are actually reported, never while checking combinator branches, whose outcome is
+ * all that matters.
+ *
+ * @author GraviteeSource Team
+ */
+final class CheckContext {
+
+    private static final int LIMIT = 100;
+    private static final int NO_INDEX = -1;
+
+    private final boolean deepCheck;
+    private final boolean failFast;
+    private final int parallelThreshold;
+    // Shared by the forks of a fail-fast context, so that they all stop once one of them has found a violation.
+    private final AtomicBoolean forksFailed;
+    private final List<RuleViolation> violations = new ArrayList<>();
+    private int count;
+
+    private String[] names = new String[16];
+    private int[] indexes = new int[16];
+    private int depth;
+
+    private int muted;
+    private int mutedCount;
+
+    CheckContext(ValidationOptions options) {
+        this(options.deepCheck(), options.failFast(), options.parallelThreshold(), null);
+    }
+
+    private CheckContext(boolean deepCheck, boolean failFast, int parallelThreshold, AtomicBoolean forksFailed) {
+        this.deepCheck = deepCheck;
+        this.failFast = failFast;
+        this.parallelThreshold = parallelThreshold;
+        this.forksFailed = forksFailed;
+    }
+
+    boolean deepCheck() {
+        return deepCheck;
+    }
+
+    /**
+     * Number of items from which an array may be checked in parallel, <code>0</code> when it must be checked on the
+     * current thread. Always <code>0</code> in combinator branches, which stop at their first violation, and in forks.
+     */
+    int parallelThreshold() {
+        return muted == 0 ? parallelThreshold : 0;
+    }
+
+    /**
+     * A context for checking part of the current value on another thread. It starts at the current path with no
+     * violation, and is {@link #merge(CheckContext) merged} back once done. In fail-fast mode, the forks sharing the
+     * same <code>failed</code> flag all stop as soon as one of them finds a violation.
+     */
+    CheckContext fork(AtomicBoolean failed) {
+        CheckContext fork = new CheckContext(deepCheck, failFast, 0, failed);
+        fork.names = Arrays.copyOf(names, names.length);
+        fork.indexes = Arrays.copyOf(indexes, indexes.length);
+        fork.depth = depth;
+        return fork;
+    }
+
+    /**
+     * Adds the violations of a fork, as if they had been found by this context.
+     */
+    void merge(CheckContext fork) {
+        for (RuleViolation violation : fork.violations) {
+            if (stopped()) {
+                return;
+            }
+            count++;
+            if (violations.size() < LIMIT) {
+                violations.add(violation);
+            }
+        }
+        // Violations the fork counted but did not keep.
+        count += fork.count - fork.violations.size();
+    }
+
+    /**
+     * The number of violations found so far in the current scope, to tell whether a check added any.
+     */
+    int count() {
+        return muted == 0 ? count : mutedCount;
+    }
+
+    /**
+     * Whether the remaining checks can be skipped: a combinator branch is decided by its first violation, and so is the
+     * whole document in fail-fast mode.
+     */
+    boolean stopped() {
+        if (muted > 0) {
+            return mutedCount > 0;
+        }
+        return failFast && (count > 0 || (forksFailed != null && forksFailed.get()));
+    }
+
+    void violation(String schemaPointer, String keyword, String message) {
+        if (muted > 0) {
+            mutedCount++;
+            return;
+        }
+        count++;
+        if (failFast && forksFailed != null) {
+            forksFailed.set(true);
+        }
+        if (violations.size() < LIMIT) {
+            violations.add(new RuleViolation(pointer(), schemaPointer, keyword, message));
+        }
+    }
+
+    /**
+     * Checks a combinator branch without reporting its violations.
+     */
+    boolean matches(Check check, JsonNode instance) {
+        int previousCount = mutedCount;
+        mutedCount = 0;
+        muted++;
+        try {
+            check.check(instance, this);
+            return mutedCount == 0;
+        } finally {
+            muted--;
+            mutedCount = previousCount;
+        }
+    }
+
+    void push(String name) {
+        ensureCapacity();
+        names[depth] = name;
+        indexes[depth] = NO_INDEX;
+        depth++;
+    }
+
+    void push(int index) {
+        ensureCapacity();
+        names[depth] = null;
+        indexes[depth] = index;
+        depth++;
+    }
+
+    void pop() {
+        depth--;
+    }
+
+    RuleValidationReport report() {
+        return new RuleValidationReport(violations, count);
+    }
+
+    private String pointer() {
+        StringBuilder pointer = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            pointer.append('/');
+            if (indexes[i] == NO_INDEX) {
+                pointer.append(RuleCompiler.escape(names[i]));
+            } else {
+                pointer.append(indexes[i]);
+            }
+        }
+        return pointer.toString();
+    }
+
+    private void ensureCapacity() {
+        if (depth == names.length) {
+            names = Arrays.copyOf(names, depth * 2);
+            indexes = Arrays.copyOf(indexes, depth * 2);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.compiled;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gravitee.policy.jsonvalidation.engine.rule.Discriminator;
+import io.gravitee.policy.jsonvalidation.engine.rule.RuleMessages;
+
+/**
+ * <code>allOf</code>, <code>anyOf</code>, <code>oneOf</code> and <code>not</code>. Branches are checked silently and
+ * stop at their first violation; only the outcome of the combinator is reported, like with the default engine. When
+ * the branches of an <code>anyOf</code> or a <code>oneOf</code> have a {@link Discriminator}, only the branches it
+ * designates are checked.
+ *
+ * @author GraviteeSource Team
+ */
+final class CombinatorCheck implements Check {
+
+    enum Kind {
+        ALL_OF,
+        ANY_OF,
+        ONE_OF,
+        NOT,
+    }
+
+    private final String schemaPointer;
+    private final Kind kind;
+    private final Check[] branches;
+    private final Discriminator discriminator;
+
+    CombinatorCheck(String schemaPointer, Kind kind, Check[] branches, Discriminator discriminator) {
+        this.schemaPointer = schemaPointer;
+        this.kind = kind;
+        this.branches = branches;
+        this.discriminator = discriminator;
+    }
+
+    @Override
+    public void check(JsonNode instance, CheckContext context) {
+        switch (kind) {
+            case ALL_OF -> {
+                int matched = 0;
+                for (Check branch : branches) {
+                    if (context.matches(branch, instance)) {
+                        matched++;
+                    }
+                }
+                if (matched < branches.length) {
+                    context.violation(schemaPointer, "allOf", RuleMessages.allOf(matched, branches.length));
+                }
+            }
+            case ANY_OF -> {
+                if (discriminator != null) {
+                    for (int candidate : discriminator.candidates(instance)) {
+                        if (context.matches(branches[candidate], instance)) {
+                            return;
+                        }
+                    }
+                } else {
+                    for (Check branch : branches) {
+                        if (context.matches(branch, instance)) {
+                            return;
+                        }
+                    }
+                }
+                context.violation(schemaPointer, "anyOf", RuleMessages.anyOf(branches.length));
+            }
+            case ONE_OF -> {
+                int matched = 0;
+                if (discriminator != null) {
+                    for (int candidate : discriminator.candidates(instance)) {
+                        if (context.matches(branches[candidate], instance)) {
+                            matched++;
+                        }
+                    }
+                } else {
+                    for (Check branch : branches) {
+                        if (context.matches(branch, instance)) {
+                            matched++;
+                        }
+                    }
+                }
+                if (matched != 1) {
+                    context.violation(schemaPointer, "oneOf", RuleMessages.oneOf(matched, branches.length));
+                }
+            }
+            case NOT -> {
+                if (context.matches(branches[0], instance)) {
+                    context.violation(schemaPointer, "not", RuleMessages.not());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.compiled;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gravitee.policy.jsonvalidation.engine.SchemaValidator;
+import io.gravitee.policy.jsonvalidation.engine.ValidationOptions;
+import io.gravitee.policy.jsonvalidation.engine.ValidationReport;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * @author GraviteeSource Team
+ */
+class CompiledSchemaValidator implements SchemaValidator {
+
+    private final Check check;
+
+    CompiledSchemaValidator(Check check) {
+        this.check = check;
+    }
+
+    @Override
+    public ValidationReport validate(JsonNode instance, ValidationOptions options) {
+        // There is no unchecked mode: the rules are checked when the schema is compiled, not while validating.
+        CheckContext context = new CheckContext(options);
+        check.check(instance, context);
+        return context.report();
+    }
+
+    @Override
+    public ValidationReport validate(byte[] payload, ValidationOptions options) throws IOException {
+        return validateTree(options.limits().readTree(payload), options);
+    }
+
+    @Override
+    public ValidationReport validate(InputStream payload, ValidationOptions options) throws IOException {
+        return validateTree(options.limits().readTree(payload), options);
+    }
+
+    private ValidationReport validateTree(JsonNode instance, ValidationOptions options) throws IOException {
+        if (instance == null || instance.isMissingNode()) {
+            throw new IOException("No content to validate");
+        }
+        return validate(instance, options);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.compiled;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gravitee.policy.jsonvalidation.engine.SchemaValidator;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngine;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import io.gravitee.policy.jsonvalidation.engine.rule.RuleCompiler;
+import io.gravitee.policy.jsonvalidation.engine.rule.UnsupportedSchemaException;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Engine compiling each schema into a graph of specialized checks when it is resolved, instead of interpreting it keyword
+ * by keyword through a generic processor chain on every validation. Compiled schemas are shared per fingerprint by the
+ * schema pool. Schemas using keywords it does not support are compiled by the fallback engine.
+ *
+ * @author GraviteeSource Team
+ */
+@Slf4j
+public class CompiledValidationEngine implements ValidationEngine {
+
+    private final ValidationEngine fallback;
+
+    public CompiledValidationEngine(ValidationEngine fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public String key() {
+        return fallback.key().isEmpty() ? "compiled" : "compiled:" + fallback.key();
+    }
+
+    @Override
+    public SchemaValidator compile(JsonNode schema) throws ValidationEngineException {
+        try {
+            return new CompiledSchemaValidator(CheckCompiler.compile(RuleCompiler.compile(schema, true)));
+        } catch (UnsupportedSchemaException e) {
+            log.debug("Schema not supported by the compiled engine, falling back to the default engine: {}", e.getMessage());
+            return fallback.compile(schema);
+        }
+    }
+
+    @Override
+    public List<String> checkSyntax(JsonNode schema) {
+        return fallback.checkSyntax(schema);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.compiled;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gravitee.policy.jsonvalidation.engine.rule.RuleMessages;
+import io.gravitee.policy.jsonvalidation.engine.rule.JsonValues;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Looks the canonical form of the instance up in the precomputed set of the enum values.
+ *
+ * @author GraviteeSource Team
+ */
+final class EnumCheck implements Check {
+
+    private final String schemaPointer;
+    private final List<JsonNode> values;
+    private final Set<Object> keys;
+    private final boolean containers;
+
+    /**
+     * @param containers whether some of the values are objects or arrays: otherwise the canonical form of a container
+     * instance is not computed, it cannot be one of the values.
+     */
+    EnumCheck(String schemaPointer, List<JsonNode> values, Set<Object> keys, boolean containers) {
+        this.schemaPointer = schemaPointer;
+        this.values = values;
+        this.keys = keys;
+        this.containers = containers;
+    }
+
+    @Override
+    public void check(JsonNode instance, CheckContext context) {
+        if ((containers || !instance.isContainerNode()) && keys.contains(JsonValues.key(instance))) {
+            return;
+        }
+        context.violation(schemaPointer, "enum", RuleMessages.enumValue(instance.toString(), values));
+    }
+}
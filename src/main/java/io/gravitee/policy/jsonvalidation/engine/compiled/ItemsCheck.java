@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.compiled;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <code>items</code> and <code>additionalItems</code>: checks each item against the schema that applies to its index.
+ * <p>
+ * When the array has at least {@link CheckContext#parallelThreshold()} items, the items past the tuple are split into
+ * chunks checked on a dedicated pool, bounded by the number of processors, and the violations of the chunks are merged
+ * in index order. The report is then the same as with a sequential check, except in fail-fast mode: the chunks stop as
+ * soon as one of them fails, and the violation reported may not be the first one in index order.
+ * <p>
+ * The calling thread waits for the chunks, so callers only set a threshold when running off the event loop.
+ *
+ * @author GraviteeSource Team
+ */
+final class ItemsCheck implements Check {
+
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final ForkJoinPool POOL = new ForkJoinPool(
+        Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+        pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("json-validation-items-" + thread.getPoolIndex());
+            return thread;
+        },
+        null,
+        false
+    );
+
+    private final Check[] tuple;
+    private final Check rest;
+
+    /**
+     * @param tuple the check of each leading item (tuple validation), {@link CheckCompiler#ACCEPT} for items accepting any
+     * value.
+     * @param rest the check of the other items, if any.
+     */
+    ItemsCheck(Check[] tuple, Check rest) {
+        this.tuple = tuple;
+        this.rest = rest;
+    }
+
+    @Override
+    public void check(JsonNode instance, CheckContext context) {
+        if (!instance.isArray()) {
+            return;
+        }
+        int size = rest == null ? Math.min(instance.size(), tuple.length) : instance.size();
+        int threshold = context.parallelThreshold();
+        if (rest != null && threshold > 0 && size >= threshold && size - tuple.length > 1) {
+            check(instance, 0, tuple.length, context);
+            if (!context.stopped()) {
+                checkInParallel(instance, tuple.length, size, context);
+            }
+        } else {
+            check(instance, 0, size, context);
+        }
+    }
+
+    private void check(JsonNode instance, int from, int to, CheckContext context) {
+        // Checked before each item, so that a fork starting after another one failed does nothing.
+        for (int index = from; index < to && !context.stopped(); index++) {
+            Check check = index < tuple.length ? tuple[index] : rest;
+            context.push(index);
+            try {
+                check.check(instance.get(index), context);
+            } finally {
+                context.pop();
+            }
+        }
+    }
+
+    private void checkInParallel(JsonNode instance, int from, int to, CheckContext context) {
+        int chunks = Math.min(to - from, POOL.getParallelism() * CHUNKS_PER_THREAD);
+        int chunkSize = (to - from + chunks - 1) / chunks;
+        List<CheckContext> forks = new ArrayList<>(chunks);
+        List<Callable<Void>> tasks = new ArrayList<>(chunks);
+        AtomicBoolean failed = new AtomicBoolean();
+        for (int start = from; start < to; start += chunkSize) {
+            int chunkStart = start;
+            int chunkEnd = Math.min(to, start + chunkSize);
+            CheckContext fork = context.fork(failed);
+            forks.add(fork);
+            tasks.add(() -> {
+                check(instance, chunkStart, chunkEnd, fork);
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> result : POOL.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while validating array items", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Unable to validate array items", e.getCause());
+        }
+
+        for (CheckContext fork : forks) {
+            context.merge(fork);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.compiled;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gravitee.policy.jsonvalidation.engine.rule.Rule;
+import io.gravitee.policy.jsonvalidation.engine.rule.RuleMessages;
+import java.math.BigDecimal;
+
+/**
+ * <code>minimum</code>, <code>maximum</code> and <code>multipleOf</code>. Integers that fit in a <code>long</code> are
+ * compared without going through {@link BigDecimal} when the bounds are integers too.
+ *
+ * @author GraviteeSource Team
+ */
+final class NumberCheck implements Check {
+
+    private final String schemaPointer;
+    private final Bound minimum;
+    private final boolean exclusiveMinimum;
+    private final Bound maximum;
+    private final boolean exclusiveMaximum;
+    private final Bound multipleOf;
+
+    NumberCheck(Rule rule) {
+        this.schemaPointer = rule.getSchemaPointer();
+        this.minimum = Bound.of(rule.getMinimum());
+        this.exclusiveMinimum = rule.isExclusiveMinimum();
+        this.maximum = Bound.of(rule.getMaximum());
+        this.exclusiveMaximum = rule.isExclusiveMaximum();
+        this.multipleOf = Bound.of(rule.getMultipleOf());
+    }
+
+    @Override
+    public void check(JsonNode instance, CheckContext context) {
+        if (!instance.isNumber()) {
+            return;
+        }
+        boolean isLong = instance.isIntegralNumber() && instance.canConvertToLong();
+        if (minimum != null) {
+            int comparison = minimum.compareInstance(instance, isLong);
+            if (comparison < 0 || (comparison == 0 && exclusiveMinimum)) {
+                context.violation(schemaPointer, "minimum", RuleMessages.minimum(minimum.value, exclusiveMinimum, instance.toString()));
+            }
+        }
+        if (maximum != null) {
+            int comparison = maximum.compareInstance(instance, isLong);
+            if (comparison > 0 || (comparison == 0 && exclusiveMaximum)) {
+                context.violation(schemaPointer, "maximum", RuleMessages.maximum(maximum.value, exclusiveMaximum, instance.toString()));
+            }
+        }
+        if (multipleOf != null && !multipleOf.divides(instance, isLong)) {
+            context.violation(schemaPointer, "multipleOf", RuleMessages.multipleOf(instance.toString(), multipleOf.value));
+        }
+    }
+
+    private record Bound(BigDecimal value, boolean isLong, long longValue) {
+        static Bound of(BigDecimal value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return new Bound(value, true, value.longValueExact());
+            } catch (ArithmeticException e) {
+                return new Bound(value, false, 0);
+            }
+        }
+
+        /**
+         * Compares the instance to the bound.
+         */
+        int compareInstance(JsonNode instance, boolean instanceIsLong) {
+            if (isLong && instanceIsLong) {
+                return Long.compare(instance.longValue(), longValue);
+            }
+            return instance.decimalValue().compareTo(value);
+        }
+
+        boolean divides(JsonNode instance, boolean instanceIsLong) {
+            if (isLong && instanceIsLong) {
+                return instance.longValue() % longValue == 0;
+            }
+            return instance.decimalValue().remainder(value).signum() == 0;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.compiled;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gravitee.policy.jsonvalidation.engine.regex.EcmaRegex;
+import io.gravitee.policy.jsonvalidation.engine.rule.Rule;
+import io.gravitee.policy.jsonvalidation.engine.rule.RuleMessages;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The object keywords that do not descend into the properties: <code>required</code>, <code>minProperties</code>,
+ * <code>maxProperties</code>, <code>dependencies</code> and <code>additionalProperties: false</code>.
+ *
+ * @author GraviteeSource Team
+ */
+final class ObjectCheck implements Check {
+
+    private static final int DISALLOWED_LIMIT = 20;
+
+    private final String schemaPointer;
+    private final String[] required;
+    private final Integer minProperties;
+    private final Integer maxProperties;
+    private final Map<String, List<String>> dependencies;
+    private final boolean additionalPropertiesAllowed;
+    private final Set<String> properties;
+    private final EcmaRegex[] patterns;
+
+    ObjectCheck(Rule rule) {
+        this.schemaPointer = rule.getSchemaPointer();
+        this.required = rule.getRequired() == null ? null : rule.getRequired().toArray(String[]::new);
+        this.minProperties = rule.getMinProperties();
+        this.maxProperties = rule.getMaxProperties();
+        this.dependencies = rule.getDependencies();
+        this.additionalPropertiesAllowed = rule.isAdditionalPropertiesAllowed();
+        this.properties = rule.getProperties() == null ? Set.of() : rule.getProperties().keySet();
+        this.patterns = rule.getPatternProperties() == null
+            ? new EcmaRegex[0]
+            : rule.getPatternProperties().stream().map(Rule.PatternRule::pattern).toArray(EcmaRegex[]::new);
+    }
+
+    static boolean appliesTo(Rule rule) {
+        return (
+            rule.getRequired() != null ||
+            rule.getMinProperties() != null ||
+            rule.getMaxProperties() != null ||
+            rule.getDependencies() != null ||
+            !rule.isAdditionalPropertiesAllowed()
+        );
+    }
+
+    @Override
+    public void check(JsonNode instance, CheckContext context) {
+        if (!instance.isObject()) {
+            return;
+        }
+        int size = instance.size();
+        if (minProperties != null && size < minProperties) {
+            context.violation(schemaPointer, "minProperties", RuleMessages.minProperties(size, minProperties));
+        }
+        if (maxProperties != null && size > maxProperties) {
+            context.violation(schemaPointer, "maxProperties", RuleMessages.maxProperties(size, maxProperties));
+        }
+        if (required != null) {
+            checkRequired(instance, context);
+        }
+        if (dependencies != null) {
+            checkDependencies(instance, context);
+        }
+        if (!additionalPropertiesAllowed) {
+            checkAdditionalProperties(instance, context);
+        }
+    }
+
+    private void checkRequired(JsonNode instance, CheckContext context) {
+        List<String> missing = null;
+        for (String name : required) {
+            if (!instance.has(name)) {
+                if (missing == null) {
+                    missing = new ArrayList<>();
+                }
+                missing.add(name);
+            }
+        }
+        if (missing != null) {
+            context.violation(schemaPointer, "required", RuleMessages.required(missing));
+        }
+    }
+
+    private void checkDependencies(JsonNode instance, CheckContext context) {
+        for (Map.Entry<String, List<String>> dependency : dependencies.entrySet()) {
+            if (!instance.has(dependency.getKey())) {
+                continue;
+            }
+            List<String> missing = dependency.getValue().stream().filter(name -> !instance.has(name)).toList();
+            if (!missing.isEmpty()) {
+                String message = RuleMessages.dependencies(dependency.getKey(), dependency.getValue(), missing);
+                context.violation(schemaPointer, "dependencies", message);
+            }
+        }
+    }
+
+    private void checkAdditionalProperties(JsonNode instance, CheckContext context) {
+        List<String> disallowed = null;
+        int count = 0;
+        for (Iterator<String> names = instance.fieldNames(); names.hasNext();) {
+            String name = names.next();
+            if (properties.contains(name) || matchesPattern(name)) {
+                continue;
+            }
+            count++;
+            if (disallowed == null) {
+                disallowed = new ArrayList<>();
+            }
+            if (disallowed.size() < DISALLOWED_LIMIT) {
+                disallowed.add(name);
+            }
+        }
+        if (disallowed != null) {
+            context.violation(
+                schemaPointer,
+                "additionalProperties",
+                RuleMessages.additionalProperties(disallowed, count - disallowed.size())
+            );
+        }
+    }
+
+    /**
+     * A name on which a pattern exhausts its budget counts as matched: {@link PropertiesCheck} reports it.
+     */
+    private boolean matchesPattern(String name) {
+        for (EcmaRegex pattern : patterns) {
+            if (pattern.match(name) != EcmaRegex.Match.NOT_FOUND) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.compiled;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gravitee.policy.jsonvalidation.engine.regex.EcmaRegex;
+import io.gravitee.policy.jsonvalidation.engine.rule.RuleMessages;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * <code>properties</code>, <code>patternProperties</code> and <code>additionalProperties</code>: checks each property
+ * value against every schema that applies to it. A property name on which a pattern exhausts its budget is reported
+ * rather than left to <code>additionalProperties</code>, so that a crafted name cannot slip past a pattern's schema.
+ *
+ * @author GraviteeSource Team
+ */
+final class PropertiesCheck implements Check {
+
+    private final String schemaPointer;
+    private final Map<String, Check> properties;
+    private final EcmaRegex[] patterns;
+    private final Check[] patternChecks;
+    private final Check additional;
+
+    /**
+     * @param properties the check of each declared property; {@link CheckCompiler#ACCEPT} for properties accepting any
+     * value, which still keeps them from being additional properties.
+     * @param additional the check of the properties matching neither a declared name nor a pattern, if any.
+     */
+    PropertiesCheck(String schemaPointer, Map<String, Check> properties, EcmaRegex[] patterns, Check[] patternChecks, Check additional) {
+        this.schemaPointer = schemaPointer;
+        this.properties = properties;
+        this.patterns = patterns;
+        this.patternChecks = patternChecks;
+        this.additional = additional;
+    }
+
+    @Override
+    public void check(JsonNode instance, CheckContext context) {
+        if (!instance.isObject()) {
+            return;
+        }
+        for (Iterator<Map.Entry<String, JsonNode>> fields = instance.fields(); fields.hasNext();) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String name = field.getKey();
+            JsonNode value = field.getValue();
+            EcmaRegex exhausted = null;
+            context.push(name);
+            try {
+                Check property = properties.get(name);
+                boolean matched = property != null;
+                if (matched) {
+                    property.check(value, context);
+                }
+                for (int i = 0; i < patterns.length && !context.stopped(); i++) {
+                    EcmaRegex.Match match = patterns[i].match(name);
+                    if (match == EcmaRegex.Match.FOUND) {
+                        matched = true;
+                        patternChecks[i].check(value, context);
+                    } else if (match == EcmaRegex.Match.EXHAUSTED) {
+                        matched = true;
+                        exhausted = patterns[i];
+                    }
+                }
+                if (!matched && additional != null) {
+                    additional.check(value, context);
+                }
+            } finally {
+                context.pop();
+            }
+            if (exhausted != null) {
+                // Reported on the object, as the name rather than the value is at fault
+                context.violation(schemaPointer, "patternProperties", RuleMessages.patternExhausted(exhausted, name));
+            }
+            if (context.stopped()) {
+                return;
+            }
+        }
+    }
+}
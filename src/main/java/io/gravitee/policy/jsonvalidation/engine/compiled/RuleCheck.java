@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.compiled;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * The checks of one (sub)schema. Checks on the value itself run first; checks descending into properties or items only
+ * run when they pass or when a deep check is requested, like with the default engine.
+ *
+ * @author GraviteeSource Team
+ */
+final class RuleCheck implements Check {
+
+    private static final Check[] NONE = new Check[0];
+
+    private Check[] checks = NONE;
+    private Check[] children = NONE;
+
+    /**
+     * Set once the keywords are compiled: the check itself is created first so that recursive references can point to
+     * it.
+     */
+    void init(Check[] checks, Check[] children) {
+        this.checks = checks;
+        this.children = children;
+    }
+
+    @Override
+    public void check(JsonNode instance, CheckContext context) {
+        int before = context.count();
+        for (Check check : checks) {
+            check.check(instance, context);
+            if (context.stopped()) {
+                return;
+            }
+        }
+        if (children.length == 0 || (!context.deepCheck() && context.count() != before)) {
+            return;
+        }
+        for (Check check : children) {
+            check.check(instance, context);
+            if (context.stopped()) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.compiled;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gravitee.policy.jsonvalidation.engine.regex.EcmaRegex;
+import io.gravitee.policy.jsonvalidation.engine.rule.Rule;
+import io.gravitee.policy.jsonvalidation.engine.rule.RuleMessages;
+
+/**
+ * <code>minLength</code>, <code>maxLength</code> and <code>pattern</code>.
+ *
+ * @author GraviteeSource Team
+ */
+final class StringCheck implements Check {
+
+    private static final int UNBOUNDED = -1;
+
+    private final String schemaPointer;
+    private final int minLength;
+    private final int maxLength;
+    private final EcmaRegex pattern;
+
+    StringCheck(Rule rule) {
+        this.schemaPointer = rule.getSchemaPointer();
+        this.minLength = rule.getMinLength() == null ? UNBOUNDED : rule.getMinLength();
+        this.maxLength = rule.getMaxLength() == null ? UNBOUNDED : rule.getMaxLength();
+        this.pattern = rule.getPattern();
+    }
+
+    @Override
+    public void check(JsonNode instance, CheckContext context) {
+        if (!instance.isTextual()) {
+            return;
+        }
+        String text = instance.textValue();
+        if (minLength != UNBOUNDED || maxLength != UNBOUNDED) {
+            int length = text.codePointCount(0, text.length());
+            if (minLength != UNBOUNDED && length < minLength) {
+                context.violation(schemaPointer, "minLength", RuleMessages.minLength(text, length, minLength));
+            }
+            if (maxLength != UNBOUNDED && length > maxLength) {
+                context.violation(schemaPointer, "maxLength", RuleMessages.maxLength(text, length, maxLength));
+            }
+        }
+        if (pattern != null && !pattern.find(text)) {
+            context.violation(schemaPointer, "pattern", RuleMessages.pattern(pattern, text));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.compiled;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gravitee.policy.jsonvalidation.engine.rule.InstanceType;
+import io.gravitee.policy.jsonvalidation.engine.rule.RuleMessages;
+import java.util.Set;
+
+/**
+ * @author GraviteeSource Team
+ */
+final class TypeCheck implements Check {
+
+    private final String schemaPointer;
+    private final Set<InstanceType> types;
+    private final boolean[] allowed = new boolean[InstanceType.values().length];
+
+    TypeCheck(String schemaPointer, Set<InstanceType> types) {
+        this.schemaPointer = schemaPointer;
+        this.types = types;
+        for (InstanceType type : types) {
+            allowed[type.ordinal()] = true;
+        }
+        // Integers are numbers.
+        allowed[InstanceType.INTEGER.ordinal()] |= types.contains(InstanceType.NUMBER);
+    }
+
+    @Override
+    public void check(JsonNode instance, CheckContext context) {
+        InstanceType type = InstanceType.of(instance);
+        if (!allowed[type.ordinal()]) {
+            context.violation(schemaPointer, "type", RuleMessages.type(type, types));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.fge;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.github.fge.jackson.JacksonUtils;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.processing.Processor;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.core.util.RegexECMA262Helper;
+import com.github.fge.jsonschema.keyword.validator.AbstractKeywordValidator;
+import com.github.fge.jsonschema.processors.data.FullData;
+import com.github.fge.msgsimple.bundle.MessageBundle;
+import io.gravitee.policy.jsonvalidation.engine.regex.EcmaRegex;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Validator of the <code>additionalProperties</code> keyword matching the names against <code>patternProperties</code>
+ * with {@link EcmaRegex} instead of Rhino. Reports the same message as the stock validator. A name on which a pattern
+ * exhausts its budget is not matched by it, so that a crafted name cannot slip past <code>additionalProperties</code>.
+ *
+ * @author GraviteeSource Team
+ */
+public final class EcmaAdditionalPropertiesValidator extends AbstractKeywordValidator {
+
+    private final boolean additionalAllowed;
+    private final Set<String> properties = new HashSet<>();
+    private final Set<String> patterns = new HashSet<>();
+
+    public EcmaAdditionalPropertiesValidator(JsonNode digest) {
+        super("additionalProperties");
+        additionalAllowed = digest.get(keyword).booleanValue();
+        digest.get("properties").forEach(name -> properties.add(name.textValue()));
+        digest.get("patternProperties").forEach(pattern -> patterns.add(pattern.textValue()));
+    }
+
+    @Override
+    public void validate(Processor<FullData, FullData> processor, ProcessingReport report, MessageBundle bundle, FullData data)
+        throws ProcessingException {
+        if (additionalAllowed) {
+            return;
+        }
+        SortedSet<String> unwanted = new TreeSet<>();
+        for (Iterator<String> names = data.getInstance().getNode().fieldNames(); names.hasNext();) {
+            String name = names.next();
+            if (!properties.contains(name) && !matchesPattern(name)) {
+                unwanted.add(name);
+            }
+        }
+        if (!unwanted.isEmpty()) {
+            ArrayNode names = JacksonUtils.nodeFactory().arrayNode();
+            unwanted.forEach(names::add);
+            report.error(newMsg(data, bundle, "err.common.additionalProperties.notAllowed").putArgument("unwanted", names));
+        }
+    }
+
+    private boolean matchesPattern(String name) {
+        for (String regex : patterns) {
+            if (matches(regex, name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String regex, String value) {
+        try {
+            return EcmaRegex.compile(regex).find(value);
+        } catch (PatternSyntaxException e) {
+            return RegexECMA262Helper.regMatch(regex, value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return keyword + ": " + (additionalAllowed ? "allowed" : properties.size() + " properties, " + patterns.size() + " patterns");
+    }
+}
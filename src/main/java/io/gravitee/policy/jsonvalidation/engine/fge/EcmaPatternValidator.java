@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.fge;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.processing.Processor;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.core.util.RegexECMA262Helper;
+import com.github.fge.jsonschema.keyword.validator.AbstractKeywordValidator;
+import com.github.fge.jsonschema.processors.data.FullData;
+import com.github.fge.msgsimple.bundle.MessageBundle;
+import io.gravitee.policy.jsonvalidation.engine.regex.EcmaRegex;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Validator of the <code>pattern</code> keyword using {@link EcmaRegex} instead of evaluating each match with Rhino.
+ * Reports the same message as the stock validator. Expressions which cannot be translated are still evaluated by Rhino.
+ *
+ * @author GraviteeSource Team
+ */
+public final class EcmaPatternValidator extends AbstractKeywordValidator {
+
+    public EcmaPatternValidator(JsonNode digest) {
+        super("pattern");
+    }
+
+    @Override
+    public void validate(Processor<FullData, FullData> processor, ProcessingReport report, MessageBundle bundle, FullData data)
+        throws ProcessingException {
+        String regex = data.getSchema().getNode().get(keyword).textValue();
+        String value = data.getInstance().getNode().textValue();
+        if (!matches(regex, value)) {
+            report.error(newMsg(data, bundle, "err.common.pattern.noMatch").putArgument("regex", regex).putArgument("string", value));
+        }
+    }
+
+    private static boolean matches(String regex, String value) {
+        try {
+            return EcmaRegex.compile(regex).find(value);
+        } catch (PatternSyntaxException e) {
+            return RegexECMA262Helper.regMatch(regex, value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return keyword;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.fge;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ListProcessingReport;
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
+import io.gravitee.policy.jsonvalidation.engine.SchemaValidator;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import io.gravitee.policy.jsonvalidation.engine.ValidationOptions;
+import io.gravitee.policy.jsonvalidation.engine.ValidationReport;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author GraviteeSource Team
+ */
+@Slf4j
+class FgeSchemaValidator implements SchemaValidator {
+
+    private static final String VALIDATION_DOMAIN = "validation";
+
+    // One empty instance per JSON type: enough to build the root validator chain without visiting any child schema.
+    private static final List<JsonNode> WARM_UP_INSTANCES = List.of(
+        JsonNodeFactory.instance.objectNode(),
+        JsonNodeFactory.instance.arrayNode(),
+        JsonNodeFactory.instance.textNode(""),
+        JsonNodeFactory.instance.numberNode(0),
+        JsonNodeFactory.instance.numberNode(0.5d),
+        JsonNodeFactory.instance.booleanNode(false),
+        JsonNodeFactory.instance.nullNode()
+    );
+
+    private final JsonSchema jsonSchema;
+    private final JsonNode tree;
+    private final SchemaLoading schemaLoading;
+    private volatile JsonSchema failFastSchema;
+
+    FgeSchemaValidator(JsonSchema jsonSchema, JsonNode tree, SchemaLoading schemaLoading) {
+        this.jsonSchema = jsonSchema;
+        this.tree = tree;
+        this.schemaLoading = schemaLoading;
+    }
+
+    @Override
+    public ValidationReport validate(JsonNode instance, ValidationOptions options) throws ValidationEngineException {
+        try {
+            JsonSchema schema = options.failFast() ? failFastSchema() : jsonSchema;
+            return new FgeValidationReport(
+                options.unchecked()
+                    ? schema.validateUnchecked(instance, options.deepCheck())
+                    : schema.validate(instance, options.deepCheck())
+            );
+        } catch (ProcessingException e) {
+            if (options.failFast() && VALIDATION_DOMAIN.equals(e.getProcessingMessage().asJson().path("domain").asText())) {
+                // The fail-fast report threw on the first violation: it is the only one reported.
+                return new FgeValidationReport(singleViolation(e.getProcessingMessage()));
+            }
+            throw new ValidationEngineException(e.getMessage(), e);
+        }
+    }
+
+    private JsonSchema failFastSchema() throws ProcessingException {
+        JsonSchema result = failFastSchema;
+        if (result == null) {
+            synchronized (this) {
+                result = failFastSchema;
+                if (result == null) {
+                    result = schemaLoading.failFastFactory().getJsonSchema(tree);
+                    failFastSchema = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static ProcessingReport singleViolation(ProcessingMessage message) throws ProcessingException {
+        ProcessingReport report = new ListProcessingReport();
+        report.error(message);
+        return report;
+    }
+
+    @Override
+    public ValidationReport validate(byte[] payload, ValidationOptions options) throws IOException, ValidationEngineException {
+        return validate(options.limits().readTree(payload), options);
+    }
+
+    @Override
+    public ValidationReport validate(InputStream payload, ValidationOptions options) throws IOException, ValidationEngineException {
+        return validate(options.limits().readTree(payload), options);
+    }
+
+    /**
+     * The validator builds its keyword chains lazily on first use. Validating one empty instance per JSON type builds
+     * the chains of the root schema and of the schemas reached without descending into the instance: the target of a
+     * root <code>$ref</code> and the branches of <code>allOf</code>, <code>anyOf</code>, <code>oneOf</code> and
+     * <code>not</code>. Schemas with a non local <code>$ref</code> are not warmed up, as resolving it could reach the
+     * network; they are loaded on first use.
+     */
+    @Override
+    public void warmUp() {
+        if (hasNonLocalReference(tree)) {
+            log.debug("Warm-up skipped for a JSON schema with non local references");
+            return;
+        }
+        for (JsonNode instance : WARM_UP_INSTANCES) {
+            try {
+                jsonSchema.validateUnchecked(instance);
+            } catch (RuntimeException e) {
+                // Warm-up is best effort: the problem is reported again when a payload is validated.
+                log.warn("Warm-up of a JSON schema failed: {}", e.getMessage(), e);
+                return;
+            }
+        }
+    }
+
+    static boolean hasNonLocalReference(JsonNode node) {
+        if (node.isObject()) {
+            JsonNode ref = node.get("$ref");
+            if (ref != null && ref.isTextual() && !ref.textValue().startsWith("#")) {
+                return true;
+            }
+        }
+        for (JsonNode child : node) {
+            if (hasNonLocalReference(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
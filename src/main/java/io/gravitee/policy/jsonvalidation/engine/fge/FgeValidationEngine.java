@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.fge;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.LogLevel;
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import io.gravitee.policy.jsonvalidation.engine.SchemaValidator;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngine;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Engine backed by the java-json-tools JSON Schema Validator.
+ *
+ * @author GraviteeSource Team
+ */
+public class FgeValidationEngine implements ValidationEngine {
+
+    private final SchemaLoading schemaLoading;
+
+    public FgeValidationEngine(SchemaLoading schemaLoading) {
+        this.schemaLoading = schemaLoading;
+    }
+
+    @Override
+    public String key() {
+        // The default loading keeps an empty key so that compiled schemas share the same pool entries as before engines
+        // were selectable.
+        return schemaLoading.key().isEmpty() ? "" : "fge:" + schemaLoading.key();
+    }
+
+    @Override
+    public SchemaValidator compile(JsonNode schema) throws ValidationEngineException {
+        try {
+            JsonNode tuned = SchemaLoading.withTunedLibrary(schema);
+            return new FgeSchemaValidator(schemaLoading.factory().getJsonSchema(tuned), tuned, schemaLoading);
+        } catch (ProcessingException e) {
+            throw new ValidationEngineException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<String> checkSyntax(JsonNode schema) {
+        ProcessingReport report = schemaLoading.factory().getSyntaxValidator().validateSchema(schema);
+        List<String> errors = new ArrayList<>();
+        for (ProcessingMessage message : report) {
+            if (message.getLogLevel().compareTo(LogLevel.ERROR) >= 0) {
+                errors.add(message.getMessage());
+            }
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.fge;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import io.gravitee.policy.jsonvalidation.engine.ValidationReport;
+import io.gravitee.policy.jsonvalidation.engine.Violation;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author GraviteeSource Team
+ */
+class FgeValidationReport implements ValidationReport {
+
+    private final ProcessingReport report;
+
+    FgeValidationReport(ProcessingReport report) {
+        this.report = report;
+    }
+
+    @Override
+    public boolean isSuccess() {
+        return report.isSuccess();
+    }
+
+    @Override
+    public List<Violation> violations() {
+        List<Violation> violations = new ArrayList<>();
+        for (ProcessingMessage processingMessage : report) {
+            JsonNode json = processingMessage.asJson();
+            violations.add(new Violation(json.path("instance").path("pointer").asText(), json.path("message").asText()));
+        }
+        return violations;
+    }
+
+    @Override
+    public String toString() {
+        return report.toString();
+    }
+}
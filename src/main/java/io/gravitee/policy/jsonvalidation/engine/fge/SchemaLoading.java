@@ -0,0 +1,279 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.fge;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.fge.jackson.JsonLoader;
+import com.github.fge.jsonschema.cfg.ValidationConfiguration;
+import com.github.fge.jsonschema.core.load.configuration.LoadingConfiguration;
+import com.github.fge.jsonschema.core.load.configuration.LoadingConfigurationBuilder;
+import com.github.fge.jsonschema.core.report.ListReportProvider;
+import com.github.fge.jsonschema.core.report.LogLevel;
+import com.github.fge.jsonschema.keyword.validator.KeywordValidator;
+import com.github.fge.jsonschema.library.DraftV4Library;
+import com.github.fge.jsonschema.library.Keyword;
+import com.github.fge.jsonschema.library.Library;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import io.gravitee.policy.jsonvalidation.configuration.reference.ReferenceMapping;
+import io.gravitee.policy.jsonvalidation.configuration.reference.ReferenceResolution;
+import io.gravitee.policy.jsonvalidation.engine.regex.EcmaRegex;
+import io.gravitee.policy.jsonvalidation.schema.CompiledSchemaPool;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Schema factory used to compile schemas, together with a key identifying how it loads referenced schemas. Two
+ * policies configured with the same reference mappings share their compiled schemas in the {@link CompiledSchemaPool}.
+ * <p>
+ * Mapped schemas, and the JSON files of mapped directories, are preloaded when the factory is built, so that a mapped
+ * <code>$ref</code> never reaches the network nor the file system while a request is validated.
+ * <p>
+ * Schemas which do not declare a <code>$schema</code>, or declare draft v4, are validated with draft v4 where
+ * <code>pattern</code> and the <code>patternProperties</code> names checked by <code>additionalProperties</code> are
+ * evaluated by {@link EcmaRegex} rather than by Rhino (see {@link #withTunedLibrary(JsonNode)}). Which
+ * <code>patternProperties</code> schemas apply to a property is still decided by Rhino.
+ *
+ * @author GraviteeSource Team
+ */
+public final class SchemaLoading {
+
+    private static final String[] REMOTE_SCHEMES = { "http", "https" };
+
+    /**
+     * System property listing the directories, comma separated, under which mapped directories must be.
+     */
+    public static final String REFERENCE_ROOTS_PROPERTY = "gravitee.policy.json-validation.reference-roots";
+    private static final String GATEWAY_HOME_PROPERTY = "gravitee.home";
+    private static final int MAX_DIRECTORY_DEPTH = 8;
+    private static final int MAX_DIRECTORY_FILES = 1000;
+
+    /**
+     * The stock draft v4 library cannot be replaced under its own URI, so the tuned one is registered as the default.
+     */
+    private static final String DEFAULT_LIBRARY_URI = "https://gravitee.io/json-validation/draft-04/schema#";
+    private static final Set<String> DRAFT_V4_URIS = Set.of(
+        "http://json-schema.org/draft-04/schema#",
+        "http://json-schema.org/draft-04/schema"
+    );
+    private static final ValidationConfiguration VALIDATION_CONFIGURATION = validationConfiguration();
+
+    public static final SchemaLoading DEFAULT = new SchemaLoading(LoadingConfiguration.byDefault(), "");
+
+    private final LoadingConfiguration loadingConfiguration;
+    private final JsonSchemaFactory factory;
+    private final String key;
+    private volatile JsonSchemaFactory failFastFactory;
+
+    private SchemaLoading(LoadingConfiguration loadingConfiguration, String key) {
+        this.loadingConfiguration = loadingConfiguration;
+        this.factory = JsonSchemaFactory
+            .newBuilder()
+            .setLoadingConfiguration(loadingConfiguration)
+            .setValidationConfiguration(VALIDATION_CONFIGURATION)
+            .freeze();
+        this.key = key;
+    }
+
+    public static SchemaLoading of(ReferenceResolution referenceResolution) throws IOException {
+        if (
+            referenceResolution == null ||
+            (!referenceResolution.isOffline() && (referenceResolution.getMappings() == null || referenceResolution.getMappings().isEmpty()))
+        ) {
+            return DEFAULT;
+        }
+
+        LoadingConfigurationBuilder loading = LoadingConfiguration.newBuilder();
+        StringBuilder key = new StringBuilder(referenceResolution.isOffline() ? "offline" : "online");
+
+        if (referenceResolution.getMappings() != null) {
+            for (ReferenceMapping mapping : referenceResolution.getMappings()) {
+                String uri = mapping.getUri();
+                if (uri == null || uri.isBlank()) {
+                    throw new IOException("A reference mapping must define a URI");
+                }
+                try {
+                    if (mapping.getSchema() != null && !mapping.getSchema().isBlank()) {
+                        JsonNode schema = JsonLoader.fromString(mapping.getSchema());
+                        loading.preloadSchema(uri, schema);
+                        key.append("|schema:").append(uri).append('=').append(CompiledSchemaPool.fingerprint(schema));
+                    } else if (mapping.getDirectory() != null && !mapping.getDirectory().isBlank()) {
+                        preloadDirectory(loading, key, withTrailingSlash(uri), allowedDirectory(mapping.getDirectory()));
+                    } else {
+                        throw new IOException("Reference mapping for " + uri + " must define either a schema or a directory");
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid reference mapping for " + uri + ": " + e.getMessage(), e);
+                }
+            }
+        }
+
+        if (referenceResolution.isOffline()) {
+            for (String scheme : REMOTE_SCHEMES) {
+                loading.removeScheme(scheme);
+            }
+        }
+
+        return new SchemaLoading(loading.freeze(), key.toString());
+    }
+
+    // Every JSON file of the directory is read now, so that no reference is ever resolved by reading a file while a
+    // request is validated. Symbolic links are not followed, so nothing outside the directory is read.
+    private static void preloadDirectory(LoadingConfigurationBuilder loading, StringBuilder key, String prefix, Path directory)
+        throws IOException {
+        key.append("|directory:").append(prefix).append('=').append(directory.toUri());
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory, MAX_DIRECTORY_DEPTH)) {
+            files = walk
+                .filter(file -> Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS) && file.getFileName().toString().endsWith(".json"))
+                .sorted()
+                .limit(MAX_DIRECTORY_FILES + 1L)
+                .toList();
+        }
+        if (files.size() > MAX_DIRECTORY_FILES) {
+            throw new IOException("Directory " + directory + " holds more than " + MAX_DIRECTORY_FILES + " schemas");
+        }
+        for (Path file : files) {
+            String uri = prefix + relativeUri(directory.relativize(file));
+            JsonNode schema;
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                schema = JsonLoader.fromReader(reader);
+            }
+            loading.preloadSchema(uri, schema);
+            key.append("|schema:").append(uri).append('=').append(CompiledSchemaPool.fingerprint(schema));
+        }
+    }
+
+    /**
+     * The real path of a mapped directory, which must be inside one of the roots listed in the
+     * <code>{@value #REFERENCE_ROOTS_PROPERTY}</code> system property (comma separated), or by default in the gateway
+     * home directory when it is known.
+     */
+    static Path allowedDirectory(String directory) throws IOException {
+        Path real = Path.of(directory).toRealPath();
+        if (!Files.isDirectory(real)) {
+            throw new IOException(directory + " is not a directory");
+        }
+        String roots = System.getProperty(REFERENCE_ROOTS_PROPERTY, System.getProperty(GATEWAY_HOME_PROPERTY));
+        if (roots == null || roots.isBlank()) {
+            return real;
+        }
+        for (String root : roots.split(",")) {
+            if (root.isBlank()) {
+                continue;
+            }
+            Path rootPath = Path.of(root.trim());
+            if (Files.exists(rootPath) && real.startsWith(rootPath.toRealPath())) {
+                return real;
+            }
+        }
+        throw new IOException("Directory " + directory + " is outside the allowed reference roots " + roots);
+    }
+
+    private static String relativeUri(Path relative) throws IOException {
+        StringBuilder path = new StringBuilder();
+        for (Path segment : relative) {
+            path.append(path.length() == 0 ? "" : "/").append(segment);
+        }
+        try {
+            return new URI(null, null, path.toString(), null).getRawPath();
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid schema file name " + relative, e);
+        }
+    }
+
+    public JsonSchemaFactory factory() {
+        return factory;
+    }
+
+    /**
+     * Factory whose reports throw on the first error, so that a validation stops at the first violation. Built on first
+     * use, as most policies never enable fail-fast.
+     */
+    public JsonSchemaFactory failFastFactory() {
+        JsonSchemaFactory result = failFastFactory;
+        if (result == null) {
+            synchronized (this) {
+                result = failFastFactory;
+                if (result == null) {
+                    result = JsonSchemaFactory
+                        .newBuilder()
+                        .setLoadingConfiguration(loadingConfiguration)
+                        .setValidationConfiguration(VALIDATION_CONFIGURATION)
+                        .setReportProvider(new ListReportProvider(LogLevel.INFO, LogLevel.ERROR))
+                        .freeze();
+                    failFastFactory = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Empty for the default factory, so that schemas compiled with it keep the same pool key.
+     */
+    String key() {
+        return key;
+    }
+
+    /**
+     * The schema to compile for the given one: a schema declaring the stock draft v4 as its <code>$schema</code> is
+     * given the tuned library instead, as a schema which does not declare any.
+     */
+    static JsonNode withTunedLibrary(JsonNode schema) {
+        JsonNode declared = schema.get("$schema");
+        if (declared == null || !declared.isTextual() || !DRAFT_V4_URIS.contains(declared.textValue())) {
+            return schema;
+        }
+        ObjectNode tuned = ((ObjectNode) schema).deepCopy();
+        tuned.put("$schema", DEFAULT_LIBRARY_URI);
+        return tuned;
+    }
+
+    private static ValidationConfiguration validationConfiguration() {
+        Library draftV4 = DraftV4Library.get();
+        Library library = draftV4
+            .thaw()
+            .removeKeyword("pattern")
+            .addKeyword(tuned(draftV4, "pattern", EcmaPatternValidator.class))
+            .removeKeyword("additionalProperties")
+            .addKeyword(tuned(draftV4, "additionalProperties", EcmaAdditionalPropertiesValidator.class))
+            .freeze();
+        return ValidationConfiguration.newBuilder().setDefaultLibrary(DEFAULT_LIBRARY_URI, library).freeze();
+    }
+
+    private static Keyword tuned(Library draftV4, String name, Class<? extends KeywordValidator> validator) {
+        return Keyword
+            .newBuilder(name)
+            .withSyntaxChecker(draftV4.getSyntaxCheckers().entries().get(name))
+            .withDigester(draftV4.getDigesters().entries().get(name))
+            .withValidatorClass(validator)
+            .freeze();
+    }
+
+    private static String withTrailingSlash(String uri) {
+        return uri.endsWith("/") ? uri : uri + "/";
+    }
+}
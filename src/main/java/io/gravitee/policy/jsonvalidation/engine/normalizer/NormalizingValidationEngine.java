@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.normalizer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gravitee.policy.jsonvalidation.engine.SchemaValidator;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngine;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import java.util.List;
+
+/**
+ * Engine compiling the {@link SchemaNormalizer normalized} form of the schemas with another engine. Syntax is checked on
+ * the schema as written, so that errors point to what the user configured.
+ *
+ * @author GraviteeSource Team
+ */
+public class NormalizingValidationEngine implements ValidationEngine {
+
+    private final ValidationEngine delegate;
+
+    public NormalizingValidationEngine(ValidationEngine delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String key() {
+        return delegate.key().isEmpty() ? "normalized" : "normalized:" + delegate.key();
+    }
+
+    @Override
+    public SchemaValidator compile(JsonNode schema) throws ValidationEngineException {
+        return delegate.compile(SchemaNormalizer.normalize(schema));
+    }
+
+    @Override
+    public List<String> checkSyntax(JsonNode schema) {
+        return delegate.checkSyntax(schema);
+    }
+}
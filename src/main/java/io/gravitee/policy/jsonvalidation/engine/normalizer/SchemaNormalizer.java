@@ -0,0 +1,309 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.normalizer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.gravitee.policy.jsonvalidation.engine.rule.RuleCompiler;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrites a draft-04 schema into an equivalent one that is cheaper to compile and to evaluate:
+ * <ul>
+ *     <li>annotations (<code>title</code>, <code>description</code>, <code>example</code>, ...) are removed;</li>
+ *     <li>keywords accepting anything (<code>additionalProperties: true</code>, empty <code>properties</code>,
+ *     <code>minItems: 0</code>, ...) are removed;</li>
+ *     <li><code>type</code> lists are deduplicated;</li>
+ *     <li>empty schemas are removed from <code>allOf</code>, an <code>anyOf</code> with an empty schema is removed, and
+ *     a combinator left with a single schema is merged into its parent when their keywords do not conflict and do not
+ *     interact (<code>additionalProperties</code> with <code>properties</code>, <code>additionalItems</code> with
+ *     <code>items</code>, ...).</li>
+ * </ul>
+ * The input is not modified. Nothing a <code>$ref</code> points to, or into, is moved or removed, so references keep
+ * resolving to equivalent schemas. Violations are the same, but they may be reported at different schema pointers and a
+ * flattened combinator reports the violations of its branch instead of its own.
+ *
+ * @author GraviteeSource Team
+ */
+public final class SchemaNormalizer {
+
+    private static final Set<String> ANNOTATIONS = Set.of(
+        "title",
+        "description",
+        "default",
+        "example",
+        "examples",
+        "$comment",
+        "readOnly",
+        "writeOnly",
+        "deprecated",
+        "externalDocs",
+        "xml"
+    );
+    private static final Set<String> ZERO_BOUNDS = Set.of("minLength", "minItems", "minProperties");
+    private static final List<String> COMBINATORS = List.of("allOf", "anyOf", "oneOf");
+    // Keywords whose meaning depends on a sibling: they cannot be moved next to a sibling they did not see before.
+    private static final Map<String, Set<String>> INTERACTIONS = Map.of(
+        "additionalProperties",
+        Set.of("properties", "patternProperties"),
+        "properties",
+        Set.of("additionalProperties"),
+        "patternProperties",
+        Set.of("additionalProperties"),
+        "additionalItems",
+        Set.of("items"),
+        "items",
+        Set.of("additionalItems"),
+        "exclusiveMaximum",
+        Set.of("maximum"),
+        "maximum",
+        Set.of("exclusiveMaximum"),
+        "exclusiveMinimum",
+        Set.of("minimum"),
+        "minimum",
+        Set.of("exclusiveMinimum")
+    );
+
+    private final Set<String> references = new HashSet<>();
+
+    private SchemaNormalizer() {}
+
+    public static JsonNode normalize(JsonNode schema) {
+        if (!schema.isObject()) {
+            return schema;
+        }
+        SchemaNormalizer normalizer = new SchemaNormalizer();
+        normalizer.collectReferences(schema);
+        return normalizer.schema((ObjectNode) schema, "");
+    }
+
+    private void collectReferences(JsonNode node) {
+        if (node.isObject()) {
+            JsonNode ref = node.get("$ref");
+            if (ref != null && ref.isTextual()) {
+                references.add(fragment(ref.textValue()));
+            }
+        }
+        if (node.isContainerNode()) {
+            node.forEach(this::collectReferences);
+        }
+    }
+
+    private static String fragment(String ref) {
+        try {
+            String fragment = new URI(ref).getFragment();
+            return fragment == null ? "" : fragment;
+        } catch (URISyntaxException e) {
+            int hash = ref.indexOf('#');
+            return hash < 0 ? "" : ref.substring(hash + 1);
+        }
+    }
+
+    /**
+     * Whether a reference points to the value at the pointer or inside it.
+     */
+    private boolean referenced(String pointer) {
+        for (String reference : references) {
+            if (reference.equals(pointer) || reference.startsWith(pointer + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ObjectNode schema(ObjectNode node, String pointer) {
+        ObjectNode result = JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String keyword = field.getKey();
+            JsonNode value = field.getValue();
+            String at = pointer + "/" + RuleCompiler.escape(keyword);
+            // What a reference leads to must stay where it is, but may still be normalized.
+            if (referenced(at) || !isNoop(keyword, value)) {
+                result.set(keyword, keyword(keyword, value, at));
+            }
+        }
+        if (!result.has("$ref")) {
+            simplifyCombinators(result, pointer);
+        }
+        return result;
+    }
+
+    private static boolean isNoop(String keyword, JsonNode value) {
+        if (ANNOTATIONS.contains(keyword)) {
+            return true;
+        }
+        if (ZERO_BOUNDS.contains(keyword)) {
+            return value.isIntegralNumber() && value.intValue() == 0;
+        }
+        return switch (keyword) {
+            case "additionalProperties", "additionalItems" -> value.isBoolean() && value.booleanValue();
+            case "properties", "patternProperties", "dependencies", "definitions" -> value.isObject() && value.isEmpty();
+            case "items" -> value.isObject() && value.isEmpty();
+            default -> false;
+        };
+    }
+
+    private JsonNode keyword(String keyword, JsonNode value, String at) {
+        return switch (keyword) {
+            case "type" -> type(value);
+            case "not" -> value.isObject() ? schema((ObjectNode) value, at) : value.deepCopy();
+            case "additionalProperties", "additionalItems", "items" -> value.isObject()
+                ? schema((ObjectNode) value, at)
+                : schemas(value, at);
+            case "allOf", "anyOf", "oneOf" -> schemas(value, at);
+            case "properties", "patternProperties", "definitions", "dependencies" -> schemaMap(value, at);
+            default -> value.deepCopy();
+        };
+    }
+
+    private JsonNode schemas(JsonNode value, String at) {
+        if (!value.isArray()) {
+            return value.deepCopy();
+        }
+        ArrayNode result = JsonNodeFactory.instance.arrayNode();
+        for (int i = 0; i < value.size(); i++) {
+            JsonNode element = value.get(i);
+            result.add(element.isObject() ? schema((ObjectNode) element, at + "/" + i) : element.deepCopy());
+        }
+        return result;
+    }
+
+    private JsonNode schemaMap(JsonNode value, String at) {
+        if (!value.isObject()) {
+            return value.deepCopy();
+        }
+        ObjectNode result = JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = value.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode schema = field.getValue();
+            String pointer = at + "/" + RuleCompiler.escape(field.getKey());
+            // Property dependencies are arrays of names, not schemas.
+            result.set(field.getKey(), schema.isObject() ? schema((ObjectNode) schema, pointer) : schema.deepCopy());
+        }
+        return result;
+    }
+
+    private static JsonNode type(JsonNode value) {
+        if (!value.isArray()) {
+            return value.deepCopy();
+        }
+        Set<String> types = new LinkedHashSet<>();
+        for (JsonNode type : value) {
+            if (!type.isTextual()) {
+                return value.deepCopy();
+            }
+            types.add(type.textValue());
+        }
+        if (types.contains("number")) {
+            // Integers are numbers.
+            types.remove("integer");
+        }
+        if (types.size() == 1) {
+            return JsonNodeFactory.instance.textNode(types.iterator().next());
+        }
+        ArrayNode result = JsonNodeFactory.instance.arrayNode();
+        types.forEach(result::add);
+        return result;
+    }
+
+    private void simplifyCombinators(ObjectNode schema, String pointer) {
+        for (String combinator : COMBINATORS) {
+            JsonNode branches = schema.get(combinator);
+            String at = pointer + "/" + combinator;
+            if (branches == null || !branches.isArray() || referenced(at)) {
+                continue;
+            }
+            if (!"oneOf".equals(combinator) && containsEmptySchema(branches)) {
+                if ("anyOf".equals(combinator)) {
+                    // One branch accepts anything, so does the anyOf.
+                    schema.remove(combinator);
+                    continue;
+                }
+                ArrayNode remaining = JsonNodeFactory.instance.arrayNode();
+                branches.forEach(branch -> {
+                    if (!isEmptySchema(branch)) {
+                        remaining.add(branch);
+                    }
+                });
+                if (remaining.isEmpty()) {
+                    schema.remove(combinator);
+                    continue;
+                }
+                schema.set(combinator, remaining);
+                branches = remaining;
+            }
+            if (branches.size() == 1 && branches.get(0).isObject()) {
+                mergeSingleBranch(schema, combinator, (ObjectNode) branches.get(0));
+            }
+        }
+    }
+
+    private static void mergeSingleBranch(ObjectNode schema, String combinator, ObjectNode branch) {
+        // Keywords next to a $ref are ignored, and an id changes how the references of the branch resolve.
+        if (branch.has("id") || (branch.has("$ref") && schema.size() > 1)) {
+            return;
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = branch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            // The combinator itself is replaced by the branch.
+            JsonNode existing = field.getKey().equals(combinator) ? null : schema.get(field.getKey());
+            if (existing != null && !existing.equals(field.getValue())) {
+                return;
+            }
+            if (interacts(field.getKey(), schema, branch)) {
+                return;
+            }
+        }
+        schema.remove(combinator);
+        schema.setAll(branch);
+    }
+
+    private static boolean interacts(String keyword, ObjectNode schema, ObjectNode branch) {
+        for (String sibling : INTERACTIONS.getOrDefault(keyword, Set.of())) {
+            // A sibling present on both sides with the same value was already seen by the keyword.
+            if (schema.has(sibling) && !schema.get(sibling).equals(branch.get(sibling))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsEmptySchema(JsonNode branches) {
+        for (JsonNode branch : branches) {
+            if (isEmptySchema(branch)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isEmptySchema(JsonNode branch) {
+        return branch.isObject() && branch.isEmpty();
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.regex;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An ECMA-262 regular expression (the dialect of <code>pattern</code> and <code>patternProperties</code>), translated
+ * once to {@link java.util.regex} and cached by source. Matching runs under a step budget proportional to the input
+ * length, so that a pattern prone to catastrophic backtracking cannot pin a thread: when the budget is exhausted, the
+ * input is rejected, see {@link #match(CharSequence)}.
+ *
+ * @author GraviteeSource Team
+ */
+@Slf4j
+public final class EcmaRegex {
+
+    private static final int CACHE_SIZE = 1024;
+    private static final Map<String, EcmaRegex> CACHE = new ConcurrentHashMap<>();
+
+    private static final long BASE_BUDGET = 100_000;
+    private static final long BUDGET_PER_CHAR = 1_000;
+
+    /** Characters matched by ECMA-262 <code>\s</code> on top of the ones of {@link java.util.regex}. */
+    private static final String ECMA_EXTRA_SPACES = "\\u00a0\\u1680\\u2000-\\u200a\\u2028\\u2029\\u202f\\u205f\\u3000\\ufeff";
+
+    private final String source;
+    private final Pattern pattern;
+
+    private EcmaRegex(String source, Pattern pattern) {
+        this.source = source;
+        this.pattern = pattern;
+    }
+
+    /**
+     * @throws PatternSyntaxException if the expression is not valid or uses a construct that has no equivalent.
+     */
+    public static EcmaRegex compile(String source) {
+        EcmaRegex regex = CACHE.get(source);
+        if (regex == null) {
+            regex = new EcmaRegex(source, Pattern.compile(translate(source)));
+            if (CACHE.size() >= CACHE_SIZE) {
+                // Schemas rarely use that many distinct patterns: starting over is simpler than tracking usage.
+                CACHE.clear();
+            }
+            CACHE.put(source, regex);
+        }
+        return regex;
+    }
+
+    public String source() {
+        return source;
+    }
+
+    /**
+     * Whether the expression matches anywhere in the input, as <code>RegExp.prototype.test</code> does. An input on
+     * which the budget is exhausted does not match, which is what a <code>pattern</code> needs: the value is rejected.
+     */
+    public boolean find(CharSequence input) {
+        return match(input) == Match.FOUND;
+    }
+
+    /**
+     * Like {@link #find(CharSequence)}, but tells an input on which the budget is exhausted apart, for the callers to
+     * which a missed match is not a rejection (e.g. <code>patternProperties</code>).
+     */
+    public Match match(CharSequence input) {
+        try {
+            return pattern.matcher(new BudgetedInput(input, BASE_BUDGET + BUDGET_PER_CHAR * input.length())).find()
+                ? Match.FOUND
+                : Match.NOT_FOUND;
+        } catch (BudgetExhaustedException e) {
+            log.debug("Evaluation of regex {} exhausted its budget on an input of {} characters", source, input.length());
+            return Match.EXHAUSTED;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    static String translate(String source) {
+        StringBuilder out = new StringBuilder(source.length() + 16);
+        boolean inClass = false;
+        boolean negatedClass = false;
+        int length = source.length();
+        for (int i = 0; i < length; i++) {
+            char c = source.charAt(i);
+            if (c == '\\') {
+                if (i + 1 == length) {
+                    throw new PatternSyntaxException("Trailing backslash", source, i);
+                }
+                i = escape(source, i + 1, inClass, negatedClass, out);
+            } else if (inClass) {
+                if (c == ']') {
+                    inClass = false;
+                    out.append(c);
+                } else if (c == '[' || c == '&') {
+                    // Nested classes and intersections are Java only: both characters are literals in ECMA classes.
+                    out.append('\\').append(c);
+                } else {
+                    out.append(c);
+                }
+            } else if (c == '[') {
+                if (source.startsWith("[^]", i)) {
+                    out.append("[\\s\\S]");
+                    i += 2;
+                } else if (source.startsWith("[]", i)) {
+                    out.append("(?!)");
+                    i += 1;
+                } else {
+                    inClass = true;
+                    negatedClass = i + 1 < length && source.charAt(i + 1) == '^';
+                    out.append(c);
+                    if (negatedClass) {
+                        out.append('^');
+                        i++;
+                    }
+                }
+            } else if (c == '$') {
+                // Java's $ also matches before a final line terminator.
+                out.append("\\z");
+            } else if (c == '(' && source.startsWith("(?", i) && !isEcmaGroup(source, i)) {
+                throw new PatternSyntaxException("Group construct not supported by ECMA-262", source, i);
+            } else if (c == '{' && !isQuantifier(source, i)) {
+                // A brace which does not start a quantifier is a literal in ECMA but an error in Java.
+                out.append("\\{");
+            } else if (c == '+' && isPossessive(source, i)) {
+                throw new PatternSyntaxException("Possessive quantifiers are not supported by ECMA-262", source, i);
+            } else {
+                out.append(c);
+            }
+        }
+        if (inClass) {
+            throw new PatternSyntaxException("Unclosed character class", source, length);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Translates the escape sequence whose letter is at <code>index</code>.
+     *
+     * @return the index of the last character consumed.
+     * @throws PatternSyntaxException for a <code>\S</code> in a negated class: the nested class needed to exclude the
+     *     ECMA-only spaces does not negate reliably in {@link java.util.regex}.
+     */
+    private static int escape(String source, int index, boolean inClass, boolean negatedClass, StringBuilder out) {
+        char c = source.charAt(index);
+        switch (c) {
+            case 's' -> out.append(inClass ? "\\s" + ECMA_EXTRA_SPACES : "[\\s" + ECMA_EXTRA_SPACES + "]");
+            case 'S' -> {
+                if (inClass && negatedClass) {
+                    throw new PatternSyntaxException("\\S is not supported in a negated class", source, index);
+                }
+                // Java's \S only excludes ASCII spaces: in a class, the union with a nested class excludes the others.
+                out.append("[^\\s" + ECMA_EXTRA_SPACES + "]");
+            }
+            // \v is the vertical tab in ECMA but any vertical whitespace in Java.
+            case 'v' -> out.append("\\x0B");
+            case '0' -> {
+                if (index + 1 < source.length() && Character.isDigit(source.charAt(index + 1))) {
+                    throw new PatternSyntaxException("Octal escapes are not supported by ECMA-262", source, index);
+                }
+                out.append("\\x00");
+            }
+            case 'b', 'B', 'd', 'D', 'w', 'W', 'f', 'n', 'r', 't', 'c', 'x', 'u' -> out.append('\\').append(c);
+            default -> {
+                if (Character.isDigit(c)) {
+                    // Back reference.
+                    out.append('\\').append(c);
+                } else if (Character.isLetter(c)) {
+                    // Identity escape in ECMA (e.g. \p, \A, \Q), but a special construct in Java.
+                    out.append(c);
+                } else {
+                    out.append('\\').append(c);
+                }
+            }
+        }
+        return index;
+    }
+
+    private static boolean isEcmaGroup(String source, int index) {
+        return source.startsWith("(?:", index) || source.startsWith("(?=", index) || source.startsWith("(?!", index);
+    }
+
+    private static boolean isQuantifier(String source, int index) {
+        int i = index + 1;
+        int digits = 0;
+        while (i < source.length() && Character.isDigit(source.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (digits == 0 || i == source.length()) {
+            return false;
+        }
+        if (source.charAt(i) == ',') {
+            i++;
+            while (i < source.length() && Character.isDigit(source.charAt(i))) {
+                i++;
+            }
+        }
+        return i < source.length() && source.charAt(i) == '}';
+    }
+
+    /**
+     * A <code>+</code> right after a quantifier is a syntax error in ECMA but a possessive quantifier in Java.
+     */
+    private static boolean isPossessive(String source, int index) {
+        if (index == 0) {
+            return false;
+        }
+        char previous = source.charAt(index - 1);
+        boolean quantifier = previous == '*' || previous == '+' || previous == '?' || previous == '}';
+        return quantifier && (index < 2 || source.charAt(index - 2) != '\\');
+    }
+
+    public enum Match {
+        FOUND,
+        NOT_FOUND,
+        /** The input was not fully evaluated: it may or may not match. */
+        EXHAUSTED,
+    }
+
+    private static final class BudgetExhaustedException extends RuntimeException {
+
+        private static final BudgetExhaustedException INSTANCE = new BudgetExhaustedException();
+
+        private BudgetExhaustedException() {
+            super("Regex evaluation budget exhausted", null, false, false);
+        }
+    }
+
+    /**
+     * Counts the characters read by the matcher, which is proportional to the work done.
+     */
+    private static final class BudgetedInput implements CharSequence {
+
+        private final CharSequence input;
+        private long remaining;
+
+        private BudgetedInput(CharSequence input, long budget) {
+            this.input = input;
+            this.remaining = budget;
+        }
+
+        @Override
+        public int length() {
+            return input.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (--remaining < 0) {
+                throw BudgetExhaustedException.INSTANCE;
+            }
+            return input.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return input.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return input.toString();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.rule;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A property telling the branches of an <code>anyOf</code> or <code>oneOf</code> apart, such as the <code>type</code> of
+ * an event. A branch is keyed by the property when it only accepts objects, requires the property and restricts it to
+ * an <code>enum</code> of strings, either directly or through its <code>allOf</code>. Such a branch cannot match an
+ * instance whose property holds another value, so only the branches keyed by that value, and the unkeyed ones, need to
+ * be checked. The verdict is the same as when checking every branch.
+ * <p>
+ * The property named by an OpenAPI <code>discriminator</code> is preferred; otherwise the property keying the most
+ * branches is picked.
+ *
+ * @author GraviteeSource Team
+ */
+public final class Discriminator {
+
+    private final String property;
+    private final Map<String, int[]> candidatesByValue;
+    private final int[] unkeyed;
+
+    private Discriminator(String property, Map<String, int[]> candidatesByValue, int[] unkeyed) {
+        this.property = property;
+        this.candidatesByValue = candidatesByValue;
+        this.unkeyed = unkeyed;
+    }
+
+    /**
+     * @return <code>null</code> when fewer than two branches are keyed by a common property.
+     */
+    public static Discriminator of(List<Rule> branches, String preferredProperty) {
+        List<Map<String, Set<String>>> keys = new ArrayList<>(branches.size());
+        Map<String, Integer> keyedCounts = new LinkedHashMap<>();
+        for (Rule branch : branches) {
+            Map<String, Set<String>> branchKeys = keys(branch);
+            keys.add(branchKeys);
+            branchKeys.keySet().forEach(name -> keyedCounts.merge(name, 1, Integer::sum));
+        }
+
+        String property = null;
+        if (preferredProperty != null && keyedCounts.getOrDefault(preferredProperty, 0) >= 2) {
+            property = preferredProperty;
+        } else {
+            int best = 1;
+            for (Map.Entry<String, Integer> count : keyedCounts.entrySet()) {
+                if (count.getValue() > best) {
+                    property = count.getKey();
+                    best = count.getValue();
+                }
+            }
+        }
+        if (property == null) {
+            return null;
+        }
+
+        List<Integer> unkeyed = new ArrayList<>();
+        Map<String, List<Integer>> keyed = new HashMap<>();
+        for (int i = 0; i < branches.size(); i++) {
+            Set<String> values = keys.get(i).get(property);
+            if (values == null) {
+                unkeyed.add(i);
+            } else {
+                for (String value : values) {
+                    keyed.computeIfAbsent(value, v -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+        Map<String, int[]> candidatesByValue = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> value : keyed.entrySet()) {
+            List<Integer> candidates = new ArrayList<>(value.getValue());
+            candidates.addAll(unkeyed);
+            candidatesByValue.put(value.getKey(), candidates.stream().mapToInt(Integer::intValue).sorted().toArray());
+        }
+        return new Discriminator(property, candidatesByValue, unkeyed.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public String property() {
+        return property;
+    }
+
+    /**
+     * Indexes, in declaration order, of the branches which may match the instance.
+     */
+    public int[] candidates(JsonNode instance) {
+        if (!instance.isObject()) {
+            return unkeyed;
+        }
+        JsonNode value = instance.get(property);
+        if (value == null || !value.isTextual()) {
+            return unkeyed;
+        }
+        return candidatesByValue.getOrDefault(value.textValue(), unkeyed);
+    }
+
+    /**
+     * The string values each property is restricted to by the branch, for the properties it requires, provided it only
+     * accepts objects.
+     */
+    private static Map<String, Set<String>> keys(Rule branch) {
+        List<Rule> members = new ArrayList<>();
+        collectMembers(branch.resolve(), members);
+
+        boolean objectOnly = false;
+        for (Rule member : members) {
+            objectOnly |= member.types != null && member.types.equals(Set.of(InstanceType.OBJECT));
+        }
+        if (!objectOnly) {
+            return Map.of();
+        }
+
+        Map<String, Set<String>> keys = new HashMap<>();
+        for (Rule member : members) {
+            if (member.properties == null) {
+                continue;
+            }
+            for (Map.Entry<String, Rule> property : member.properties.entrySet()) {
+                Set<String> values = stringValues(property.getValue().resolve());
+                if (values != null && isRequired(members, property.getKey())) {
+                    // Any enum on the property is a necessary condition: the first one found is enough.
+                    keys.putIfAbsent(property.getKey(), values);
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static void collectMembers(Rule rule, List<Rule> members) {
+        // Identity check: rules are shared and may be recursive.
+        for (Rule member : members) {
+            if (member == rule) {
+                return;
+            }
+        }
+        members.add(rule);
+        if (rule.allOf != null) {
+            for (Rule member : rule.allOf) {
+                collectMembers(member.resolve(), members);
+            }
+        }
+    }
+
+    private static boolean isRequired(List<Rule> members, String property) {
+        for (Rule member : members) {
+            if (member.required != null && member.required.contains(property)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> stringValues(Rule rule) {
+        if (rule.enumValues == null) {
+            return null;
+        }
+        Set<String> values = new HashSet<>();
+        for (JsonNode value : rule.enumValues) {
+            if (!value.isTextual()) {
+                return null;
+            }
+            values.add(value.textValue());
+        }
+        return values;
+    }
+}
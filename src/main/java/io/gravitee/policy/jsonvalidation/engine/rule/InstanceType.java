@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.rule;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * JSON Schema primitive types, in the order used when listing them in messages.
+ *
+ * @author GraviteeSource Team
+ */
+public enum InstanceType {
+    ARRAY("array"),
+    BOOLEAN("boolean"),
+    INTEGER("integer"),
+    NULL("null"),
+    NUMBER("number"),
+    OBJECT("object"),
+    STRING("string");
+
+    private final String schemaName;
+
+    InstanceType(String schemaName) {
+        this.schemaName = schemaName;
+    }
+
+    public String schemaName() {
+        return schemaName;
+    }
+
+    static InstanceType fromSchemaName(String name) {
+        for (InstanceType type : values()) {
+            if (type.schemaName.equals(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    public static InstanceType of(JsonNode node) {
+        return switch (node.getNodeType()) {
+            case OBJECT -> OBJECT;
+            case ARRAY -> ARRAY;
+            case NUMBER -> node.isIntegralNumber() ? INTEGER : NUMBER;
+            case BOOLEAN -> BOOLEAN;
+            case NULL, MISSING -> NULL;
+            default -> STRING;
+        };
+    }
+
+    public static InstanceType of(JsonToken token) {
+        return switch (token) {
+            case START_OBJECT -> OBJECT;
+            case START_ARRAY -> ARRAY;
+            case VALUE_NUMBER_INT -> INTEGER;
+            case VALUE_NUMBER_FLOAT -> NUMBER;
+            case VALUE_TRUE, VALUE_FALSE -> BOOLEAN;
+            case VALUE_NULL -> NULL;
+            default -> STRING;
+        };
+    }
+}
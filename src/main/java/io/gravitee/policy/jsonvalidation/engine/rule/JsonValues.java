@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.rule;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Canonical forms of JSON values, equal exactly when the values are equal in the sense of JSON Schema (<code>1</code>
+ * and <code>1.0</code> are the same number, property order does not matter), so that <code>enum</code> and
+ * <code>uniqueItems</code> are checked with hash lookups instead of pairwise comparisons.
+ *
+ * @author GraviteeSource Team
+ */
+public final class JsonValues {
+
+    private JsonValues() {}
+
+    public static Object key(JsonNode value) {
+        return switch (value.getNodeType()) {
+            case STRING -> value.textValue();
+            case NUMBER -> value.decimalValue().stripTrailingZeros();
+            case BOOLEAN -> value.booleanValue();
+            case ARRAY -> {
+                List<Object> elements = new ArrayList<>(value.size());
+                for (JsonNode element : value) {
+                    elements.add(key(element));
+                }
+                yield elements;
+            }
+            case OBJECT -> {
+                Map<String, Object> properties = new HashMap<>();
+                Iterator<Map.Entry<String, JsonNode>> fields = value.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    properties.put(field.getKey(), key(field.getValue()));
+                }
+                yield properties;
+            }
+            default -> NullNode.getInstance();
+        };
+    }
+
+    /**
+     * Builds the canonical form of a value from its tokens, for the engines reading the value once, token by token.
+     */
+    public static final class KeyBuilder {
+
+        private final Deque<Object> containers = new ArrayDeque<>();
+        private final Deque<String> names = new ArrayDeque<>();
+        private Object key;
+
+        /**
+         * Feeds the next token of the value.
+         *
+         * @return whether the value is complete.
+         */
+        public boolean accept(JsonToken token, JsonParser parser) throws IOException {
+            switch (token) {
+                case START_OBJECT -> containers.push(new HashMap<String, Object>());
+                case START_ARRAY -> containers.push(new ArrayList<>());
+                case FIELD_NAME -> names.push(parser.currentName());
+                case END_OBJECT, END_ARRAY -> add(containers.pop());
+                default -> add(JsonValues.key(token, parser));
+            }
+            return containers.isEmpty();
+        }
+
+        public Object key() {
+            return key;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void add(Object value) {
+            Object parent = containers.peek();
+            if (parent == null) {
+                key = value;
+            } else if (parent instanceof List) {
+                ((List<Object>) parent).add(value);
+            } else {
+                ((Map<String, Object>) parent).put(names.pop(), value);
+            }
+        }
+    }
+
+    /**
+     * Canonical form of the scalar the parser is positioned on.
+     */
+    public static Object key(JsonToken token, JsonParser parser) throws IOException {
+        return switch (token) {
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getDecimalValue().stripTrailingZeros();
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            default -> NullNode.getInstance();
+        };
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.rule;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gravitee.policy.jsonvalidation.engine.regex.EcmaRegex;
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * The keywords of one (sub)schema, compiled by the {@link RuleCompiler}. Rules are built once per schema and shared by
+ * all validations and engines; they hold no per-validation state.
+ *
+ * @author GraviteeSource Team
+ */
+@Getter
+public final class Rule {
+
+    final String schemaPointer;
+
+    /** Target of a <code>$ref</code>: when set, the other keywords of the schema are ignored. */
+    Rule ref;
+
+    EnumSet<InstanceType> types;
+    List<JsonNode> enumValues;
+    /** {@link JsonValues#key(JsonNode) Canonical forms} of {@link #enumValues}. */
+    Set<Object> enumKeys;
+    /** Whether some of the {@link #enumValues} are objects or arrays. */
+    boolean enumContainers;
+
+    Integer minLength;
+    Integer maxLength;
+    EcmaRegex pattern;
+
+    BigDecimal minimum;
+    boolean exclusiveMinimum;
+    BigDecimal maximum;
+    boolean exclusiveMaximum;
+    BigDecimal multipleOf;
+
+    Map<String, Rule> properties;
+    List<PatternRule> patternProperties;
+    boolean additionalPropertiesAllowed = true;
+    Rule additionalProperties;
+    Set<String> required;
+    Integer minProperties;
+    Integer maxProperties;
+    Map<String, List<String>> dependencies;
+    /** Property names whose presence matters to {@link #dependencies}. */
+    Set<String> dependencyNames;
+
+    Rule items;
+    List<Rule> tupleItems;
+    boolean additionalItemsAllowed = true;
+    Rule additionalItems;
+    Integer minItems;
+    Integer maxItems;
+    boolean uniqueItems;
+
+    List<Rule> allOf;
+    List<Rule> anyOf;
+    List<Rule> oneOf;
+    Rule not;
+    /** <code>propertyName</code> of an OpenAPI <code>discriminator</code>, see {@link Discriminator}. */
+    String discriminatorProperty;
+
+    @Getter(AccessLevel.NONE)
+    private Boolean trivial;
+
+    Rule(String schemaPointer) {
+        this.schemaPointer = schemaPointer;
+    }
+
+    public Rule resolve() {
+        Rule rule = this;
+        while (rule.ref != null) {
+            rule = rule.ref;
+        }
+        return rule;
+    }
+
+    /**
+     * Whether the rule accepts any value, in which case the value is skipped without being looked at.
+     */
+    public boolean isTrivial() {
+        Boolean cached = trivial;
+        if (cached == null) {
+            cached = computeTrivial();
+            trivial = cached;
+        }
+        return cached;
+    }
+
+    private boolean computeTrivial() {
+        Rule rule = resolve();
+        return (
+            rule.types == null &&
+            rule.enumValues == null &&
+            !rule.hasStringKeywords() &&
+            !rule.hasNumberKeywords() &&
+            !rule.hasObjectKeywords() &&
+            !rule.hasArrayKeywords() &&
+            !rule.hasCombinators()
+        );
+    }
+
+    public boolean hasStringKeywords() {
+        return minLength != null || maxLength != null || pattern != null;
+    }
+
+    public boolean hasNumberKeywords() {
+        return minimum != null || maximum != null || multipleOf != null;
+    }
+
+    public boolean hasObjectKeywords() {
+        return (
+            properties != null ||
+            patternProperties != null ||
+            !additionalPropertiesAllowed ||
+            additionalProperties != null ||
+            required != null ||
+            minProperties != null ||
+            maxProperties != null ||
+            dependencies != null
+        );
+    }
+
+    public boolean hasArrayKeywords() {
+        return items != null || tupleItems != null || minItems != null || maxItems != null || uniqueItems;
+    }
+
+    public boolean hasCombinators() {
+        return allOf != null || anyOf != null || oneOf != null || not != null;
+    }
+
+    public record PatternRule(EcmaRegex pattern, Rule rule) {}
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.rule;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gravitee.policy.jsonvalidation.engine.regex.EcmaRegex;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiles a draft-04 schema into {@link Rule}s. Only local references are followed; anything that cannot be checked in
+ * a single pass with bounded memory, or that is not a well-formed draft-04 keyword, is rejected with an
+ * {@link UnsupportedSchemaException} so that the schema is handled by the fallback engine (which also reports syntax
+ * errors the way users are used to). <code>uniqueItems</code> needs the whole array at once and is only accepted when the
+ * caller asks for it.
+ *
+ * @author GraviteeSource Team
+ */
+public final class RuleCompiler {
+
+    private final JsonNode root;
+    private final boolean uniqueItems;
+    private final Map<String, Rule> rules = new HashMap<>();
+
+    private RuleCompiler(JsonNode root, boolean uniqueItems) {
+        this.root = root;
+        this.uniqueItems = uniqueItems;
+    }
+
+    public static Rule compile(JsonNode schema) throws UnsupportedSchemaException {
+        return compile(schema, false);
+    }
+
+    public static Rule compile(JsonNode schema, boolean uniqueItems) throws UnsupportedSchemaException {
+        JsonNode version = schema.path("$schema");
+        if (version.isTextual() && version.textValue().contains("draft-03")) {
+            throw new UnsupportedSchemaException("", "draft-03 schema");
+        }
+        RuleCompiler compiler = new RuleCompiler(schema, uniqueItems);
+        Rule rule = compiler.rule("");
+        compiler.checkReferenceLoops();
+        return rule;
+    }
+
+    private Rule rule(String pointer) throws UnsupportedSchemaException {
+        Rule existing = rules.get(pointer);
+        if (existing != null) {
+            return existing;
+        }
+        JsonNode node = root.at(JsonPointer.compile(pointer));
+        if (!node.isObject()) {
+            throw new UnsupportedSchemaException(pointer, "schema is not an object");
+        }
+        Rule rule = new Rule(pointer);
+        // Registered before its keywords are compiled so that recursive references resolve to it.
+        rules.put(pointer, rule);
+        fill(rule, node, pointer);
+        return rule;
+    }
+
+    private void fill(Rule rule, JsonNode node, String pointer) throws UnsupportedSchemaException {
+        if (!pointer.isEmpty() && node.has("id")) {
+            throw new UnsupportedSchemaException(pointer, "nested id");
+        }
+        if (node.has("$ref")) {
+            rule.ref = rule(localReference(node.get("$ref"), pointer));
+            return;
+        }
+        if (node.has("format")) {
+            throw new UnsupportedSchemaException(pointer, "format");
+        }
+
+        Iterator<Map.Entry<String, JsonNode>> keywords = node.fields();
+        while (keywords.hasNext()) {
+            Map.Entry<String, JsonNode> keyword = keywords.next();
+            JsonNode value = keyword.getValue();
+            String at = pointer + "/" + escape(keyword.getKey());
+            switch (keyword.getKey()) {
+                case "type" -> rule.types = types(value, at);
+                case "enum" -> {
+                    rule.enumValues = enumValues(value, at);
+                    rule.enumKeys = new HashSet<>();
+                    rule.enumValues.forEach(enumValue -> rule.enumKeys.add(JsonValues.key(enumValue)));
+                    rule.enumContainers = rule.enumValues.stream().anyMatch(JsonNode::isContainerNode);
+                }
+                case "minLength" -> rule.minLength = count(value, at);
+                case "maxLength" -> rule.maxLength = count(value, at);
+                case "pattern" -> rule.pattern = pattern(value, at);
+                case "minimum" -> rule.minimum = number(value, at);
+                case "maximum" -> rule.maximum = number(value, at);
+                case "exclusiveMinimum" -> rule.exclusiveMinimum = bool(value, at);
+                case "exclusiveMaximum" -> rule.exclusiveMaximum = bool(value, at);
+                case "multipleOf" -> rule.multipleOf = divisor(value, at);
+                case "properties" -> rule.properties = properties(value, at);
+                case "patternProperties" -> rule.patternProperties = patternProperties(value, at);
+                case "additionalProperties" -> {
+                    if (value.isBoolean()) {
+                        rule.additionalPropertiesAllowed = value.booleanValue();
+                    } else {
+                        rule.additionalProperties = rule(at);
+                    }
+                }
+                case "required" -> rule.required = strings(value, at);
+                case "minProperties" -> rule.minProperties = count(value, at);
+                case "maxProperties" -> rule.maxProperties = count(value, at);
+                case "dependencies" -> {
+                    rule.dependencies = dependencies(value, at);
+                    rule.dependencyNames = new HashSet<>(rule.dependencies.keySet());
+                    rule.dependencies.values().forEach(rule.dependencyNames::addAll);
+                }
+                case "items" -> {
+                    if (value.isArray()) {
+                        rule.tupleItems = schemas(value, at);
+                    } else {
+                        rule.items = rule(at);
+                    }
+                }
+                case "additionalItems" -> {
+                    if (value.isBoolean()) {
+                        rule.additionalItemsAllowed = value.booleanValue();
+                    } else {
+                        rule.additionalItems = rule(at);
+                    }
+                }
+                case "minItems" -> rule.minItems = count(value, at);
+                case "maxItems" -> rule.maxItems = count(value, at);
+                case "uniqueItems" -> {
+                    rule.uniqueItems = bool(value, at);
+                    if (rule.uniqueItems && !uniqueItems) {
+                        throw new UnsupportedSchemaException(at, "uniqueItems");
+                    }
+                }
+                case "allOf" -> rule.allOf = schemas(value, at);
+                case "anyOf" -> rule.anyOf = schemas(value, at);
+                case "oneOf" -> rule.oneOf = schemas(value, at);
+                case "not" -> rule.not = rule(at);
+                case "discriminator" -> rule.discriminatorProperty = value.path("propertyName").textValue();
+                default -> {
+                    // Annotations, definitions and unknown keywords do not constrain the instance.
+                }
+            }
+        }
+        if (rule.tupleItems == null) {
+            // additionalItems only applies to tuple validation.
+            rule.additionalItemsAllowed = true;
+            rule.additionalItems = null;
+        }
+    }
+
+    private static String localReference(JsonNode ref, String pointer) throws UnsupportedSchemaException {
+        if (!ref.isTextual() || !ref.textValue().startsWith("#")) {
+            throw new UnsupportedSchemaException(pointer, "non-local $ref");
+        }
+        try {
+            String fragment = new URI(ref.textValue()).getFragment();
+            if (fragment == null || fragment.isEmpty()) {
+                return "";
+            }
+            if (!fragment.startsWith("/")) {
+                throw new UnsupportedSchemaException(pointer, "$ref to an identifier");
+            }
+            return fragment;
+        } catch (URISyntaxException e) {
+            throw new UnsupportedSchemaException(pointer, "invalid $ref");
+        }
+    }
+
+    private static EnumSet<InstanceType> types(JsonNode value, String at) throws UnsupportedSchemaException {
+        EnumSet<InstanceType> types = EnumSet.noneOf(InstanceType.class);
+        if (value.isTextual()) {
+            types.add(type(value, at));
+        } else if (value.isArray() && !value.isEmpty()) {
+            for (JsonNode element : value) {
+                types.add(type(element, at));
+            }
+        } else {
+            throw new UnsupportedSchemaException(at, "invalid type");
+        }
+        return types;
+    }
+
+    private static InstanceType type(JsonNode value, String at) throws UnsupportedSchemaException {
+        InstanceType type = value.isTextual() ? InstanceType.fromSchemaName(value.textValue()) : null;
+        if (type == null) {
+            throw new UnsupportedSchemaException(at, "invalid type");
+        }
+        return type;
+    }
+
+    private static List<JsonNode> enumValues(JsonNode value, String at) throws UnsupportedSchemaException {
+        if (!value.isArray() || value.isEmpty()) {
+            throw new UnsupportedSchemaException(at, "invalid enum");
+        }
+        List<JsonNode> values = new ArrayList<>(value.size());
+        value.forEach(values::add);
+        return values;
+    }
+
+    private static Integer count(JsonNode value, String at) throws UnsupportedSchemaException {
+        if (!value.isIntegralNumber() || !value.canConvertToInt() || value.intValue() < 0) {
+            throw new UnsupportedSchemaException(at, "invalid count");
+        }
+        return value.intValue();
+    }
+
+    private static EcmaRegex pattern(JsonNode value, String at) throws UnsupportedSchemaException {
+        if (!value.isTextual()) {
+            throw new UnsupportedSchemaException(at, "invalid pattern");
+        }
+        try {
+            return EcmaRegex.compile(value.textValue());
+        } catch (PatternSyntaxException e) {
+            throw new UnsupportedSchemaException(at, "pattern not supported");
+        }
+    }
+
+    private static BigDecimal number(JsonNode value, String at) throws UnsupportedSchemaException {
+        if (!value.isNumber()) {
+            throw new UnsupportedSchemaException(at, "invalid number");
+        }
+        return value.decimalValue();
+    }
+
+    private static BigDecimal divisor(JsonNode value, String at) throws UnsupportedSchemaException {
+        BigDecimal divisor = number(value, at);
+        if (divisor.signum() <= 0) {
+            throw new UnsupportedSchemaException(at, "invalid multipleOf");
+        }
+        return divisor;
+    }
+
+    private static boolean bool(JsonNode value, String at) throws UnsupportedSchemaException {
+        if (!value.isBoolean()) {
+            throw new UnsupportedSchemaException(at, "invalid boolean");
+        }
+        return value.booleanValue();
+    }
+
+    private static Set<String> strings(JsonNode value, String at) throws UnsupportedSchemaException {
+        if (!value.isArray()) {
+            throw new UnsupportedSchemaException(at, "invalid array of strings");
+        }
+        Set<String> strings = new LinkedHashSet<>();
+        for (JsonNode element : value) {
+            if (!element.isTextual()) {
+                throw new UnsupportedSchemaException(at, "invalid array of strings");
+            }
+            strings.add(element.textValue());
+        }
+        return strings;
+    }
+
+    private Map<String, Rule> properties(JsonNode value, String at) throws UnsupportedSchemaException {
+        if (!value.isObject()) {
+            throw new UnsupportedSchemaException(at, "invalid properties");
+        }
+        Map<String, Rule> properties = new HashMap<>();
+        Iterator<String> names = value.fieldNames();
+        while (names.hasNext()) {
+            String name = names.next();
+            properties.put(name, rule(at + "/" + escape(name)));
+        }
+        return properties;
+    }
+
+    private List<Rule.PatternRule> patternProperties(JsonNode value, String at) throws UnsupportedSchemaException {
+        if (!value.isObject()) {
+            throw new UnsupportedSchemaException(at, "invalid patternProperties");
+        }
+        List<Rule.PatternRule> patternProperties = new ArrayList<>();
+        Iterator<String> names = value.fieldNames();
+        while (names.hasNext()) {
+            String regex = names.next();
+            String regexPointer = at + "/" + escape(regex);
+            try {
+                patternProperties.add(new Rule.PatternRule(EcmaRegex.compile(regex), rule(regexPointer)));
+            } catch (PatternSyntaxException e) {
+                throw new UnsupportedSchemaException(regexPointer, "pattern not supported");
+            }
+        }
+        return patternProperties;
+    }
+
+    private Map<String, List<String>> dependencies(JsonNode value, String at) throws UnsupportedSchemaException {
+        if (!value.isObject()) {
+            throw new UnsupportedSchemaException(at, "invalid dependencies");
+        }
+        Map<String, List<String>> dependencies = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> entries = value.fields();
+        while (entries.hasNext()) {
+            Map.Entry<String, JsonNode> entry = entries.next();
+            if (!entry.getValue().isArray()) {
+                // A schema dependency applies to the whole object, which is only known once it has been read.
+                throw new UnsupportedSchemaException(at + "/" + escape(entry.getKey()), "schema dependency");
+            }
+            dependencies.put(entry.getKey(), List.copyOf(strings(entry.getValue(), at)));
+        }
+        return dependencies;
+    }
+
+    private List<Rule> schemas(JsonNode value, String at) throws UnsupportedSchemaException {
+        if (!value.isArray() || value.isEmpty()) {
+            throw new UnsupportedSchemaException(at, "invalid array of schemas");
+        }
+        List<Rule> schemas = new ArrayList<>(value.size());
+        for (int i = 0; i < value.size(); i++) {
+            schemas.add(rule(at + "/" + i));
+        }
+        return schemas;
+    }
+
+    private void checkReferenceLoops() throws UnsupportedSchemaException {
+        for (Rule rule : rules.values()) {
+            Set<Rule> visited = new HashSet<>();
+            Rule current = rule;
+            while (current.ref != null) {
+                if (!visited.add(current)) {
+                    throw new UnsupportedSchemaException(rule.schemaPointer, "$ref loop");
+                }
+                current = current.ref;
+            }
+        }
+    }
+
+    public static String escape(String token) {
+        return token.replace("~", "~0").replace("/", "~1");
+    }
+}
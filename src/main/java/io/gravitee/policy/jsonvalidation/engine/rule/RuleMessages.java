@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.rule;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.gravitee.policy.jsonvalidation.engine.regex.EcmaRegex;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Violation messages of the rule based engines, worded like the default engine's so that users get the same messages
+ * whatever the engine.
+ *
+ * @author GraviteeSource Team
+ */
+public final class RuleMessages {
+
+    private RuleMessages() {}
+
+    public static String type(InstanceType actual, Set<InstanceType> allowed) {
+        return String.format(
+            "instance type (%s) does not match any allowed primitive type (allowed: %s)",
+            actual.schemaName(),
+            names(allowed.stream().map(InstanceType::schemaName).toList())
+        );
+    }
+
+    /**
+     * @param instance the invalid value, rendered as JSON.
+     */
+    public static String enumValue(String instance, List<JsonNode> values) {
+        return String.format(
+            "instance value (%s) not found in enum (possible values: %s)",
+            instance,
+            values.stream().map(JsonNode::toString).collect(Collectors.joining(",", "[", "]"))
+        );
+    }
+
+    public static String minLength(String text, int length, int minimum) {
+        return String.format("string \"%s\" is too short (length: %d, required minimum: %d)", text, length, minimum);
+    }
+
+    public static String maxLength(String text, int length, int maximum) {
+        return String.format("string \"%s\" is too long (length: %d, maximum allowed: %d)", text, length, maximum);
+    }
+
+    public static String pattern(EcmaRegex pattern, String text) {
+        return String.format("ECMA 262 regex \"%s\" does not match input string \"%s\"", pattern.source(), text);
+    }
+
+    public static String patternExhausted(EcmaRegex pattern, String name) {
+        return String.format(
+            "ECMA 262 regex \"%s\" could not be evaluated on property name \"%s\" within its budget",
+            pattern.source(),
+            name
+        );
+    }
+
+    public static String minimum(BigDecimal minimum, boolean exclusive, String found) {
+        return exclusive
+            ? String.format("numeric instance is not strictly greater than the required minimum %s", minimum)
+            : String.format("numeric instance is lower than the required minimum (minimum: %s, found: %s)", minimum, found);
+    }
+
+    public static String maximum(BigDecimal maximum, boolean exclusive, String found) {
+        return exclusive
+            ? String.format("numeric instance is not strictly lower than the required maximum %s", maximum)
+            : String.format("numeric instance is greater than the required maximum (maximum: %s, found: %s)", maximum, found);
+    }
+
+    public static String multipleOf(String found, BigDecimal divisor) {
+        return String.format("remainder of division is not zero (%s / %s)", found, divisor);
+    }
+
+    public static String minProperties(int size, int minimum) {
+        return String.format("object has too few properties (found %d but schema requires at least %d)", size, minimum);
+    }
+
+    public static String maxProperties(int size, int maximum) {
+        return String.format("object has too many properties (found %d but schema requires at most %d)", size, maximum);
+    }
+
+    public static String required(Collection<String> missing) {
+        return String.format("object has missing required properties (%s)", names(missing));
+    }
+
+    public static String dependencies(String property, Collection<String> required, Collection<String> missing) {
+        return String.format(
+            "property \"%s\" of object has missing property dependencies (schema requires %s; missing: %s)",
+            property,
+            names(required),
+            names(missing)
+        );
+    }
+
+    /**
+     * @param more the number of disallowed properties found but not listed.
+     */
+    public static String additionalProperties(Collection<String> disallowed, int more) {
+        String names = names(disallowed);
+        if (more > 0) {
+            names += " and " + more + " more";
+        }
+        return "object instance has properties which are not allowed by the schema: " + names;
+    }
+
+    public static String minItems(int size, int minimum) {
+        return String.format("array is too short: must have at least %d elements but instance has %d elements", minimum, size);
+    }
+
+    public static String maxItems(int size, int maximum) {
+        return String.format("array is too long: must have at most %d elements but instance has %d elements", maximum, size);
+    }
+
+    public static String uniqueItems() {
+        return "array must not contain duplicate elements";
+    }
+
+    public static String additionalItems(int allowed, int size) {
+        return String.format("array instance has more elements than allowed by the schema (allowed: %d, found: %d)", allowed, size);
+    }
+
+    public static String allOf(int matched, int total) {
+        return String.format("instance failed to match all required schemas (matched only %d out of %d)", matched, total);
+    }
+
+    public static String anyOf(int total) {
+        return String.format("instance failed to match at least one required schema among %d", total);
+    }
+
+    public static String oneOf(int matched, int total) {
+        return String.format("instance failed to match exactly one schema (matched %d out of %d)", matched, total);
+    }
+
+    public static String not() {
+        return "instance matched a schema which it should not have";
+    }
+
+    private static String names(Collection<String> names) {
+        return names.stream().map(name -> TextNode.valueOf(name).toString()).collect(Collectors.joining(",", "[", "]"));
+    }
+}
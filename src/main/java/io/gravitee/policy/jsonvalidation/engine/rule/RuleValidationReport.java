@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.rule;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.gravitee.policy.jsonvalidation.engine.ValidationReport;
+import io.gravitee.policy.jsonvalidation.engine.Violation;
+import java.util.List;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class RuleValidationReport implements ValidationReport {
+
+    private final List<RuleViolation> violations;
+    private final int count;
+
+    /**
+     * @param violations the violations kept in the report.
+     * @param count the number of violations found, which may exceed the number of violations kept.
+     */
+    public RuleValidationReport(List<RuleViolation> violations, int count) {
+        this.violations = violations;
+        this.count = count;
+    }
+
+    @Override
+    public boolean isSuccess() {
+        return count == 0;
+    }
+
+    @Override
+    public List<Violation> violations() {
+        return violations.stream().map(violation -> new Violation(violation.instancePointer(), violation.message())).toList();
+    }
+
+    /**
+     * Renders the report the way the default engine does, so that metrics look the same whatever the engine.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("RuleValidationReport: ").append(isSuccess() ? "success" : "failure").append('\n');
+        builder.append("--- BEGIN MESSAGES ---\n");
+        for (RuleViolation violation : violations) {
+            builder
+                .append("error: ")
+                .append(violation.message())
+                .append("\n    level: \"error\"\n    schema: {\"pointer\":")
+                .append(TextNode.valueOf(violation.schemaPointer()))
+                .append("}\n    instance: {\"pointer\":")
+                .append(TextNode.valueOf(violation.instancePointer()))
+                .append("}\n    domain: \"validation\"\n    keyword: ")
+                .append(TextNode.valueOf(violation.keyword()))
+                .append('\n');
+        }
+        if (count > violations.size()) {
+            builder.append("(").append(count - violations.size()).append(" more messages)\n");
+        }
+        return builder.append("---  END MESSAGES  ---\n").toString();
+    }
+}
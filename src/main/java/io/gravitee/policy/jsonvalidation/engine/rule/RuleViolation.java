@@ -0,0 +1,28 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.rule;
+
+/**
+ * A violation found by a rule based engine.
+ *
+ * @param instancePointer JSON pointer of the invalid value in the payload.
+ * @param schemaPointer JSON pointer of the violated (sub)schema.
+ * @param keyword the violated keyword.
+ * @param message human readable description, worded like the default engine's.
+ *
+ * @author GraviteeSource Team
+ */
+public record RuleViolation(String instancePointer, String schemaPointer, String keyword, String message) {}
@@ -0,0 +1,29 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.rule;
+
+/**
+ * Raised when a schema uses a keyword that cannot be checked without keeping a whole value in memory (or that the
+ * rule based engines do not implement). Such schemas are validated by the fallback engine instead.
+ *
+ * @author GraviteeSource Team
+ */
+public class UnsupportedSchemaException extends Exception {
+
+    UnsupportedSchemaException(String pointer, String reason) {
+        super(reason + " at " + (pointer.isEmpty() ? "(root)" : pointer));
+    }
+}
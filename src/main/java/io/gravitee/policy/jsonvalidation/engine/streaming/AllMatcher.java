@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.streaming;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Validates a value against several rules at once, e.g. a property matched by both <code>properties</code> and
+ * <code>patternProperties</code>.
+ *
+ * @author GraviteeSource Team
+ */
+final class AllMatcher extends Matcher {
+
+    private final List<Matcher> matchers;
+
+    AllMatcher(List<Matcher> matchers) {
+        this.matchers = matchers;
+    }
+
+    @Override
+    boolean accept(JsonToken token, JsonParser parser) throws IOException {
+        boolean complete = true;
+        for (Matcher matcher : matchers) {
+            // Every matcher reads the same value, so they all complete on the same token.
+            complete &= matcher.accept(token, parser);
+        }
+        return complete;
+    }
+}
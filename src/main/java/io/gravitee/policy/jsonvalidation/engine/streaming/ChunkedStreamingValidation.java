@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.streaming;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import io.gravitee.policy.jsonvalidation.engine.IncrementalValidation;
+import io.gravitee.policy.jsonvalidation.engine.ValidationReport;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Drives a {@link StreamingValidation} from a non-blocking parser, so that only the current chunk, and the state of
+ * the matchers, are held in memory. The parser reads the chunks where they are, without copying them.
+ *
+ * @author GraviteeSource Team
+ */
+final class ChunkedStreamingValidation implements IncrementalValidation {
+
+    private final StreamingValidation validation;
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+    private boolean ended;
+
+    ChunkedStreamingValidation(JsonParser parser, StreamingValidation validation) {
+        this.validation = validation;
+        this.parser = parser;
+        this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    @Override
+    public boolean feed(ByteBuffer chunk) throws IOException {
+        if (ended) {
+            throw new IllegalStateException("The payload is already ended");
+        }
+        if (validation.isDone()) {
+            // Whatever follows the document is not even parsed, as with the blocking parser.
+            return true;
+        }
+        try {
+            feeder.feedInput(chunk);
+            return drain();
+        } catch (IOException | RuntimeException e) {
+            parser.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isDone() {
+        return validation.isDone();
+    }
+
+    @Override
+    public ValidationReport end() throws IOException {
+        if (!ended) {
+            ended = true;
+            try (parser) {
+                if (!validation.isDone()) {
+                    feeder.endOfInput();
+                    drain();
+                }
+            }
+        }
+        if (!validation.isDone()) {
+            // The parser itself fails on truncated documents, so only an empty payload gets here.
+            throw new IOException("No content to validate");
+        }
+        return validation.report();
+    }
+
+    private boolean drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (validation.accept(token, parser)) {
+                parser.close();
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.streaming;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.gravitee.policy.jsonvalidation.engine.rule.Rule;
+import java.io.IOException;
+
+/**
+ * Validates one value of the document as its tokens are read. A matcher only keeps the state of the value it is
+ * created for, plus the matcher of the child value being read, so that memory is bounded by the nesting depth.
+ *
+ * @author GraviteeSource Team
+ */
+abstract class Matcher {
+
+    /**
+     * Feeds the next token of the value, starting with its first one. The parser is positioned on the token.
+     *
+     * @return <code>true</code> once the token completed the value.
+     */
+    abstract boolean accept(JsonToken token, JsonParser parser) throws IOException;
+
+    static Matcher of(Rule rule, String pointer, ViolationSink sink, boolean deep) {
+        if (rule == null || rule.isTrivial()) {
+            return new SkipMatcher();
+        }
+        return new RuleMatcher(rule.resolve(), pointer, sink, deep);
+    }
+}
@@ -0,0 +1,436 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.streaming;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.gravitee.policy.jsonvalidation.engine.regex.EcmaRegex;
+import io.gravitee.policy.jsonvalidation.engine.rule.InstanceType;
+import io.gravitee.policy.jsonvalidation.engine.rule.JsonValues;
+import io.gravitee.policy.jsonvalidation.engine.rule.Rule;
+import io.gravitee.policy.jsonvalidation.engine.rule.RuleCompiler;
+import io.gravitee.policy.jsonvalidation.engine.rule.RuleMessages;
+import io.gravitee.policy.jsonvalidation.engine.rule.RuleViolation;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validates a value against a {@link Rule}. Scalar keywords are checked on the value token, object and array keywords
+ * are checked incrementally while the children are read, and the branches of <code>allOf</code>, <code>anyOf</code>,
+ * <code>oneOf</code> and <code>not</code> are fed the same tokens in parallel. The messages mimic the ones of the
+ * default engine so that both report the same failures.
+ *
+ * @author GraviteeSource Team
+ */
+final class RuleMatcher extends Matcher {
+
+    private static final int DISALLOWED_LIMIT = 20;
+
+    private final Rule rule;
+    private final String pointer;
+    private final ViolationSink sink;
+    private final boolean deep;
+
+    /** Violations of the value itself, as opposed to the ones of its children. */
+    private final ViolationSink own;
+    private ViolationSink children;
+
+    private InstanceType type;
+    private Matcher child;
+    private int size;
+    private Set<String> presentRequired;
+    private Set<String> presentDependencies;
+    private List<String> disallowed;
+    private int disallowedCount;
+    /** Canonical form of the container being read, when the enum has containers. */
+    private JsonValues.KeyBuilder enumKey;
+
+    private Matcher[] allOf;
+    private ViolationSink[] allOfSinks;
+    private Matcher[] anyOf;
+    private ViolationSink[] anyOfSinks;
+    private Matcher[] oneOf;
+    private ViolationSink[] oneOfSinks;
+    private Matcher not;
+    private ViolationSink notSink;
+
+    RuleMatcher(Rule rule, String pointer, ViolationSink sink, boolean deep) {
+        this.rule = rule;
+        this.pointer = pointer;
+        this.sink = sink;
+        this.deep = deep;
+        this.own = sink.child();
+    }
+
+    @Override
+    boolean accept(JsonToken token, JsonParser parser) throws IOException {
+        if (type == null) {
+            return start(token, parser);
+        }
+        feedBranches(token, parser);
+        if (enumKey != null && enumKey.accept(token, parser)) {
+            checkEnumKey(parser);
+        }
+        if (child != null) {
+            if (child.accept(token, parser)) {
+                child = null;
+            }
+            return false;
+        }
+        return type == InstanceType.OBJECT ? objectToken(token, parser) : arrayToken(token, parser);
+    }
+
+    private boolean start(JsonToken token, JsonParser parser) throws IOException {
+        type = InstanceType.of(token);
+        startBranches();
+        feedBranches(token, parser);
+        checkType();
+        checkEnum(token, parser);
+        switch (type) {
+            case OBJECT, ARRAY -> {
+                children = sink.child();
+                return false;
+            }
+            case STRING -> checkString(parser.getText());
+            case INTEGER, NUMBER -> checkNumber(parser);
+            default -> {
+                // Nothing more to check on booleans and nulls.
+            }
+        }
+        finish();
+        return true;
+    }
+
+    private boolean objectToken(JsonToken token, JsonParser parser) throws IOException {
+        if (token == JsonToken.END_OBJECT) {
+            checkObject();
+            finish();
+            return true;
+        }
+        String name = parser.currentName();
+        size++;
+        if (rule.getRequired() != null && rule.getRequired().contains(name)) {
+            if (presentRequired == null) {
+                presentRequired = new HashSet<>();
+            }
+            presentRequired.add(name);
+        }
+        if (rule.getDependencyNames() != null && rule.getDependencyNames().contains(name)) {
+            if (presentDependencies == null) {
+                presentDependencies = new HashSet<>();
+            }
+            presentDependencies.add(name);
+        }
+
+        List<Rule> rules = new ArrayList<>(2);
+        boolean exhausted = false;
+        if (rule.getProperties() != null) {
+            Rule property = rule.getProperties().get(name);
+            if (property != null) {
+                rules.add(property);
+            }
+        }
+        if (rule.getPatternProperties() != null) {
+            for (Rule.PatternRule patternProperty : rule.getPatternProperties()) {
+                EcmaRegex.Match match = patternProperty.pattern().match(name);
+                if (match == EcmaRegex.Match.FOUND) {
+                    rules.add(patternProperty.rule());
+                } else if (match == EcmaRegex.Match.EXHAUSTED) {
+                    // Not left to additionalProperties, so that a crafted name cannot slip past the pattern's schema
+                    violation("patternProperties", RuleMessages.patternExhausted(patternProperty.pattern(), name));
+                    exhausted = true;
+                }
+            }
+        }
+        if (rules.isEmpty() && !exhausted) {
+            if (!rule.isAdditionalPropertiesAllowed()) {
+                disallow(name);
+            } else if (rule.getAdditionalProperties() != null) {
+                rules.add(rule.getAdditionalProperties());
+            }
+        }
+        // The value of the property is read with the next token.
+        child = childMatcher(rules, name);
+        return false;
+    }
+
+    private boolean arrayToken(JsonToken token, JsonParser parser) throws IOException {
+        if (token == JsonToken.END_ARRAY) {
+            checkArray();
+            finish();
+            return true;
+        }
+        int index = size++;
+        Rule item;
+        if (rule.getTupleItems() == null) {
+            item = rule.getItems();
+        } else if (index < rule.getTupleItems().size()) {
+            item = rule.getTupleItems().get(index);
+        } else {
+            item = rule.getAdditionalItems();
+        }
+        Matcher matcher = childMatcher(item == null ? List.of() : List.of(item), Integer.toString(index));
+        if (!matcher.accept(token, parser)) {
+            child = matcher;
+        }
+        return false;
+    }
+
+    private Matcher childMatcher(List<Rule> rules, String token) {
+        List<Rule> effective = rules.stream().filter(r -> !r.isTrivial()).toList();
+        if (effective.isEmpty()) {
+            return new SkipMatcher();
+        }
+        String childPointer = pointer + "/" + RuleCompiler.escape(token);
+        if (effective.size() == 1) {
+            return new RuleMatcher(effective.get(0).resolve(), childPointer, children, deep);
+        }
+        return new AllMatcher(effective.stream().<Matcher>map(r -> new RuleMatcher(r.resolve(), childPointer, children, deep)).toList());
+    }
+
+    private void disallow(String name) {
+        disallowedCount++;
+        if (disallowed == null) {
+            disallowed = new ArrayList<>();
+        }
+        if (disallowed.size() < DISALLOWED_LIMIT) {
+            disallowed.add(name);
+        }
+    }
+
+    private void checkType() {
+        if (rule.getTypes() == null) {
+            return;
+        }
+        if (rule.getTypes().contains(type) || (type == InstanceType.INTEGER && rule.getTypes().contains(InstanceType.NUMBER))) {
+            return;
+        }
+        violation("type", RuleMessages.type(type, rule.getTypes()));
+    }
+
+    private void checkEnum(JsonToken token, JsonParser parser) throws IOException {
+        if (rule.getEnumValues() == null) {
+            return;
+        }
+        if (token.isStructStart()) {
+            if (rule.isEnumContainers()) {
+                // Looked up once the container is complete.
+                enumKey = new JsonValues.KeyBuilder();
+                enumKey.accept(token, parser);
+                return;
+            }
+        } else if (rule.getEnumKeys().contains(JsonValues.key(token, parser))) {
+            return;
+        }
+        violation("enum", RuleMessages.enumValue(render(parser), rule.getEnumValues()));
+    }
+
+    private void checkEnumKey(JsonParser parser) throws IOException {
+        if (!rule.getEnumKeys().contains(enumKey.key())) {
+            violation("enum", RuleMessages.enumValue(render(parser), rule.getEnumValues()));
+        }
+        enumKey = null;
+    }
+
+    private void checkString(String text) {
+        if (!rule.hasStringKeywords()) {
+            return;
+        }
+        int length = text.codePointCount(0, text.length());
+        if (rule.getMinLength() != null && length < rule.getMinLength()) {
+            violation("minLength", RuleMessages.minLength(text, length, rule.getMinLength()));
+        }
+        if (rule.getMaxLength() != null && length > rule.getMaxLength()) {
+            violation("maxLength", RuleMessages.maxLength(text, length, rule.getMaxLength()));
+        }
+        if (rule.getPattern() != null && !rule.getPattern().find(text)) {
+            violation("pattern", RuleMessages.pattern(rule.getPattern(), text));
+        }
+    }
+
+    private void checkNumber(JsonParser parser) throws IOException {
+        if (!rule.hasNumberKeywords()) {
+            return;
+        }
+        BigDecimal value = parser.getDecimalValue();
+        String found = parser.getText();
+        if (rule.getMinimum() != null) {
+            int comparison = value.compareTo(rule.getMinimum());
+            if (comparison < 0 || (comparison == 0 && rule.isExclusiveMinimum())) {
+                violation("minimum", RuleMessages.minimum(rule.getMinimum(), rule.isExclusiveMinimum(), found));
+            }
+        }
+        if (rule.getMaximum() != null) {
+            int comparison = value.compareTo(rule.getMaximum());
+            if (comparison > 0 || (comparison == 0 && rule.isExclusiveMaximum())) {
+                violation("maximum", RuleMessages.maximum(rule.getMaximum(), rule.isExclusiveMaximum(), found));
+            }
+        }
+        if (rule.getMultipleOf() != null && value.remainder(rule.getMultipleOf()).signum() != 0) {
+            violation("multipleOf", RuleMessages.multipleOf(found, rule.getMultipleOf()));
+        }
+    }
+
+    private void checkObject() {
+        if (rule.getMinProperties() != null && size < rule.getMinProperties()) {
+            violation("minProperties", RuleMessages.minProperties(size, rule.getMinProperties()));
+        }
+        if (rule.getMaxProperties() != null && size > rule.getMaxProperties()) {
+            violation("maxProperties", RuleMessages.maxProperties(size, rule.getMaxProperties()));
+        }
+        if (rule.getRequired() != null) {
+            List<String> missing = rule
+                .getRequired()
+                .stream()
+                .filter(name -> presentRequired == null || !presentRequired.contains(name))
+                .toList();
+            if (!missing.isEmpty()) {
+                violation("required", RuleMessages.required(missing));
+            }
+        }
+        if (rule.getDependencies() != null && presentDependencies != null) {
+            for (Map.Entry<String, List<String>> dependency : rule.getDependencies().entrySet()) {
+                if (!presentDependencies.contains(dependency.getKey())) {
+                    continue;
+                }
+                List<String> missing = dependency.getValue().stream().filter(name -> !presentDependencies.contains(name)).toList();
+                if (!missing.isEmpty()) {
+                    violation("dependencies", RuleMessages.dependencies(dependency.getKey(), dependency.getValue(), missing));
+                }
+            }
+        }
+        if (disallowed != null) {
+            violation("additionalProperties", RuleMessages.additionalProperties(disallowed, disallowedCount - disallowed.size()));
+        }
+    }
+
+    private void checkArray() {
+        if (rule.getMinItems() != null && size < rule.getMinItems()) {
+            violation("minItems", RuleMessages.minItems(size, rule.getMinItems()));
+        }
+        if (rule.getMaxItems() != null && size > rule.getMaxItems()) {
+            violation("maxItems", RuleMessages.maxItems(size, rule.getMaxItems()));
+        }
+        if (rule.getTupleItems() != null && !rule.isAdditionalItemsAllowed() && size > rule.getTupleItems().size()) {
+            violation("additionalItems", RuleMessages.additionalItems(rule.getTupleItems().size(), size));
+        }
+    }
+
+    private void startBranches() {
+        if (rule.getAllOf() != null) {
+            allOfSinks = new ViolationSink[rule.getAllOf().size()];
+            allOf = branches(rule.getAllOf(), allOfSinks);
+        }
+        if (rule.getAnyOf() != null) {
+            anyOfSinks = new ViolationSink[rule.getAnyOf().size()];
+            anyOf = branches(rule.getAnyOf(), anyOfSinks);
+        }
+        if (rule.getOneOf() != null) {
+            oneOfSinks = new ViolationSink[rule.getOneOf().size()];
+            oneOf = branches(rule.getOneOf(), oneOfSinks);
+        }
+        if (rule.getNot() != null) {
+            notSink = new ViolationSink(0);
+            not = new RuleMatcher(rule.getNot().resolve(), pointer, notSink, deep);
+        }
+    }
+
+    private Matcher[] branches(List<Rule> rules, ViolationSink[] sinks) {
+        Matcher[] matchers = new Matcher[rules.size()];
+        for (int i = 0; i < matchers.length; i++) {
+            // Only the outcome of a branch is reported, so its violations are counted but not kept.
+            sinks[i] = new ViolationSink(0);
+            matchers[i] = new RuleMatcher(rules.get(i).resolve(), pointer, sinks[i], deep);
+        }
+        return matchers;
+    }
+
+    private void feedBranches(JsonToken token, JsonParser parser) throws IOException {
+        feed(allOf, token, parser);
+        feed(anyOf, token, parser);
+        feed(oneOf, token, parser);
+        if (not != null) {
+            not.accept(token, parser);
+        }
+    }
+
+    private static void feed(Matcher[] matchers, JsonToken token, JsonParser parser) throws IOException {
+        if (matchers != null) {
+            for (Matcher matcher : matchers) {
+                matcher.accept(token, parser);
+            }
+        }
+    }
+
+    private void checkBranches() {
+        if (allOf != null) {
+            int matched = matched(allOfSinks);
+            if (matched < allOf.length) {
+                violation("allOf", RuleMessages.allOf(matched, allOf.length));
+            }
+        }
+        if (anyOf != null && matched(anyOfSinks) == 0) {
+            violation("anyOf", RuleMessages.anyOf(anyOf.length));
+        }
+        if (oneOf != null) {
+            int matched = matched(oneOfSinks);
+            if (matched != 1) {
+                violation("oneOf", RuleMessages.oneOf(matched, oneOf.length));
+            }
+        }
+        if (not != null && notSink.isEmpty()) {
+            violation("not", RuleMessages.not());
+        }
+    }
+
+    private static int matched(ViolationSink[] sinks) {
+        int matched = 0;
+        for (ViolationSink branch : sinks) {
+            if (branch.isEmpty()) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    private void finish() {
+        checkBranches();
+        sink.addAll(own);
+        // Like the default engine, the children of an invalid container are only reported with a deep check.
+        if (children != null && (deep || own.isEmpty())) {
+            sink.addAll(children);
+        }
+    }
+
+    private void violation(String keyword, String message) {
+        own.add(new RuleViolation(pointer, rule.getSchemaPointer(), keyword, message));
+    }
+
+    private String render(JsonParser parser) throws IOException {
+        return switch (type) {
+            case STRING -> TextNode.valueOf(parser.getText()).toString();
+            case OBJECT -> "{...}";
+            case ARRAY -> "[...]";
+            default -> parser.getText();
+        };
+    }
+}
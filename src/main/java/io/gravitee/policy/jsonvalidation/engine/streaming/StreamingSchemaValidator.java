@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.streaming;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gravitee.policy.jsonvalidation.engine.IncrementalValidation;
+import io.gravitee.policy.jsonvalidation.engine.SchemaValidator;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import io.gravitee.policy.jsonvalidation.engine.ValidationOptions;
+import io.gravitee.policy.jsonvalidation.engine.ValidationReport;
+import io.gravitee.policy.jsonvalidation.engine.rule.Rule;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Validates payloads straight from the parser tokens, without building a tree.
+ *
+ * @author GraviteeSource Team
+ */
+public class StreamingSchemaValidator implements SchemaValidator {
+
+    private final Rule rule;
+
+    StreamingSchemaValidator(Rule rule) {
+        this.rule = rule;
+    }
+
+    public StreamingValidation newValidation(ValidationOptions options) {
+        return new StreamingValidation(rule, options);
+    }
+
+    @Override
+    public IncrementalValidation newIncrementalValidation(ValidationOptions options) {
+        try {
+            return new ChunkedStreamingValidation(options.limits().createNonBlockingParser(), newValidation(options));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean validatesIncrementally() {
+        return true;
+    }
+
+    @Override
+    public ValidationReport validate(JsonNode instance, ValidationOptions options) throws ValidationEngineException {
+        try (JsonParser parser = instance.traverse()) {
+            return consume(parser, options);
+        } catch (IOException e) {
+            throw new ValidationEngineException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public ValidationReport validate(byte[] payload, ValidationOptions options) throws IOException {
+        try (JsonParser parser = options.limits().createParser(payload)) {
+            return consume(parser, options);
+        }
+    }
+
+    @Override
+    public ValidationReport validate(InputStream payload, ValidationOptions options) throws IOException {
+        try (JsonParser parser = options.limits().createParser(payload)) {
+            return consume(parser, options);
+        }
+    }
+
+    private ValidationReport consume(JsonParser parser, ValidationOptions options) throws IOException {
+        StreamingValidation validation = newValidation(options);
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            if (validation.accept(token, parser)) {
+                // In fail-fast mode, the rest of the payload is not even parsed.
+                return validation.report();
+            }
+        }
+        // The parser itself fails on truncated documents, so only an empty payload gets here.
+        throw new IOException("No content to validate");
+    }
+}
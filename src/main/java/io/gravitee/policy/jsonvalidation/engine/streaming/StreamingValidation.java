@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.streaming;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.gravitee.policy.jsonvalidation.engine.ValidationOptions;
+import io.gravitee.policy.jsonvalidation.engine.ValidationReport;
+import io.gravitee.policy.jsonvalidation.engine.rule.Rule;
+import io.gravitee.policy.jsonvalidation.engine.rule.RuleValidationReport;
+import java.io.IOException;
+
+/**
+ * The validation of one document, fed token by token. The caller owns the parser, which makes it possible to validate
+ * a document as its bytes arrive.
+ *
+ * @author GraviteeSource Team
+ */
+public final class StreamingValidation {
+
+    private final ViolationSink failure;
+    private final ViolationSink sink;
+    private final Matcher root;
+    private boolean complete;
+
+    StreamingValidation(Rule rule, ValidationOptions options) {
+        this.failure = options.failFast() ? new ViolationSink(1) : null;
+        this.sink = new ViolationSink(ViolationSink.DEFAULT_LIMIT, failure);
+        // There is no unchecked mode: the rules are checked when the schema is compiled, not while validating.
+        this.root = Matcher.of(rule, "", sink, options.deepCheck());
+    }
+
+    /**
+     * Feeds the next token of the document. The parser must be positioned on the token.
+     *
+     * @return <code>true</code> once the token completed the document or, in fail-fast mode, revealed a violation. The
+     * remaining tokens do not need to be read.
+     */
+    public boolean accept(JsonToken token, JsonParser parser) throws IOException {
+        if (isDone()) {
+            throw new IllegalStateException("The document is already validated");
+        }
+        complete = root.accept(token, parser);
+        return isDone();
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public boolean isDone() {
+        return complete || (failure != null && !failure.isEmpty());
+    }
+
+    public ValidationReport report() {
+        if (failure != null && !failure.isEmpty()) {
+            return new RuleValidationReport(failure.violations(), failure.count());
+        }
+        if (!complete) {
+            throw new IllegalStateException("The document is not complete");
+        }
+        return new RuleValidationReport(sink.violations(), sink.count());
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.streaming;
+
+import io.gravitee.policy.jsonvalidation.engine.rule.RuleViolation;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the violations of a value. Only the first <code>limit</code> violations are kept (the others are only
+ * counted) so that memory does not grow with the number of invalid values in a document.
+ * <p>
+ * In fail-fast mode, the sinks of a document also forward their first violation to a shared <code>failure</code> sink
+ * as soon as it is found, without waiting for the enclosing values to complete. Combinator branches use sinks without
+ * failure, since a failing branch does not necessarily make the document invalid.
+ *
+ * @author GraviteeSource Team
+ */
+final class ViolationSink {
+
+    static final int DEFAULT_LIMIT = 100;
+
+    private final int limit;
+    private final List<RuleViolation> violations;
+    private final ViolationSink failure;
+    private int count;
+
+    ViolationSink(int limit) {
+        this(limit, null);
+    }
+
+    ViolationSink(int limit, ViolationSink failure) {
+        this.limit = limit;
+        this.violations = limit == 0 ? List.of() : new ArrayList<>();
+        this.failure = failure;
+    }
+
+    /**
+     * A sink for violations that end up in this one.
+     */
+    ViolationSink child() {
+        return new ViolationSink(limit, failure);
+    }
+
+    void add(RuleViolation violation) {
+        count++;
+        if (violations.size() < limit) {
+            violations.add(violation);
+        }
+        if (failure != null && failure.isEmpty()) {
+            failure.add(violation);
+        }
+    }
+
+    void addAll(ViolationSink other) {
+        for (RuleViolation violation : other.violations) {
+            add(violation);
+        }
+        count += other.count - other.violations.size();
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    int count() {
+        return count;
+    }
+
+    List<RuleViolation> violations() {
+        return violations;
+    }
+}
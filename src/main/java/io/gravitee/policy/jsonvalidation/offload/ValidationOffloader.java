@@ -0,0 +1,178 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.offload;
+
+import io.gravitee.policy.jsonvalidation.configuration.offload.OffloadRejectionPolicy;
+import io.gravitee.policy.jsonvalidation.configuration.offload.ValidationOffload;
+import io.reactivex.rxjava3.core.Single;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the validation of large bodies on a bounded pool instead of the event loop, and resumes the exchange on the
+ * Vert.x context it was offloaded from. Pools are shared by the policies having the same pool settings, and their idle
+ * threads are released.
+ *
+ * @author GraviteeSource Team
+ */
+@Slf4j
+public final class ValidationOffloader {
+
+    public static final ValidationOffloader DISABLED = new ValidationOffloader(0, null, OffloadRejectionPolicy.CALLER_RUNS);
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    private static final Map<PoolKey, ThreadPoolExecutor> POOLS = new ConcurrentHashMap<>();
+
+    private final long threshold;
+    private final ThreadPoolExecutor pool;
+    private final OffloadRejectionPolicy rejectionPolicy;
+
+    private ValidationOffloader(long threshold, ThreadPoolExecutor pool, OffloadRejectionPolicy rejectionPolicy) {
+        this.threshold = threshold;
+        this.pool = pool;
+        this.rejectionPolicy = rejectionPolicy;
+    }
+
+    public static ValidationOffloader of(ValidationOffload offload) {
+        if (offload == null || offload.getThreshold() <= 0) {
+            return DISABLED;
+        }
+        int threads = offload.getThreads() > 0 ? offload.getThreads() : Runtime.getRuntime().availableProcessors();
+        PoolKey key = new PoolKey(threads, Math.max(1, offload.getQueueSize()), offload.isVirtualThreads());
+        return new ValidationOffloader(
+            offload.getThreshold(),
+            POOLS.computeIfAbsent(key, ValidationOffloader::newPool),
+            offload.getRejectionPolicy() != null ? offload.getRejectionPolicy() : OffloadRejectionPolicy.CALLER_RUNS
+        );
+    }
+
+    /**
+     * Whether a body of this size is validated on the pool.
+     */
+    public boolean offloads(long length) {
+        return pool != null && length >= threshold;
+    }
+
+    /**
+     * Number of validations waiting for a thread of the pool.
+     */
+    public int queueDepth() {
+        return pool != null ? pool.getQueue().size() : 0;
+    }
+
+    /**
+     * Runs the task on the pool. The result is emitted on the Vert.x context of the subscriber, if any. When the pool is
+     * full, the task runs on the subscriber thread with {@link OffloadRejectionPolicy#CALLER_RUNS}, or the result is a
+     * {@link RejectedExecutionException} with {@link OffloadRejectionPolicy#REJECT}.
+     */
+    public <T> Single<T> submit(Callable<T> task) {
+        return submit(task, depth -> {});
+    }
+
+    /**
+     * Like {@link #submit(Callable)}, and gives the number of validations waiting for a thread once the task is
+     * submitted, this one included when it waits too.
+     */
+    public <T> Single<T> submit(Callable<T> task, IntConsumer queueDepth) {
+        return Single.create(emitter -> {
+            Context context = Vertx.currentContext();
+            try {
+                pool.execute(() -> {
+                    if (emitter.isDisposed()) {
+                        return;
+                    }
+                    try {
+                        T result = task.call();
+                        resume(context, () -> emitter.onSuccess(result));
+                    } catch (Throwable t) {
+                        resume(context, () -> emitter.tryOnError(t));
+                    }
+                });
+                queueDepth.accept(queueDepth());
+            } catch (RejectedExecutionException e) {
+                queueDepth.accept(queueDepth());
+                log.debug("JSON validation pool is full ({} queued validations)", queueDepth());
+                if (rejectionPolicy == OffloadRejectionPolicy.REJECT) {
+                    emitter.tryOnError(e);
+                } else {
+                    emitter.onSuccess(task.call());
+                }
+            }
+        });
+    }
+
+    private static void resume(Context context, Runnable action) {
+        if (context != null) {
+            context.runOnContext(ignored -> action.run());
+        } else {
+            action.run();
+        }
+    }
+
+    private static ThreadPoolExecutor newPool(PoolKey key) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            key.threads(),
+            key.threads(),
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(key.queueSize()),
+            threadFactory(key.virtualThreads())
+        );
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static ThreadFactory threadFactory(boolean virtualThreads) {
+        if (virtualThreads) {
+            ThreadFactory factory = virtualThreadFactory();
+            if (factory != null) {
+                return factory;
+            }
+            log.warn("Virtual threads are not supported by this JVM, JSON validations are offloaded to platform threads");
+        }
+        AtomicInteger index = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "json-validation-offload-" + index.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Thread.ofVirtual() only exists from Java 21, while the policy is built for older runtimes.
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "json-validation-offload-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private record PoolKey(int threads, int queueSize, boolean virtualThreads) {}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.payload;
+
+import io.gravitee.gateway.api.http.HttpHeaderNames;
+import io.gravitee.gateway.api.http.HttpHeaders;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Decides from its <code>Content-Type</code> whether a body is validated at all. Ranges are media types whose type or
+ * subtype may be <code>*</code>, and whose subtype may be a structured syntax suffix wildcard such as
+ * <code>*+json</code>. Without any range, or without a usable <code>Content-Type</code>, every body is validated.
+ *
+ * @author GraviteeSource Team
+ */
+public final class MediaTypeFilter {
+
+    public static final MediaTypeFilter ANY = new MediaTypeFilter(List.of());
+
+    private final List<Range> ranges;
+
+    private MediaTypeFilter(List<Range> ranges) {
+        this.ranges = ranges;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a range is not of the form <code>type/subtype</code>.
+     */
+    public static MediaTypeFilter of(List<String> mediaTypes) {
+        if (mediaTypes == null || mediaTypes.isEmpty()) {
+            return ANY;
+        }
+        return new MediaTypeFilter(
+            mediaTypes
+                .stream()
+                .map(mediaType -> {
+                    Range range = Range.parse(mediaType);
+                    if (range == null) {
+                        throw new IllegalArgumentException("Invalid media type range: " + mediaType);
+                    }
+                    return range;
+                })
+                .toList()
+        );
+    }
+
+    public boolean accepts(HttpHeaders headers) {
+        return ranges.isEmpty() || headers == null || accepts(headers.get(HttpHeaderNames.CONTENT_TYPE));
+    }
+
+    public boolean accepts(String contentType) {
+        if (ranges.isEmpty() || contentType == null) {
+            return true;
+        }
+        Range actual = Range.parse(contentType);
+        // A body whose type cannot be told is validated, rather than let through unchecked.
+        return actual == null || ranges.stream().anyMatch(range -> range.matches(actual));
+    }
+
+    private record Range(String type, String subtype) {
+        static Range parse(String mediaType) {
+            int parameters = mediaType.indexOf(';');
+            String essence = (parameters < 0 ? mediaType : mediaType.substring(0, parameters)).trim().toLowerCase(Locale.ROOT);
+            int slash = essence.indexOf('/');
+            if (slash <= 0 || slash == essence.length() - 1) {
+                return null;
+            }
+            return new Range(essence.substring(0, slash).trim(), essence.substring(slash + 1).trim());
+        }
+
+        boolean matches(Range actual) {
+            return (
+                ("*".equals(type) || type.equals(actual.type)) &&
+                ("*".equals(subtype) ||
+                    subtype.equals(actual.subtype) ||
+                    (subtype.startsWith("*+") && actual.subtype.endsWith(subtype.substring(1))))
+            );
+        }
+    }
+}
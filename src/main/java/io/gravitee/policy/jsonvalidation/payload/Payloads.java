@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.payload;
+
+import io.gravitee.gateway.api.buffer.Buffer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads gateway buffers without copying them: the parser pulls the bytes straight from the underlying Netty buffer,
+ * chunk by chunk, instead of from a full-size <code>byte[]</code> or <code>String</code> copy of the body.
+ *
+ * @author GraviteeSource Team
+ */
+public final class Payloads {
+
+    private Payloads() {}
+
+    /**
+     * The content of the buffer. Reading the stream leaves the buffer untouched, so the content can be read again, or
+     * forwarded, afterwards.
+     */
+    public static InputStream open(Buffer buffer) {
+        Object nativeBuffer = buffer.getNativeBuffer();
+        if (nativeBuffer instanceof ByteBuf byteBuf) {
+            return new ByteBufInputStream(byteBuf.duplicate());
+        }
+        return new ByteArrayInputStream(buffer.getBytes());
+    }
+
+    /**
+     * Views of the content of the buffer, one per component of a composite buffer. As with {@link #open(Buffer)},
+     * reading the views leaves the buffer untouched.
+     */
+    public static ByteBuffer[] views(Buffer buffer) {
+        Object nativeBuffer = buffer.getNativeBuffer();
+        if (nativeBuffer instanceof ByteBuf byteBuf) {
+            return byteBuf.nioBuffers();
+        }
+        return new ByteBuffer[] { ByteBuffer.wrap(buffer.getBytes()) };
+    }
+}
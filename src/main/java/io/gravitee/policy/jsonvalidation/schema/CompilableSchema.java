@@ -0,0 +1,29 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.schema;
+
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import io.gravitee.resource.schema_registry.api.Schema;
+import java.io.IOException;
+
+/**
+ * A {@link Schema} able to hand out its {@link CompiledSchema}, compiling it at most once.
+ *
+ * @author GraviteeSource Team
+ */
+public interface CompilableSchema extends Schema {
+    CompiledSchema compiledSchema() throws IOException, ValidationEngineException;
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gravitee.policy.jsonvalidation.engine.IncrementalValidation;
+import io.gravitee.policy.jsonvalidation.engine.SchemaValidator;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngine;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngines;
+import io.gravitee.policy.jsonvalidation.engine.ValidationOptions;
+import io.gravitee.policy.jsonvalidation.engine.ValidationReport;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * A JSON schema parsed and compiled once by a {@link ValidationEngine}, ready to validate any number of instances.
+ * Instances are obtained from the {@link CompiledSchemaPool}.
+ *
+ * @author GraviteeSource Team
+ */
+public final class CompiledSchema {
+
+    private final JsonNode tree;
+    private final ValidationEngine engine;
+    private final SchemaValidator validator;
+
+    private CompiledSchema(JsonNode tree, ValidationEngine engine, SchemaValidator validator) {
+        this.tree = tree;
+        this.engine = engine;
+        this.validator = validator;
+    }
+
+    static CompiledSchema compile(JsonNode tree) throws ValidationEngineException {
+        return compile(tree, ValidationEngines.DEFAULT);
+    }
+
+    static CompiledSchema compile(JsonNode tree, ValidationEngine engine) throws ValidationEngineException {
+        return new CompiledSchema(tree, engine, engine.compile(tree));
+    }
+
+    public JsonNode tree() {
+        return tree;
+    }
+
+    /**
+     * Checks the schema against its meta-schema without validating any instance, so that syntax errors can be reported
+     * at deployment time rather than on the first request.
+     */
+    public List<String> checkSyntax() {
+        return engine.checkSyntax(tree);
+    }
+
+    public void warmUp() {
+        validator.warmUp();
+    }
+
+    public ValidationReport validate(JsonNode instance, boolean unchecked) throws ValidationEngineException {
+        return validate(instance, unchecked, false);
+    }
+
+    public ValidationReport validate(JsonNode instance, boolean unchecked, boolean deepCheck) throws ValidationEngineException {
+        return validate(instance, unchecked, deepCheck, false);
+    }
+
+    public ValidationReport validate(JsonNode instance, boolean unchecked, boolean deepCheck, boolean failFast)
+        throws ValidationEngineException {
+        return validate(instance, new ValidationOptions(unchecked, deepCheck, failFast));
+    }
+
+    public ValidationReport validate(JsonNode instance, ValidationOptions options) throws ValidationEngineException {
+        return validator.validate(instance, options);
+    }
+
+    /**
+     * Validates a raw payload, letting the engine decide whether it needs to parse it into a tree.
+     *
+     * @throws IOException if the payload is not well-formed JSON.
+     */
+    public ValidationReport validate(byte[] payload, boolean unchecked) throws IOException, ValidationEngineException {
+        return validate(payload, unchecked, false);
+    }
+
+    /**
+     * @param failFast stop at the first violation, which is then the only one reported.
+     */
+    public ValidationReport validate(byte[] payload, boolean unchecked, boolean failFast) throws IOException, ValidationEngineException {
+        return validate(payload, new ValidationOptions(unchecked, false, failFast));
+    }
+
+    public ValidationReport validate(byte[] payload, ValidationOptions options) throws IOException, ValidationEngineException {
+        return validator.validate(payload, options);
+    }
+
+    /**
+     * Validates a payload as it is read from the stream, see {@link io.gravitee.policy.jsonvalidation.payload.Payloads}.
+     *
+     * @throws IOException if the payload is not well-formed JSON.
+     */
+    public ValidationReport validate(InputStream payload, ValidationOptions options) throws IOException, ValidationEngineException {
+        return validator.validate(payload, options);
+    }
+
+    /**
+     * Starts the validation of a payload whose chunks are fed as they arrive, see {@link IncrementalValidation}.
+     */
+    public IncrementalValidation newIncrementalValidation(ValidationOptions options) {
+        return validator.newIncrementalValidation(options);
+    }
+
+    public boolean validatesIncrementally() {
+        return validator.validatesIncrementally();
+    }
+}
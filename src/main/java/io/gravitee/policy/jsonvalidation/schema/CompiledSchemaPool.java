@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jackson.JsonLoader;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngine;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngines;
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gateway-wide pool of compiled schemas, keyed by a content hash of the schema. Policy instances embedding the same
+ * schema share a single parsed and compiled copy. The pool only references compiled schemas weakly: an entry goes away
+ * once no policy instance uses it anymore.
+ *
+ * @author GraviteeSource Team
+ */
+public final class CompiledSchemaPool {
+
+    private static final CompiledSchemaPool SHARED = new CompiledSchemaPool();
+
+    private final ConcurrentMap<String, PooledSchema> entries = new ConcurrentHashMap<>();
+    private final ReferenceQueue<CompiledSchema> collected = new ReferenceQueue<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    CompiledSchemaPool() {}
+
+    public static CompiledSchemaPool shared() {
+        return SHARED;
+    }
+
+    public CompiledSchema intern(String content) throws IOException, ValidationEngineException {
+        return intern(content, ValidationEngines.DEFAULT);
+    }
+
+    public CompiledSchema intern(String content, ValidationEngine engine) throws IOException, ValidationEngineException {
+        JsonNode tree = JsonLoader.fromString(content);
+        if (tree == null || tree.isMissingNode()) {
+            throw new IOException("Configured JSON schema is empty or could not be parsed");
+        }
+        return intern(tree, engine);
+    }
+
+    public CompiledSchema intern(JsonNode tree) throws ValidationEngineException {
+        return intern(tree, ValidationEngines.DEFAULT);
+    }
+
+    public CompiledSchema intern(JsonNode tree, ValidationEngine engine) throws ValidationEngineException {
+        purgeCollected();
+
+        // Schemas compiled by different engines, or with different reference mappings, are never shared.
+        String key = engine.key().isEmpty() ? fingerprint(tree) : fingerprint(tree) + "@" + engine.key();
+        PooledSchema pooled = entries.get(key);
+        CompiledSchema compiledSchema = pooled != null ? pooled.get() : null;
+        if (compiledSchema != null && compiledSchema.tree().equals(tree)) {
+            hits.increment();
+            return compiledSchema;
+        }
+
+        misses.increment();
+        CompiledSchema compiled = CompiledSchema.compile(tree, engine);
+        if (compiledSchema != null) {
+            // Same fingerprint but different content: keep the pooled entry and hand out a private copy.
+            return compiled;
+        }
+        PooledSchema candidate = new PooledSchema(key, compiled, collected);
+        PooledSchema current = entries.merge(key, candidate, (existing, added) -> existing.get() == null ? added : existing);
+        CompiledSchema winner = current.get();
+        return winner != null && winner.tree().equals(tree) ? winner : compiled;
+    }
+
+    public Stats stats() {
+        purgeCollected();
+        return new Stats(hits.sum(), misses.sum(), entries.size());
+    }
+
+    private void purgeCollected() {
+        PooledSchema reference;
+        while ((reference = (PooledSchema) collected.poll()) != null) {
+            entries.remove(reference.key, reference);
+        }
+    }
+
+    /**
+     * SHA-256 of the schema tree with object members in name order, so that schemas differing only by whitespace or
+     * member order share the same fingerprint.
+     */
+    public static String fingerprint(JsonNode tree) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, tree);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, JsonNode node) {
+        if (node.isObject()) {
+            List<Map.Entry<String, JsonNode>> fields = new ArrayList<>(node.size());
+            Iterator<Map.Entry<String, JsonNode>> iterator = node.fields();
+            iterator.forEachRemaining(fields::add);
+            fields.sort(Map.Entry.comparingByKey());
+            digest.update((byte) '{');
+            for (Map.Entry<String, JsonNode> field : fields) {
+                digest.update(field.getKey().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) ':');
+                update(digest, field.getValue());
+                digest.update((byte) ',');
+            }
+            digest.update((byte) '}');
+        } else if (node.isArray()) {
+            digest.update((byte) '[');
+            for (JsonNode element : node) {
+                update(digest, element);
+                digest.update((byte) ',');
+            }
+            digest.update((byte) ']');
+        } else {
+            digest.update((byte) node.getNodeType().ordinal());
+            digest.update(node.asText().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static final class PooledSchema extends WeakReference<CompiledSchema> {
+
+        private final String key;
+
+        private PooledSchema(String key, CompiledSchema compiledSchema, ReferenceQueue<CompiledSchema> queue) {
+            super(compiledSchema, queue);
+            this.key = key;
+        }
+    }
+
+    public record Stats(long hits, long misses, int size) {}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.schema;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers keys that could not be resolved for a short time, so that repeated lookups of the same missing key are
+ * rejected in memory instead of going back to the registry.
+ *
+ * @author GraviteeSource Team
+ */
+public class NegativeCache {
+
+    public static final int DEFAULT_MAX_SIZE = 1000;
+    private static final int EVICTION_BATCH_DIVISOR = 10;
+
+    private final long ttlMillis;
+    private final int maxSize;
+    private final LongSupplier clock;
+    private final ConcurrentMap<String, Long> expirations = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder insertions = new LongAdder();
+
+    public NegativeCache(long ttlMillis, LongSupplier clock) {
+        this(ttlMillis, DEFAULT_MAX_SIZE, clock);
+    }
+
+    public NegativeCache(long ttlMillis, int maxSize, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    public boolean contains(String key) {
+        if (ttlMillis <= 0) {
+            return false;
+        }
+        Long expiration = expirations.get(key);
+        if (expiration == null) {
+            return false;
+        }
+        if (expiration <= clock.getAsLong()) {
+            expirations.remove(key, expiration);
+            return false;
+        }
+        hits.increment();
+        return true;
+    }
+
+    /**
+     * Record the key as missing.
+     *
+     * @return <code>true</code> if the key was not already known as missing.
+     */
+    public boolean add(String key) {
+        if (ttlMillis <= 0) {
+            return true;
+        }
+        long now = clock.getAsLong();
+        if (expirations.size() >= maxSize) {
+            evict(now);
+        }
+        insertions.increment();
+        Long previous = expirations.put(key, now + ttlMillis);
+        return previous == null || previous <= now;
+    }
+
+    // Called once the cache is full: expired keys are removed and, if live keys still fill it, a batch of them is dropped
+    // as well, so that the next insertions do not scan the cache again. A dropped key is simply looked up again.
+    private void evict(long now) {
+        expirations.values().removeIf(expiration -> expiration <= now);
+        int excess = expirations.size() - (maxSize - Math.max(1, maxSize / EVICTION_BATCH_DIVISOR));
+        Iterator<Long> iterator = expirations.values().iterator();
+        while (excess-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), insertions.sum(), expirations.size());
+    }
+
+    public record Stats(long hits, long insertions, int size) {}
+}
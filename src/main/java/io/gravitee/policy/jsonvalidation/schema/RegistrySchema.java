@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.schema;
+
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngine;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import io.gravitee.resource.schema_registry.api.Reference;
+import io.gravitee.resource.schema_registry.api.Schema;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Schema resolved from a schema registry resource, compiled lazily on first use and then kept in the {@link SchemaCache}.
+ * Its references are inlined by the {@link SchemaBundler} before compilation so that validation never loads them.
+ *
+ * @author GraviteeSource Team
+ */
+@RequiredArgsConstructor
+class RegistrySchema implements CompilableSchema {
+
+    private final Schema delegate;
+    private final ValidationEngine engine;
+
+    private volatile CompiledSchema compiledSchema;
+
+    @Override
+    public String getContent() {
+        return delegate.getContent();
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public String getSubject() {
+        return delegate.getSubject();
+    }
+
+    @Override
+    public String getVersion() {
+        return delegate.getVersion();
+    }
+
+    @Override
+    public List<Reference> getReferences() {
+        return delegate.getReferences();
+    }
+
+    @Override
+    public Map<String, String> getDependencies() {
+        return delegate.getDependencies();
+    }
+
+    @Override
+    public CompiledSchema compiledSchema() throws IOException, ValidationEngineException {
+        CompiledSchema local = compiledSchema;
+        if (local == null) {
+            synchronized (this) {
+                local = compiledSchema;
+                if (local == null) {
+                    local = CompiledSchemaPool.shared().intern(
+                        SchemaBundler.bundle(delegate.getContent(), delegate.getDependencies()),
+                        engine
+                    );
+                    compiledSchema = local;
+                }
+            }
+        }
+        return local;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package io.gravitee.policy.jsonvalidation.schema;
 
+import io.gravitee.common.component.Lifecycle;
 import io.gravitee.el.TemplateEngine;
 import io.gravitee.gateway.reactive.api.context.base.BaseExecutionContext;
 import io.gravitee.gateway.reactive.api.context.http.HttpMessageExecutionContext;
@@ -22,53 +23,254 @@ import io.gravitee.gateway.reactive.api.context.kafka.KafkaMessageExecutionConte
 import io.gravitee.gateway.reactive.api.message.Message;
 import io.gravitee.gateway.reactive.api.message.kafka.KafkaMessage;
 import io.gravitee.policy.JsonValidationException;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngine;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngines;
+import io.gravitee.reporter.api.v4.metric.Metrics;
 import io.gravitee.resource.api.ResourceManager;
 import io.gravitee.resource.schema_registry.api.Schema;
 import io.gravitee.resource.schema_registry.api.SchemaRegistryResource;
 import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.core.Single;
-import lombok.RequiredArgsConstructor;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * @author GraviteeSource Team
  */
 @Slf4j
-@RequiredArgsConstructor
 public class ResourceBasedSchemaResolver implements SchemaResolver {
 
+    public static final Duration DEFAULT_NEGATIVE_CACHE_TTL = Duration.ofSeconds(5);
+
+    public static final String SCHEMA_CACHE_HITS_METRIC = "json-validation-schema-cache-hits";
+    public static final String SCHEMA_CACHE_MISSES_METRIC = "json-validation-schema-cache-misses";
+    public static final String SCHEMA_CACHE_EVICTIONS_METRIC = "json-validation-schema-cache-evictions";
+    public static final String MISSING_SUBJECT_HITS_METRIC = "json-validation-missing-subject-hits";
+    public static final String MISSING_RESOURCE_HITS_METRIC = "json-validation-missing-resource-hits";
+
     private final String resourceName;
-    private final String schemaMapping;
+    private final SchemaMappingExpression schemaMapping;
+    private final long refreshIntervalMillis;
+    private final LongSupplier clock;
+    private final NegativeCache missingSubjects;
+    private final NegativeCache missingResources;
+
+    private volatile SchemaRegistryResource<?> schemaRegistryResource;
+
+    private final SchemaCache schemaCache;
+
+    // Registry lookups currently in progress, by evaluated subject. Concurrent resolutions of the same subject share a
+    // single lookup instead of each hitting the registry.
+    private final ConcurrentMap<String, Single<Schema>> inFlightLookups = new ConcurrentHashMap<>();
+
+    // Last schema resolved per subject, served directly when a refresh interval is configured.
+    private final ConcurrentMap<String, ResolvedSchema> resolvedSchemas = new ConcurrentHashMap<>();
+    private final Set<String> refreshingSubjects = ConcurrentHashMap.newKeySet();
+
+    public ResourceBasedSchemaResolver(String resourceName, String schemaMapping) {
+        this(resourceName, schemaMapping, Duration.ZERO, DEFAULT_NEGATIVE_CACHE_TTL);
+    }
+
+    public ResourceBasedSchemaResolver(String resourceName, String schemaMapping, Duration refreshInterval, Duration negativeCacheTtl) {
+        this(resourceName, schemaMapping, refreshInterval, negativeCacheTtl, ValidationEngines.DEFAULT);
+    }
+
+    public ResourceBasedSchemaResolver(
+        String resourceName,
+        String schemaMapping,
+        Duration refreshInterval,
+        Duration negativeCacheTtl,
+        ValidationEngine engine
+    ) {
+        this(resourceName, schemaMapping, refreshInterval, negativeCacheTtl, engine, System::currentTimeMillis);
+    }
+
+    ResourceBasedSchemaResolver(
+        String resourceName,
+        String schemaMapping,
+        Duration refreshInterval,
+        Duration negativeCacheTtl,
+        LongSupplier clock
+    ) {
+        this(resourceName, schemaMapping, refreshInterval, negativeCacheTtl, ValidationEngines.DEFAULT, clock);
+    }
+
+    ResourceBasedSchemaResolver(
+        String resourceName,
+        String schemaMapping,
+        Duration refreshInterval,
+        Duration negativeCacheTtl,
+        ValidationEngine engine,
+        LongSupplier clock
+    ) {
+        this.resourceName = resourceName;
+        this.schemaMapping = SchemaMappingExpression.parse(schemaMapping);
+        this.refreshIntervalMillis = refreshInterval.toMillis();
+        this.clock = clock;
+        this.missingSubjects = new NegativeCache(negativeCacheTtl.toMillis(), clock);
+        this.missingResources = new NegativeCache(negativeCacheTtl.toMillis(), clock);
+        this.schemaCache = new SchemaCache(SchemaCache.DEFAULT_MAX_SIZE, engine);
+    }
 
     @Override
     public Single<Schema> resolveSchema(BaseExecutionContext ctx) {
-        return resolveSchemaByName(ctx.getComponent(ResourceManager.class), ctx.getTemplateEngine());
+        return resolveSchemaByName(ctx, resolveSchemaName(ctx, null, ctx::getTemplateEngine));
     }
 
     @Override
     public Single<Schema> resolveSchema(HttpMessageExecutionContext ctx, Message message) {
-        return resolveSchemaByName(ctx.getComponent(ResourceManager.class), ctx.getTemplateEngine(message));
+        return resolveSchemaByName(ctx, resolveSchemaName(ctx, message, () -> ctx.getTemplateEngine(message)));
     }
 
     @Override
     public Single<Schema> resolveSchema(KafkaMessageExecutionContext ctx, KafkaMessage message) {
-        return resolveSchemaByName(ctx.getComponent(ResourceManager.class), ctx.getTemplateEngine(message));
+        return resolveSchemaByName(ctx, resolveSchemaName(ctx, message, () -> ctx.getTemplateEngine(message)));
     }
 
-    private Single<Schema> resolveSchemaByName(ResourceManager resourceManager, TemplateEngine templateEngine) {
-        SchemaRegistryResource<?> schemaRegistryResource = resourceManager.getResource(resourceName, SchemaRegistryResource.class);
+    private Single<Schema> resolveSchemaByName(BaseExecutionContext ctx, Maybe<String> schemaName) {
+        if (missingResources.contains(resourceName)) {
+            return Single.error(new JsonValidationException("Unable to resolve schema registry resource"));
+        }
+        SchemaRegistryResource<?> schemaRegistryResource = schemaRegistryResource(ctx);
         if (schemaRegistryResource == null) {
-            log.error("Unable to resolve schema registry resource: " + resourceName);
+            if (missingResources.add(resourceName)) {
+                log.error("Unable to resolve schema registry resource: " + resourceName);
+            }
             return Single.error(new JsonValidationException("Unable to resolve schema registry resource"));
         }
 
-        return resolveSchemaName(templateEngine)
-            .flatMap(schemaRegistryResource::getSchema)
-            .switchIfEmpty(Single.error(new JsonValidationException("Unable to resolve schema")))
-            .doOnError(e -> log.error("Unable to resolve schema", e));
+        return schemaName
+            .flatMapSingle(subject -> resolveSubject(schemaRegistryResource, subject))
+            .switchIfEmpty(
+                Single.defer(() -> {
+                    log.debug("Schema mapping evaluated to an empty subject");
+                    return Single.error(new JsonValidationException("Unable to resolve schema"));
+                })
+            );
     }
 
-    private Maybe<String> resolveSchemaName(TemplateEngine templateEngine) {
-        return templateEngine.eval(schemaMapping, String.class).doOnError(e -> log.error("Unable to resolve schema name", e));
+    // The resource is looked up once and kept for the lifetime of the policy instance; it is looked up again while
+    // missing or whenever the cached instance is not started (e.g. stopping or stopped for a redeployment).
+    private SchemaRegistryResource<?> schemaRegistryResource(BaseExecutionContext ctx) {
+        SchemaRegistryResource<?> resource = schemaRegistryResource;
+        if (resource == null || resource.lifecycleState() != Lifecycle.State.STARTED) {
+            resource = ctx.getComponent(ResourceManager.class).getResource(resourceName, SchemaRegistryResource.class);
+            schemaRegistryResource = resource;
+        }
+        return resource;
     }
+
+    private Single<Schema> resolveSubject(SchemaRegistryResource<?> schemaRegistryResource, String subject) {
+        // A schema already resolved is served first: a miss of its background refresh must not reject the subject.
+        ResolvedSchema resolved = refreshIntervalMillis > 0 ? resolvedSchemas.get(subject) : null;
+        if (resolved != null) {
+            if (clock.getAsLong() - resolved.resolvedAt() >= refreshIntervalMillis) {
+                refreshInBackground(schemaRegistryResource, subject, resolved);
+            }
+            return Single.just(resolved.schema());
+        }
+
+        if (missingSubjects.contains(subject)) {
+            log.debug("Schema subject {} is known to be missing", subject);
+            return Single.error(new JsonValidationException("Unable to resolve schema"));
+        }
+        if (refreshIntervalMillis <= 0) {
+            return lookupSchema(schemaRegistryResource, subject);
+        }
+        return lookupSchema(schemaRegistryResource, subject).doOnSuccess(schema ->
+            resolvedSchemas.putIfAbsent(subject, new ResolvedSchema(schema, clock.getAsLong()))
+        );
+    }
+
+    // Serve-stale refresh: the current schema keeps being returned until the new one is fetched and compiled, then the
+    // entry is swapped in one step. An unchanged content keeps the already compiled schema.
+    private void refreshInBackground(SchemaRegistryResource<?> schemaRegistryResource, String subject, ResolvedSchema current) {
+        if (!refreshingSubjects.add(subject)) {
+            return;
+        }
+
+        lookupSchema(schemaRegistryResource, subject)
+            .doOnSuccess(ResourceBasedSchemaResolver::precompile)
+            .doFinally(() -> refreshingSubjects.remove(subject))
+            .subscribe(
+                schema -> {
+                    Schema refreshed = Objects.equals(schema.getContent(), current.schema().getContent()) ? current.schema() : schema;
+                    resolvedSchemas.put(subject, new ResolvedSchema(refreshed, clock.getAsLong()));
+                },
+                error -> {
+                    log.warn("Unable to refresh schema for subject {}, keeping the previously resolved one", subject, error);
+                    resolvedSchemas.put(subject, new ResolvedSchema(current.schema(), clock.getAsLong()));
+                }
+            );
+    }
+
+    private static void precompile(Schema schema) throws IOException, ValidationEngineException {
+        if (schema instanceof CompilableSchema compilableSchema) {
+            compilableSchema.compiledSchema();
+        }
+    }
+
+    private Single<Schema> lookupSchema(SchemaRegistryResource<?> schemaRegistryResource, String subject) {
+        return inFlightLookups.computeIfAbsent(subject, key ->
+            schemaRegistryResource
+                .getSchema(key)
+                .<Schema>map(schema -> schemaCache.get(resourceName, schema))
+                .switchIfEmpty(
+                    Single.defer(() -> {
+                        if (missingSubjects.add(key)) {
+                            log.warn("Schema subject {} not found in schema registry resource {}", key, resourceName);
+                        }
+                        return Single.error(new JsonValidationException("Unable to resolve schema"));
+                    })
+                )
+                .doOnError(e -> {
+                    if (!(e instanceof JsonValidationException)) {
+                        log.error("Unable to resolve schema", e);
+                    }
+                })
+                // Removal happens once every waiter has been notified, so the next resolution triggers a fresh lookup.
+                .doFinally(() -> inFlightLookups.remove(key))
+                .cache()
+        );
+    }
+
+    /**
+     * Reports the counters of the caches of this resolver, since it was created, as custom metrics of an exchange.
+     */
+    public void reportStats(Metrics metrics) {
+        SchemaCache.Stats schemas = schemaCache.stats();
+        metrics.addCustomMetric(SCHEMA_CACHE_HITS_METRIC, Long.toString(schemas.hits()));
+        metrics.addCustomMetric(SCHEMA_CACHE_MISSES_METRIC, Long.toString(schemas.misses()));
+        metrics.addCustomMetric(SCHEMA_CACHE_EVICTIONS_METRIC, Long.toString(schemas.evictions()));
+        metrics.addCustomMetric(MISSING_SUBJECT_HITS_METRIC, Long.toString(missingSubjects.stats().hits()));
+        metrics.addCustomMetric(MISSING_RESOURCE_HITS_METRIC, Long.toString(missingResources.stats().hits()));
+    }
+
+    public SchemaCache.Stats schemaCacheStats() {
+        return schemaCache.stats();
+    }
+
+    public NegativeCache.Stats missingSubjectStats() {
+        return missingSubjects.stats();
+    }
+
+    public NegativeCache.Stats missingResourceStats() {
+        return missingResources.stats();
+    }
+
+    private Maybe<String> resolveSchemaName(BaseExecutionContext ctx, Message message, Supplier<TemplateEngine> templateEngine) {
+        return Maybe.defer(() -> schemaMapping.eval(ctx, message, templateEngine)).doOnError(e ->
+            log.error("Unable to resolve schema name", e)
+        );
+    }
+
+    private record ResolvedSchema(Schema schema, long resolvedAt) {}
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.github.fge.jackson.JsonLoader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a self-contained schema from a registry schema and the content of its references, so that the validator never
+ * has to load a referenced schema while validating a request.
+ * <p>
+ * Each dependency is copied under <code>definitions</code> of the root schema, and every <code>$ref</code> targeting
+ * a dependency (by its reference name, optionally followed by a JSON pointer fragment) is rewritten to point to the
+ * inlined copy. References that do not match any dependency are left untouched.
+ *
+ * @author GraviteeSource Team
+ */
+final class SchemaBundler {
+
+    private static final String REF = "$ref";
+    private static final String DEFINITIONS = "definitions";
+    private static final String DEFINITIONS_POINTER = "#/" + DEFINITIONS + "/";
+    // Characters other than letters and digits allowed as is in a URI fragment (RFC 3986), apart from '/' and '?'.
+    private static final String FRAGMENT_CHARACTERS = "-._~!$&'()*+,;=:@";
+    private static final String HEX_DIGITS = "0123456789ABCDEF";
+
+    private SchemaBundler() {}
+
+    static JsonNode bundle(String content, Map<String, String> dependencies) throws IOException {
+        JsonNode root = parse(content);
+        if (dependencies == null || dependencies.isEmpty() || !root.isObject()) {
+            return root;
+        }
+
+        ObjectNode bundled = ((ObjectNode) root).deepCopy();
+        ObjectNode definitions = bundled.has(DEFINITIONS) && bundled.get(DEFINITIONS).isObject()
+            ? (ObjectNode) bundled.get(DEFINITIONS)
+            : bundled.putObject(DEFINITIONS);
+
+        Map<String, String> definitionKeys = new LinkedHashMap<>();
+        for (String name : dependencies.keySet()) {
+            definitionKeys.put(name, uniqueKey(definitions, definitionKeys, name));
+        }
+
+        Map<String, JsonNode> inlined = new LinkedHashMap<>();
+        for (Map.Entry<String, String> dependency : dependencies.entrySet()) {
+            JsonNode dependencySchema = parse(dependency.getValue()).deepCopy();
+            if (dependencySchema.isObject()) {
+                // The inlined copy lives in the scope of the root schema: its own identifiers would move the resolution scope.
+                ((ObjectNode) dependencySchema).remove(List.of("id", "$id", "$schema"));
+            }
+            String key = definitionKeys.get(dependency.getKey());
+            rewriteRefs(dependencySchema, definitionKeys, DEFINITIONS_POINTER + escape(key));
+            inlined.put(key, dependencySchema);
+        }
+
+        rewriteRefs(bundled, definitionKeys, null);
+        inlined.forEach(definitions::set);
+        return bundled;
+    }
+
+    /**
+     * Rewrites the <code>$ref</code> members of the given tree.
+     *
+     * @param localBase the pointer of the inlined copy when the tree is a dependency (local references are then re-based
+     *                  on it), <code>null</code> for the root schema.
+     */
+    private static void rewriteRefs(JsonNode node, Map<String, String> definitionKeys, String localBase) {
+        if (node.isObject()) {
+            ObjectNode object = (ObjectNode) node;
+            JsonNode ref = object.get(REF);
+            if (ref != null && ref.isTextual()) {
+                String rewritten = rewriteRef(ref.textValue(), definitionKeys, localBase);
+                if (rewritten != null) {
+                    object.set(REF, TextNode.valueOf(rewritten));
+                }
+            }
+            Iterator<JsonNode> children = object.elements();
+            while (children.hasNext()) {
+                rewriteRefs(children.next(), definitionKeys, localBase);
+            }
+        } else if (node.isArray()) {
+            for (JsonNode child : (ArrayNode) node) {
+                rewriteRefs(child, definitionKeys, localBase);
+            }
+        }
+    }
+
+    private static String rewriteRef(String ref, Map<String, String> definitionKeys, String localBase) {
+        int hash = ref.indexOf('#');
+        String base = hash < 0 ? ref : ref.substring(0, hash);
+        String fragment = hash < 0 ? "" : ref.substring(hash + 1);
+        if (!fragment.isEmpty() && !fragment.startsWith("/")) {
+            // Plain-name fragments resolve against an identifier, which cannot be re-based.
+            return null;
+        }
+
+        if (base.isEmpty()) {
+            return localBase == null ? null : localBase + fragment;
+        }
+        String key = definitionKeys.get(base);
+        return key == null ? null : DEFINITIONS_POINTER + escape(key) + fragment;
+    }
+
+    private static String uniqueKey(ObjectNode definitions, Map<String, String> taken, String name) {
+        String key = name;
+        int suffix = 1;
+        while (definitions.has(key) || taken.containsValue(key)) {
+            key = name + "_" + suffix++;
+        }
+        return key;
+    }
+
+    // The key is escaped as a JSON Pointer token, then percent-encoded as it ends up in the URI fragment of a $ref.
+    private static String escape(String key) {
+        String token = key.replace("~", "~0").replace("/", "~1");
+        StringBuilder encoded = new StringBuilder(token.length());
+        for (byte b : token.getBytes(StandardCharsets.UTF_8)) {
+            int c = b & 0xFF;
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || FRAGMENT_CHARACTERS.indexOf(c) >= 0) {
+                encoded.append((char) c);
+            } else {
+                encoded.append('%').append(HEX_DIGITS.charAt(c >> 4)).append(HEX_DIGITS.charAt(c & 0xF));
+            }
+        }
+        return encoded.toString();
+    }
+
+    private static JsonNode parse(String content) throws IOException {
+        JsonNode tree = content == null ? null : JsonLoader.fromString(content);
+        if (tree == null || tree.isMissingNode()) {
+            throw new IOException("Schema is empty or could not be parsed");
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.schema;
+
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngine;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngines;
+import io.gravitee.resource.schema_registry.api.Schema;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, least-recently-used cache of registry schemas keyed by (resource name, subject, id, version). Entries
+ * hold their compiled form so that a schema version is parsed and compiled only once while it stays in the cache.
+ *
+ * @author GraviteeSource Team
+ */
+public class SchemaCache {
+
+    public static final int DEFAULT_MAX_SIZE = 100;
+
+    private final int maxSize;
+    private final ValidationEngine engine;
+    private final Map<Key, RegistrySchema> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SchemaCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public SchemaCache(int maxSize) {
+        this(maxSize, ValidationEngines.DEFAULT);
+    }
+
+    public SchemaCache(int maxSize, ValidationEngine engine) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Schema cache size must be strictly positive");
+        }
+        this.maxSize = maxSize;
+        this.engine = engine;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, RegistrySchema> eldest) {
+                if (size() > SchemaCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Return the cached entry for the given registry schema, registering it if this (resource, subject, id, version)
+     * has not been seen yet.
+     */
+    public CompilableSchema get(String resourceName, Schema schema) {
+        Key key = new Key(resourceName, schema.getSubject(), schema.getId(), schema.getVersion());
+        synchronized (entries) {
+            RegistrySchema cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            misses.increment();
+            RegistrySchema registrySchema = new RegistrySchema(schema, engine);
+            entries.put(key, registrySchema);
+            return registrySchema;
+        }
+    }
+
+    public Stats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    record Key(String resourceName, String subject, String id, String version) {}
+
+    public record Stats(long hits, long misses, long evictions, int size) {}
+}
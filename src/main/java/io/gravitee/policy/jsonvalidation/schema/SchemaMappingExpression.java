@@ -0,0 +1,149 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.schema;
+
+import io.gravitee.el.TemplateEngine;
+import io.gravitee.gateway.api.http.HttpHeaders;
+import io.gravitee.gateway.reactive.api.context.base.BaseExecutionContext;
+import io.gravitee.gateway.reactive.api.context.http.HttpBaseExecutionContext;
+import io.gravitee.gateway.reactive.api.message.Message;
+import io.gravitee.gateway.reactive.api.message.kafka.KafkaMessage;
+import io.reactivex.rxjava3.core.Maybe;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Schema mapping analysed once when the policy is created. Literals and the common single-accessor shapes
+ * ({@code {#request.headers['name']}}, {@code {#message.headers['name']}}, {@code {#message.attributes['name']}} and
+ * {@code {#message.topic}}) are read directly from the context or message; anything else, or any value those shapes
+ * cannot map unambiguously (multi-valued header, non-string attribute), is evaluated by the template engine.
+ *
+ * @author GraviteeSource Team
+ */
+public final class SchemaMappingExpression {
+
+    private static final Pattern ACCESSOR_PATTERN = Pattern.compile(
+        "^\\{#(request|message)\\.(headers|attributes)\\[\\s*(['\"])([^'\"]+)\\3\\s*]}$"
+    );
+    private static final String MESSAGE_TOPIC = "{#message.topic}";
+
+    private final String expression;
+    private final Kind kind;
+    private final String argument;
+
+    private SchemaMappingExpression(String expression, Kind kind, String argument) {
+        this.expression = expression;
+        this.kind = kind;
+        this.argument = argument;
+    }
+
+    public static SchemaMappingExpression parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            return new SchemaMappingExpression(expression, Kind.EXPRESSION, null);
+        }
+        if (expression.indexOf('{') < 0 && expression.indexOf('}') < 0) {
+            return new SchemaMappingExpression(expression, Kind.LITERAL, expression);
+        }
+        if (MESSAGE_TOPIC.equals(expression)) {
+            return new SchemaMappingExpression(expression, Kind.MESSAGE_TOPIC, null);
+        }
+
+        Matcher matcher = ACCESSOR_PATTERN.matcher(expression);
+        if (matcher.matches()) {
+            boolean request = "request".equals(matcher.group(1));
+            boolean headers = "headers".equals(matcher.group(2));
+            if (request && headers) {
+                return new SchemaMappingExpression(expression, Kind.REQUEST_HEADER, matcher.group(4));
+            } else if (!request) {
+                return new SchemaMappingExpression(expression, headers ? Kind.MESSAGE_HEADER : Kind.MESSAGE_ATTRIBUTE, matcher.group(4));
+            }
+        }
+        return new SchemaMappingExpression(expression, Kind.EXPRESSION, null);
+    }
+
+    /**
+     * Evaluate the mapping, reading the value directly when its shape allows it and falling back to the template
+     * engine otherwise.
+     *
+     * @param ctx the current execution context
+     * @param message the message being validated, or <code>null</code> when validating a request or response body
+     * @param templateEngine supplier of the template engine, only invoked when the full EL evaluation is needed
+     */
+    public Maybe<String> eval(BaseExecutionContext ctx, Message message, Supplier<TemplateEngine> templateEngine) {
+        String value = null;
+        boolean resolved = false;
+
+        switch (kind) {
+            case LITERAL -> {
+                value = argument;
+                resolved = true;
+            }
+            case REQUEST_HEADER -> {
+                if (ctx instanceof HttpBaseExecutionContext httpCtx && httpCtx.request() != null) {
+                    HttpHeaders headers = httpCtx.request().headers();
+                    resolved = headers != null && singleValue(headers.getAll(argument));
+                    value = resolved ? headers.get(argument) : null;
+                }
+            }
+            case MESSAGE_HEADER -> {
+                if (message != null && message.headers() != null) {
+                    HttpHeaders headers = message.headers();
+                    resolved = singleValue(headers.getAll(argument));
+                    value = resolved ? headers.get(argument) : null;
+                }
+            }
+            case MESSAGE_ATTRIBUTE -> {
+                if (message != null && message.attributes() != null) {
+                    Object attribute = message.attributes().get(argument);
+                    resolved = attribute == null || attribute instanceof String;
+                    value = (String) attribute;
+                }
+            }
+            case MESSAGE_TOPIC -> {
+                if (message instanceof KafkaMessage kafkaMessage) {
+                    value = kafkaMessage.topic();
+                    resolved = true;
+                }
+            }
+            case EXPRESSION -> {}
+        }
+
+        if (resolved) {
+            return value == null ? Maybe.empty() : Maybe.just(value);
+        }
+        return templateEngine.get().eval(expression, String.class);
+    }
+
+    boolean isPrecompiled() {
+        return kind != Kind.EXPRESSION;
+    }
+
+    // A missing header is a valid (empty) result; several values are left to the EL engine to join.
+    private static boolean singleValue(List<String> values) {
+        return values == null || values.size() <= 1;
+    }
+
+    private enum Kind {
+        LITERAL,
+        REQUEST_HEADER,
+        MESSAGE_HEADER,
+        MESSAGE_ATTRIBUTE,
+        MESSAGE_TOPIC,
+        EXPRESSION,
+    }
+}
@@ -18,6 +18,9 @@ package io.gravitee.policy.jsonvalidation.schema;
 import io.gravitee.policy.jsonvalidation.configuration.JsonValidationPolicyConfiguration;
 import io.gravitee.policy.jsonvalidation.configuration.schema.SchemaSource;
 import io.gravitee.policy.jsonvalidation.configuration.schema.SchemaSourceType;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngine;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngines;
+import java.time.Duration;
 
 /**
  * @author GraviteeSource Team
@@ -25,25 +28,39 @@ import io.gravitee.policy.jsonvalidation.configuration.schema.SchemaSourceType;
 public class SchemaResolverFactory {
 
     public static SchemaResolver createSchemaResolver(JsonValidationPolicyConfiguration configuration) {
+        return createSchemaResolver(configuration, ValidationEngines.DEFAULT);
+    }
+
+    public static SchemaResolver createSchemaResolver(JsonValidationPolicyConfiguration configuration, ValidationEngine engine) {
         SchemaSource schemaSource = configuration.getSchemaSource();
 
         if (schemaSource == null) {
-            return legacySchemaResolver(configuration);
+            return legacySchemaResolver(configuration, engine);
         }
 
         SchemaSourceType schemaSourceType = schemaSource.getSourceType();
 
         return switch (schemaSourceType) {
-            case STATIC_SCHEMA -> new StaticSchemaResolver(schemaSource.getStaticSchema());
+            case STATIC_SCHEMA -> new StaticSchemaResolver(schemaSource.getStaticSchema(), engine);
             case SCHEMA_REGISTRY_RESOURCE -> new ResourceBasedSchemaResolver(
                 schemaSource.getResourceName(),
-                schemaSource.getSchemaMapping()
+                schemaSource.getSchemaMapping(),
+                seconds(schemaSource.getRefreshInterval(), Duration.ZERO),
+                seconds(schemaSource.getNegativeCacheTtl(), ResourceBasedSchemaResolver.DEFAULT_NEGATIVE_CACHE_TTL),
+                engine
             );
         };
     }
 
+    private static Duration seconds(Integer value, Duration defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        return value <= 0 ? Duration.ZERO : Duration.ofSeconds(value);
+    }
+
     @SuppressWarnings("deprecation")
-    private static StaticSchemaResolver legacySchemaResolver(JsonValidationPolicyConfiguration configuration) {
-        return new StaticSchemaResolver(configuration.getSchema());
+    private static StaticSchemaResolver legacySchemaResolver(JsonValidationPolicyConfiguration configuration, ValidationEngine engine) {
+        return new StaticSchemaResolver(configuration.getSchema(), engine);
     }
 }
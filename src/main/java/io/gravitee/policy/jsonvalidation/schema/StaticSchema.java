@@ -16,28 +16,38 @@
 package io.gravitee.policy.jsonvalidation.schema;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.github.fge.jackson.JsonLoader;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngine;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngines;
 import io.gravitee.resource.schema_registry.api.Reference;
 import io.gravitee.resource.schema_registry.api.Schema;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
-import lombok.RequiredArgsConstructor;
 
 /**
  * @author GraviteeSource Team
  */
-@RequiredArgsConstructor
-public class StaticSchema implements Schema {
+public class StaticSchema implements CompilableSchema {
 
     private static final String STATIC_SCHEMA_ID = "static";
     private static final String STATIC_SCHEMA_SUBJECT = "static";
     private static final String STATIC_SCHEMA_VERSION = "1";
 
     private final String content;
+    private final ValidationEngine engine;
 
-    // Parsed once and reused across requests (the static schema is immutable per policy instance).
-    private volatile JsonNode parsedSchema;
+    // Compiled once and shared through the gateway-wide pool (the static schema is immutable per policy instance).
+    private volatile CompiledSchema compiledSchema;
+
+    public StaticSchema(String content) {
+        this(content, ValidationEngines.DEFAULT);
+    }
+
+    public StaticSchema(String content, ValidationEngine engine) {
+        this.content = content;
+        this.engine = engine;
+    }
 
     @Override
     public String getContent() {
@@ -70,16 +80,22 @@ public class StaticSchema implements Schema {
     }
 
     public JsonNode parsedSchema() throws IOException {
-        JsonNode local = parsedSchema;
+        try {
+            return compiledSchema().tree();
+        } catch (ValidationEngineException e) {
+            throw new IOException("Configured JSON schema could not be compiled", e);
+        }
+    }
+
+    @Override
+    public CompiledSchema compiledSchema() throws IOException, ValidationEngineException {
+        CompiledSchema local = compiledSchema;
         if (local == null) {
             synchronized (this) {
-                local = parsedSchema;
+                local = compiledSchema;
                 if (local == null) {
-                    local = JsonLoader.fromString(content);
-                    if (local == null || local.isMissingNode()) {
-                        throw new IOException("Configured JSON schema is empty or could not be parsed");
-                    }
-                    parsedSchema = local;
+                    local = CompiledSchemaPool.shared().intern(content, engine);
+                    compiledSchema = local;
                 }
             }
         }
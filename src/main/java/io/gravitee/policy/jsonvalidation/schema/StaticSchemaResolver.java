@@ -15,15 +15,18 @@
  */
 package io.gravitee.policy.jsonvalidation.schema;
 
-import com.github.fge.jackson.JsonLoader;
 import io.gravitee.gateway.reactive.api.context.base.BaseExecutionContext;
 import io.gravitee.gateway.reactive.api.context.http.HttpMessageExecutionContext;
 import io.gravitee.gateway.reactive.api.context.kafka.KafkaMessageExecutionContext;
 import io.gravitee.gateway.reactive.api.message.Message;
 import io.gravitee.gateway.reactive.api.message.kafka.KafkaMessage;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngine;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngines;
 import io.gravitee.resource.schema_registry.api.Schema;
 import io.reactivex.rxjava3.core.Single;
 import java.io.IOException;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -35,7 +38,11 @@ public class StaticSchemaResolver implements ValidatableSchemaResolver {
     private final StaticSchema staticSchema;
 
     StaticSchemaResolver(String schema) {
-        this.staticSchema = new StaticSchema(schema);
+        this(schema, ValidationEngines.DEFAULT);
+    }
+
+    StaticSchemaResolver(String schema, ValidationEngine engine) {
+        this.staticSchema = new StaticSchema(schema, engine);
     }
 
     @Override
@@ -53,8 +60,22 @@ public class StaticSchemaResolver implements ValidatableSchemaResolver {
         return Single.just(staticSchema);
     }
 
+    /**
+     * Compiles the static schema when the policy is created: the schema is parsed, checked against its meta-schema and
+     * its root validator chain is built, so that the first request runs at steady-state speed and an invalid schema
+     * fails the deployment.
+     */
     @Override
     public void validate() throws IOException {
-        JsonLoader.fromString(staticSchema.getContent());
+        try {
+            CompiledSchema compiledSchema = staticSchema.compiledSchema();
+            List<String> syntaxErrors = compiledSchema.checkSyntax();
+            if (!syntaxErrors.isEmpty()) {
+                throw new IOException("Invalid JSON schema: " + String.join("; ", syntaxErrors));
+            }
+            compiledSchema.warmUp();
+        } catch (ValidationEngineException e) {
+            throw new IOException("Configured JSON schema could not be compiled", e);
+        }
     }
 }
@@ -16,10 +16,6 @@
 package io.gravitee.policy.v3.jsonvalidation;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.github.fge.jackson.JsonLoader;
-import com.github.fge.jsonschema.core.exceptions.ProcessingException;
-import com.github.fge.jsonschema.core.report.ProcessingMessage;
-import com.github.fge.jsonschema.core.report.ProcessingReport;
 import com.github.fge.jsonschema.main.JsonSchemaFactory;
 import com.github.fge.jsonschema.main.JsonValidator;
 import io.gravitee.common.http.HttpStatusCode;
@@ -27,6 +23,9 @@ import io.gravitee.common.http.MediaType;
 import io.gravitee.gateway.api.ExecutionContext;
 import io.gravitee.gateway.api.Request;
 import io.gravitee.gateway.api.Response;
+import io.gravitee.gateway.api.buffer.Buffer;
+import io.gravitee.gateway.api.http.HttpHeaderNames;
+import io.gravitee.gateway.api.http.HttpHeaders;
 import io.gravitee.gateway.api.stream.ReadWriteStream;
 import io.gravitee.policy.api.PolicyChain;
 import io.gravitee.policy.api.PolicyResult;
@@ -36,9 +35,23 @@ import io.gravitee.policy.jsonvalidation.configuration.JsonValidationPolicyConfi
 import io.gravitee.policy.jsonvalidation.configuration.PolicyScope;
 import io.gravitee.policy.jsonvalidation.configuration.schema.SchemaSource;
 import io.gravitee.policy.jsonvalidation.configuration.schema.SchemaSourceType;
+import io.gravitee.policy.jsonvalidation.engine.ParsingLimits;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngine;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngines;
+import io.gravitee.policy.jsonvalidation.engine.ValidationOptions;
+import io.gravitee.policy.jsonvalidation.engine.ValidationReport;
+import io.gravitee.policy.jsonvalidation.engine.Violation;
+import io.gravitee.policy.jsonvalidation.payload.MediaTypeFilter;
+import io.gravitee.policy.jsonvalidation.payload.Payloads;
+import io.gravitee.policy.jsonvalidation.schema.CompiledSchema;
+import io.gravitee.policy.jsonvalidation.schema.CompiledSchemaPool;
+import io.vertx.core.Context;
 import java.io.IOException;
 import java.util.LinkedHashSet;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,16 +64,20 @@ public class JsonValidationPolicyV3 {
     static final String JSON_INVALID_FORMAT_KEY = "JSON_INVALID_FORMAT";
     static final String JSON_INVALID_RESPONSE_PAYLOAD_KEY = "JSON_INVALID_RESPONSE_PAYLOAD";
     static final String JSON_INVALID_RESPONSE_FORMAT_KEY = "JSON_INVALID_RESPONSE_FORMAT";
+    static final String JSON_PAYLOAD_LIMIT_EXCEEDED_KEY = "JSON_PAYLOAD_LIMIT_EXCEEDED";
+    static final String JSON_RESPONSE_PAYLOAD_LIMIT_EXCEEDED_KEY = "JSON_RESPONSE_PAYLOAD_LIMIT_EXCEEDED";
     protected static final String BAD_REQUEST = "Bad Request";
     protected static final String INTERNAL_ERROR = "Internal Error";
     private static final ErrorParams ERROR_PARAMS_ON_RESPONSE_CONTENT = new ErrorParams(
         JSON_INVALID_RESPONSE_PAYLOAD_KEY,
         JSON_INVALID_RESPONSE_FORMAT_KEY,
+        JSON_RESPONSE_PAYLOAD_LIMIT_EXCEEDED_KEY,
         HttpStatusCode.INTERNAL_SERVER_ERROR_500
     );
     private static final ErrorParams ERROR_PARAMS_ON_REQUEST_CONTENT = new ErrorParams(
         JSON_INVALID_PAYLOAD_KEY,
         JSON_INVALID_FORMAT_KEY,
+        JSON_PAYLOAD_LIMIT_EXCEEDED_KEY,
         HttpStatusCode.BAD_REQUEST_400
     );
 
@@ -69,10 +86,29 @@ public class JsonValidationPolicyV3 {
      */
     protected final JsonValidationPolicyConfiguration configuration;
 
+    /**
+     * @deprecated payloads are validated by the configured {@link ValidationEngine}, this validator is not used anymore
+     * and will be removed in the next release.
+     */
+    @Deprecated
     protected static final JsonValidator validator = JsonSchemaFactory.byDefault().getValidator();
 
-    // The legacy schema is fixed per policy instance; parse it once and reuse it across requests.
-    private volatile JsonNode legacyParsedSchema;
+    /**
+     * The limits within which payloads are parsed, built once from the configuration.
+     */
+    protected final ParsingLimits parsingLimits;
+
+    /**
+     * The content types of the bodies to validate, the others are let through without being read.
+     */
+    protected final MediaTypeFilter mediaTypeFilter;
+
+    private final double responseSamplingRate;
+
+    // The legacy schema is fixed per policy instance; it is taken from the shared pool once and reused across requests.
+    private volatile CompiledSchema legacyCompiledSchema;
+
+    private volatile ValidationEngine validationEngine;
 
     /**
      * Create a new JsonMetadata Policy instance based on its associated configuration
@@ -81,6 +117,9 @@ public class JsonValidationPolicyV3 {
      */
     public JsonValidationPolicyV3(JsonValidationPolicyConfiguration configuration) {
         this.configuration = configuration;
+        this.parsingLimits = ParsingLimits.of(configuration.getPayloadLimits());
+        this.mediaTypeFilter = MediaTypeFilter.of(configuration.getMediaTypes());
+        this.responseSamplingRate = configuration.getResponseSamplingRate() != null ? configuration.getResponseSamplingRate() : 1;
     }
 
     @OnRequestContent
@@ -93,7 +132,10 @@ public class JsonValidationPolicyV3 {
         if (configuration.getScope() != null && configuration.getScope() != PolicyScope.REQUEST_CONTENT) {
             return null;
         }
-        return exec(ERROR_PARAMS_ON_REQUEST_CONTENT, false, request, response, executionContext, policyChain);
+        if (!mediaTypeFilter.accepts(request.headers())) {
+            return null;
+        }
+        return exec(ERROR_PARAMS_ON_REQUEST_CONTENT, false, request.headers(), request, response, executionContext, policyChain);
     }
 
     @OnResponseContent
@@ -106,9 +148,13 @@ public class JsonValidationPolicyV3 {
         if (configuration.getScope() != PolicyScope.RESPONSE_CONTENT) {
             return null;
         }
+        if (!mediaTypeFilter.accepts(response.headers()) || !isResponseSampled()) {
+            return null;
+        }
         return exec(
             ERROR_PARAMS_ON_RESPONSE_CONTENT,
             configuration.isStraightRespondMode(),
+            response.headers(),
             request,
             response,
             executionContext,
@@ -119,22 +165,25 @@ public class JsonValidationPolicyV3 {
     private ReadWriteStream exec(
         ErrorParams errorParams,
         boolean straightMode,
+        HttpHeaders headers,
         Request request,
         Response response,
         ExecutionContext executionContext,
         PolicyChain policyChain
     ) {
-        return new PassThroughBuffer((buffer, writeBufferAndEnd) -> {
+        BiConsumer<Buffer, Runnable> validation = (buffer, writeBufferAndEnd) -> {
             try {
-                JsonNode schema = resolveLegacySchema(request, response, executionContext);
-                JsonNode content = JsonLoader.fromString(buffer.toString());
-                ProcessingReport report = getReport(schema, content);
+                CompiledSchema compiledSchema = resolveLegacySchema(request, response, executionContext);
+                parsingLimits.checkLength(buffer.length());
+                // Parsed within the payload limits, straight from the buffer.
+                JsonNode content = parsingLimits.readDocument(Payloads.open(buffer));
+                ValidationReport report = getReport(compiledSchema, content);
 
                 if (!report.isSuccess()) {
                     request.metrics().setMessage(report.toString());
                     if (!straightMode) {
                         String detail = configuration.isReturnDetailedErrorReport()
-                            ? buildDetailedMessage(schema, content).orElse(null)
+                            ? buildDetailedMessage(compiledSchema, content).orElse(null)
                             : null;
                         sendErrorResponse(errorParams.payloadKeyError(), executionContext, policyChain, errorParams.errorStatus(), detail);
                     } else {
@@ -149,21 +198,63 @@ public class JsonValidationPolicyV3 {
                 }
                 request.metrics().setMessage(ex.toString());
                 if (!straightMode) {
-                    String key = ex instanceof ProcessingException ? errorParams.payloadKeyError() : errorParams.formatKeyError();
+                    String key = ParsingLimits.isExceeded(ex)
+                        ? errorParams.limitKeyError()
+                        : ex instanceof ValidationEngineException ? errorParams.payloadKeyError() : errorParams.formatKeyError();
                     sendErrorResponse(key, executionContext, policyChain, errorParams.errorStatus(), null);
                 } else {
                     writeBufferAndEnd.run();
                 }
             }
-        });
+        };
+        if (straightMode) {
+            // The body is forwarded whatever the outcome: it is buffered in full and only its validation is skipped.
+            return new PassThroughBuffer(validation);
+        }
+        // A body announcing, or reaching, more bytes than allowed is rejected without being buffered any further.
+        return new PassThroughBuffer(
+            validation,
+            parsingLimits.maxBytes(),
+            declaredLength(headers),
+            length -> {
+                String message = "Document length (" + length + ") exceeds the maximum allowed (" + parsingLimits.maxBytes() + ")";
+                request.metrics().setMessage(message);
+                sendErrorResponse(errorParams.limitKeyError(), executionContext, policyChain, errorParams.errorStatus(), null);
+            }
+        );
     }
 
-    private ProcessingReport getReport(JsonNode schema, JsonNode content) throws ProcessingException {
-        if (configuration.isValidateUnchecked()) {
-            return validator.validateUnchecked(schema, content, configuration.isDeepCheck());
-        } else {
-            return validator.validate(schema, content, configuration.isDeepCheck());
+    /**
+     * The <code>Content-Length</code> of a body, <code>-1</code> when not declared or malformed.
+     */
+    protected static long declaredLength(HttpHeaders headers) {
+        String contentLength = headers != null ? headers.get(HttpHeaderNames.CONTENT_LENGTH) : null;
+        if (contentLength != null) {
+            try {
+                return Long.parseLong(contentLength.trim());
+            } catch (NumberFormatException e) {
+                logger.debug("Ignoring malformed Content-Length '{}'", contentLength);
+            }
         }
+        return -1;
+    }
+
+    private ValidationReport getReport(CompiledSchema schema, JsonNode content) throws ValidationEngineException {
+        ValidationOptions options = new ValidationOptions(
+            configuration.isValidateUnchecked(),
+            configuration.isDeepCheck(),
+            configuration.isFailFast(),
+            parallelArrayThreshold()
+        );
+        return schema.validate(content, options);
+    }
+
+    /**
+     * Parallel array validation blocks the calling thread until every chunk is checked, so it is only enabled off the
+     * event loop, i.e. when the validation is offloaded.
+     */
+    protected int parallelArrayThreshold() {
+        return Context.isOnEventLoopThread() ? 0 : configuration.getParallelArrayThreshold();
     }
 
     private void sendErrorResponse(
@@ -196,35 +287,46 @@ public class JsonValidationPolicyV3 {
         }
     }
 
+    /**
+     * @deprecated the schema is fingerprinted and looked up in the {@link CompiledSchemaPool} on each call, use
+     * {@link #buildDetailedMessage(CompiledSchema, JsonNode)} with the schema the payload was validated against. The
+     * policies no longer call this overload: a subclass overriding it is bypassed, it must override the other one.
+     */
+    @Deprecated
     protected Optional<String> buildDetailedMessage(JsonNode schema, JsonNode content) {
         try {
-            ProcessingReport deepReport = configuration.isValidateUnchecked()
-                ? validator.validateUnchecked(schema, content, true)
-                : validator.validate(schema, content, true);
+            return buildDetailedMessage(CompiledSchemaPool.shared().intern(schema, validationEngine()), content);
+        } catch (ValidationEngineException ex) {
+            logger.warn("Detailed validation report generation failed: {}", ex.getMessage(), ex);
+            return Optional.empty();
+        }
+    }
+
+    protected Optional<String> buildDetailedMessage(CompiledSchema compiledSchema, JsonNode content) {
+        try {
+            ValidationReport deepReport = compiledSchema.validate(content, configuration.isValidateUnchecked(), true);
 
             var details = new LinkedHashSet<String>();
             int count = 0;
-            for (ProcessingMessage processingMessage : deepReport) {
+            for (Violation violation : deepReport.violations()) {
                 if (count >= 50) {
                     break;
                 }
-                var json = processingMessage.asJson();
-                var pointer = json.path("instance").path("pointer").asText();
-                var label = pointer.isBlank() ? "(root)" : pointer;
-                var message = json.path("message").asText();
-                details.add(label + " — " + message);
+                var label = violation.pointer().isBlank() ? "(root)" : violation.pointer();
+                details.add(label + " — " + violation.message());
                 count++;
             }
             return Optional.of(String.join("; ", details)).filter(s -> !s.isBlank());
-        } catch (ProcessingException ex) {
+        } catch (IOException | ValidationEngineException ex) {
             logger.warn("Detailed validation report generation failed: {}", ex.getMessage(), ex);
             return Optional.empty();
         }
     }
 
     @SuppressWarnings("deprecation")
-    private JsonNode resolveLegacySchema(Request request, Response response, ExecutionContext executionContext) throws IOException {
-        JsonNode cached = legacyParsedSchema;
+    private CompiledSchema resolveLegacySchema(Request request, Response response, ExecutionContext executionContext)
+        throws IOException, ValidationEngineException {
+        CompiledSchema cached = legacyCompiledSchema;
         if (cached != null) {
             return cached;
         }
@@ -245,16 +347,41 @@ public class JsonValidationPolicyV3 {
             throw new IllegalStateException("No JSON schema configured in the policy");
         }
         synchronized (this) {
-            if (legacyParsedSchema == null) {
-                JsonNode parsed = JsonLoader.fromString(schemaContent);
-                if (parsed == null || parsed.isMissingNode()) {
-                    throw new IOException("Configured JSON schema is empty or could not be parsed");
+            if (legacyCompiledSchema == null) {
+                legacyCompiledSchema = CompiledSchemaPool.shared().intern(schemaContent, validationEngine());
+            }
+            return legacyCompiledSchema;
+        }
+    }
+
+    /**
+     * Whether this response is validated, according to the sampling rate. The decision is taken before the body is
+     * read: the responses left out are forwarded without being buffered.
+     */
+    protected boolean isResponseSampled() {
+        return responseSamplingRate >= 1 || (responseSamplingRate > 0 && ThreadLocalRandom.current().nextDouble() < responseSamplingRate);
+    }
+
+    /**
+     * The engine validating payloads, built once from the engine and reference resolution settings.
+     */
+    protected ValidationEngine validationEngine() throws IOException {
+        ValidationEngine local = validationEngine;
+        if (local == null) {
+            synchronized (this) {
+                local = validationEngine;
+                if (local == null) {
+                    local = ValidationEngines.create(
+                        configuration.getEngine(),
+                        configuration.getReferenceResolution(),
+                        configuration.isNormalizeSchema()
+                    );
+                    validationEngine = local;
                 }
-                legacyParsedSchema = parsed;
             }
-            return legacyParsedSchema;
         }
+        return local;
     }
 
-    private record ErrorParams(String payloadKeyError, String formatKeyError, int errorStatus) {}
+    private record ErrorParams(String payloadKeyError, String formatKeyError, String limitKeyError, int errorStatus) {}
 }
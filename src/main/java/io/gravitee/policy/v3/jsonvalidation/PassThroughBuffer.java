@@ -19,25 +19,54 @@ import io.gravitee.gateway.api.buffer.Buffer;
 import io.gravitee.gateway.api.stream.BufferedReadWriteStream;
 import io.gravitee.gateway.api.stream.SimpleReadWriteStream;
 import java.util.function.BiConsumer;
+import java.util.function.LongConsumer;
 
 class PassThroughBuffer extends BufferedReadWriteStream {
 
     private final Buffer buffer = Buffer.buffer();
     private final BiConsumer<Buffer, Runnable> consumer;
+    private final long maxBytes;
+    private final LongConsumer onOverflow;
+    private long received;
 
     public PassThroughBuffer(BiConsumer<Buffer, Runnable> consumer) {
+        this(consumer, 0, 0, null);
+    }
+
+    /**
+     * A buffer that stops accumulating the content once larger than <code>maxBytes</code>, or from the start when the
+     * declared length already is, and then hands the received length to <code>onOverflow</code> instead of the content
+     * to <code>consumer</code>. The content is not forwarded.
+     */
+    public PassThroughBuffer(BiConsumer<Buffer, Runnable> consumer, long maxBytes, long declaredLength, LongConsumer onOverflow) {
         this.consumer = consumer;
+        this.maxBytes = maxBytes;
+        this.onOverflow = onOverflow;
+        this.received = overflows(declaredLength) ? declaredLength : 0;
     }
 
     @Override
     public SimpleReadWriteStream<Buffer> write(Buffer content) {
-        buffer.appendBuffer(content);
+        if (!overflows(received)) {
+            received += content.length();
+            if (!overflows(received)) {
+                buffer.appendBuffer(content);
+            }
+        }
         return this;
     }
 
     @Override
     public void end() {
-        consumer.accept(buffer, this::writeBufferAndEnd);
+        if (overflows(received)) {
+            onOverflow.accept(received);
+        } else {
+            consumer.accept(buffer, this::writeBufferAndEnd);
+        }
+    }
+
+    private boolean overflows(long length) {
+        return maxBytes > 0 && length > maxBytes;
     }
 
     private void writeBufferAndEnd() {
@@ -28,6 +28,8 @@ import static org.mockito.Mockito.*;
 
 import io.gravitee.el.TemplateEngine;
 import io.gravitee.gateway.api.buffer.Buffer;
+import io.gravitee.gateway.api.http.HttpHeaderNames;
+import io.gravitee.gateway.api.http.HttpHeaders;
 import io.gravitee.gateway.reactive.api.ExecutionFailure;
 import io.gravitee.gateway.reactive.api.context.http.*;
 import io.gravitee.gateway.reactive.api.context.kafka.*;
@@ -35,13 +37,21 @@ import io.gravitee.gateway.reactive.api.message.DefaultMessage;
 import io.gravitee.gateway.reactive.api.message.Message;
 import io.gravitee.gateway.reactive.api.message.kafka.KafkaMessage;
 import io.gravitee.policy.jsonvalidation.configuration.JsonValidationPolicyConfiguration;
+import io.gravitee.policy.jsonvalidation.configuration.ValidationEngineType;
+import io.gravitee.policy.jsonvalidation.configuration.limits.PayloadLimits;
+import io.gravitee.policy.jsonvalidation.configuration.offload.ValidationOffload;
 import io.gravitee.policy.jsonvalidation.configuration.schema.SchemaSource;
 import io.gravitee.policy.jsonvalidation.configuration.schema.SchemaSourceType;
 import io.gravitee.policy.jsonvalidation.kafka.stub.KafkaMessageStub;
 import io.gravitee.reporter.api.v4.metric.Metrics;
 import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.FlowableTransformer;
 import io.reactivex.rxjava3.core.Maybe;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import org.apache.kafka.common.InvalidRecordException;
 import org.apache.kafka.common.protocol.Errors;
@@ -484,7 +494,7 @@ class JsonValidationPolicyTest {
             JsonValidationPolicy policy = new JsonValidationPolicy(configuration) {
                 @Override
                 protected java.util.Optional<String> buildDetailedMessage(
-                    com.fasterxml.jackson.databind.JsonNode schema,
+                    io.gravitee.policy.jsonvalidation.schema.CompiledSchema compiledSchema,
                     com.fasterxml.jackson.databind.JsonNode content
                 ) {
                     throw new RuntimeException("injected");
@@ -543,6 +553,193 @@ class JsonValidationPolicyTest {
                 .count();
             assertThat(violationCount).isLessThanOrEqualTo(50);
         }
+
+        @Test
+        void streamedGoodBodyIsForwarded() throws IOException {
+            when(configuration.isStreamRequestBody()).thenReturn(true);
+            when(configuration.getEngine()).thenReturn(ValidationEngineType.STREAMING);
+            JsonValidationPolicy policy = new JsonValidationPolicy(configuration);
+            List<String> forwarded = streamChunks("{\"name\":", "\"foo\"", "}");
+
+            policy.onRequest(ctx).test().assertComplete();
+
+            assertThat(forwarded).isEqualTo(List.of("{\"name\":", "\"foo\"", "}"));
+        }
+
+        @Test
+        void streamedBadBodyIsInterruptedAtTheFirstInvalidChunk() throws IOException {
+            when(configuration.isStreamRequestBody()).thenReturn(true);
+            when(configuration.getEngine()).thenReturn(ValidationEngineType.STREAMING);
+            when(configuration.isFailFast()).thenReturn(true);
+            JsonValidationPolicy policy = new JsonValidationPolicy(configuration);
+            List<String> forwarded = streamChunks("{\"name\":", "12,", "\"preferences\":", "{}}");
+
+            policy
+                .onRequest(ctx)
+                .test()
+                .assertError(throwable -> throwable instanceof MyCustomException);
+
+            verify(ctx).interruptWith(executionFailureCaptor.capture());
+            assertThat(executionFailureCaptor.getValue().key()).isEqualTo("JSON_INVALID_PAYLOAD");
+            assertThat(forwarded).isEmpty();
+        }
+
+        @Test
+        void streamedBadBodyIsNotForwardedWithoutFailFast() throws IOException {
+            when(configuration.isStreamRequestBody()).thenReturn(true);
+            when(configuration.getEngine()).thenReturn(ValidationEngineType.STREAMING);
+            JsonValidationPolicy policy = new JsonValidationPolicy(configuration);
+            List<String> forwarded = streamChunks("{\"name\":", "12,", "\"preferences\":", "{}}");
+
+            policy
+                .onRequest(ctx)
+                .test()
+                .assertError(throwable -> throwable instanceof MyCustomException);
+
+            verify(ctx).interruptWith(executionFailureCaptor.capture());
+            assertThat(executionFailureCaptor.getValue().key()).isEqualTo("JSON_INVALID_PAYLOAD");
+            assertThat(forwarded).isEmpty();
+        }
+
+        @Test
+        void streamedNotJsonBodyIsInterrupted() throws IOException {
+            when(configuration.isStreamRequestBody()).thenReturn(true);
+            when(configuration.getEngine()).thenReturn(ValidationEngineType.STREAMING);
+            JsonValidationPolicy policy = new JsonValidationPolicy(configuration);
+            List<String> forwarded = streamChunks("qwe", "rty");
+
+            policy
+                .onRequest(ctx)
+                .test()
+                .assertError(throwable -> throwable instanceof MyCustomException);
+
+            verify(ctx).interruptWith(executionFailureCaptor.capture());
+            assertThat(executionFailureCaptor.getValue().key()).isEqualTo("JSON_INVALID_FORMAT");
+            assertThat(forwarded).isEmpty();
+        }
+
+        @Test
+        void streamedBodyIsAggregatedWhenTheEngineCannotValidateIncrementally() throws IOException {
+            when(configuration.isStreamRequestBody()).thenReturn(true);
+            JsonValidationPolicy policy = new JsonValidationPolicy(configuration);
+            when(request.body()).thenReturn(Maybe.just(Buffer.buffer("{\"name\":123}")));
+
+            policy
+                .onRequest(ctx)
+                .test()
+                .assertError(throwable -> throwable instanceof MyCustomException);
+
+            verify(request, never()).onChunks(any());
+            verify(ctx).interruptWith(executionFailureCaptor.capture());
+            assertThat(executionFailureCaptor.getValue().key()).isEqualTo("JSON_INVALID_PAYLOAD");
+        }
+
+        @Test
+        void bodyOfAnotherMediaTypeIsNotRead() throws IOException {
+            when(configuration.getMediaTypes()).thenReturn(List.of("application/json", "application/*+json"));
+            JsonValidationPolicy policy = new JsonValidationPolicy(configuration);
+            when(request.headers()).thenReturn(HttpHeaders.create().set(HttpHeaderNames.CONTENT_TYPE, "multipart/form-data; boundary=x"));
+
+            policy.onRequest(ctx).test().assertComplete();
+
+            verify(request, never()).body();
+        }
+
+        @Test
+        void bodyOfAMatchingMediaTypeIsValidated() throws IOException {
+            when(configuration.getMediaTypes()).thenReturn(List.of("application/json", "application/*+json"));
+            JsonValidationPolicy policy = new JsonValidationPolicy(configuration);
+            when(request.headers()).thenReturn(HttpHeaders.create().set(HttpHeaderNames.CONTENT_TYPE, "application/merge-patch+json"));
+            when(request.body()).thenReturn(Maybe.just(Buffer.buffer("{\"name\":123}")));
+
+            policy
+                .onRequest(ctx)
+                .test()
+                .assertError(throwable -> throwable instanceof MyCustomException);
+
+            verify(ctx).interruptWith(executionFailureCaptor.capture());
+            assertThat(executionFailureCaptor.getValue().key()).isEqualTo("JSON_INVALID_PAYLOAD");
+        }
+
+        @Test
+        void largeBodyIsValidatedOnTheOffloadPool() throws IOException {
+            when(configuration.getOffload()).thenReturn(ValidationOffload.builder().threshold(8).build());
+            JsonValidationPolicy policy = new JsonValidationPolicy(configuration);
+            when(request.body()).thenReturn(Maybe.just(Buffer.buffer("{\"name\":123}")));
+
+            policy
+                .onRequest(ctx)
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertError(throwable -> throwable instanceof MyCustomException);
+
+            verify(ctx).setAttribute(eq(JsonValidationPolicy.OFFLOAD_QUEUE_DEPTH_ATTRIBUTE), any());
+            assertThat(ctx.metrics().getCustomMetrics()).containsKey(JsonValidationPolicy.OFFLOAD_QUEUE_DEPTH_METRIC);
+            verify(ctx).interruptWith(executionFailureCaptor.capture());
+            assertThat(executionFailureCaptor.getValue().key()).isEqualTo("JSON_INVALID_PAYLOAD");
+        }
+
+        @Test
+        void bodyAnnouncedLargerThanAllowedIsRejectedBeforeBeingRead() throws IOException {
+            when(configuration.getPayloadLimits()).thenReturn(PayloadLimits.builder().maxBytes(10).build());
+            JsonValidationPolicy policy = new JsonValidationPolicy(configuration);
+            when(request.headers()).thenReturn(HttpHeaders.create().set(HttpHeaderNames.CONTENT_LENGTH, "1024"));
+
+            policy
+                .onRequest(ctx)
+                .test()
+                .assertError(throwable -> throwable instanceof MyCustomException);
+
+            verify(ctx).interruptWith(executionFailureCaptor.capture());
+            assertThat(executionFailureCaptor.getValue().key()).isEqualTo("JSON_PAYLOAD_LIMIT_EXCEEDED");
+            verify(request, never()).body();
+        }
+
+        @Test
+        void bodyNestedDeeperThanAllowedIsRejected() throws IOException {
+            when(configuration.getPayloadLimits()).thenReturn(PayloadLimits.builder().maxDepth(2).build());
+            JsonValidationPolicy policy = new JsonValidationPolicy(configuration);
+            when(request.body()).thenReturn(Maybe.just(Buffer.buffer("{\"name\":\"foo\",\"preferences\":{\"newsletter\":[true]}}")));
+
+            policy
+                .onRequest(ctx)
+                .test()
+                .assertError(throwable -> throwable instanceof MyCustomException);
+
+            verify(ctx).interruptWith(executionFailureCaptor.capture());
+            assertThat(executionFailureCaptor.getValue().key()).isEqualTo("JSON_PAYLOAD_LIMIT_EXCEEDED");
+        }
+
+        @Test
+        void streamedBodyLargerThanAllowedIsRejected() throws IOException {
+            when(configuration.isStreamRequestBody()).thenReturn(true);
+            when(configuration.getEngine()).thenReturn(ValidationEngineType.STREAMING);
+            when(configuration.getPayloadLimits()).thenReturn(PayloadLimits.builder().maxBytes(12).build());
+            JsonValidationPolicy policy = new JsonValidationPolicy(configuration);
+            List<String> forwarded = streamChunks("{\"name\":", "\"foo\"}");
+
+            policy
+                .onRequest(ctx)
+                .test()
+                .assertError(throwable -> throwable instanceof MyCustomException);
+
+            verify(ctx).interruptWith(executionFailureCaptor.capture());
+            assertThat(executionFailureCaptor.getValue().key()).isEqualTo("JSON_PAYLOAD_LIMIT_EXCEEDED");
+            assertThat(forwarded).isEmpty();
+        }
+
+        private List<String> streamChunks(String... chunks) {
+            List<String> forwarded = new ArrayList<>();
+            when(request.onChunks(any())).thenAnswer(invocation -> {
+                FlowableTransformer<Buffer, Buffer> onChunks = invocation.getArgument(0);
+                return Flowable.fromArray(chunks)
+                    .map(Buffer::buffer)
+                    .compose(onChunks)
+                    .doOnNext(chunk -> forwarded.add(chunk.toString()))
+                    .ignoreElements();
+            });
+            return forwarded;
+        }
     }
 
     @ExtendWith(MockitoExtension.class)
@@ -582,6 +779,31 @@ class JsonValidationPolicyTest {
             return executionFailureCaptor.getValue();
         }
 
+        @Test
+        void unsampledResponseIsNotRead() throws IOException {
+            when(configuration.getResponseSamplingRate()).thenReturn(0d);
+            JsonValidationPolicy policy = new JsonValidationPolicy(configuration);
+
+            policy.onResponse(ctx).test().assertComplete();
+
+            verify(response, never()).body();
+        }
+
+        @Test
+        void sampledResponseIsValidated() throws IOException {
+            when(configuration.getResponseSamplingRate()).thenReturn(1d);
+            JsonValidationPolicy policy = new JsonValidationPolicy(configuration);
+            when(response.body()).thenReturn(Maybe.just(Buffer.buffer("{\"name\":123}")));
+
+            policy
+                .onResponse(ctx)
+                .test()
+                .assertError(throwable -> throwable instanceof MyCustomException);
+
+            verify(ctx).interruptWith(executionFailureCaptor.capture());
+            assertThat(executionFailureCaptor.getValue().key()).isEqualTo("JSON_INVALID_RESPONSE_PAYLOAD");
+        }
+
         @Test
         void detailContainsViolations() throws IOException {
             var failure = failureFor("{\"name\":\"Ada\",\"age\":\"twenty\",\"email\":\"x\"}", true);
@@ -718,6 +940,49 @@ class JsonValidationPolicyTest {
             assertThat(executionFailureCaptor.getValue().key()).isEqualTo("JSON_INVALID_MESSAGE_REQUEST_PAYLOAD");
         }
 
+        @Test
+        void largeMessageIsValidatedOnTheOffloadPool() throws IOException {
+            when(configuration.getOffload()).thenReturn(ValidationOffload.builder().threshold(8).build());
+            when(ctx.metrics()).thenReturn(Metrics.builder().build());
+            when(ctx.interruptMessageWith(any())).thenReturn(Maybe.error(new MyCustomException()));
+            JsonValidationPolicy policy = new JsonValidationPolicy(configuration);
+            DefaultMessage message = DefaultMessage.builder().id("id").content(Buffer.buffer("{\"name2\":\"foo\"}")).build();
+
+            policy.onMessageRequest(ctx).test().assertComplete();
+            verify(request).onMessage(messageCaptor.capture());
+            messageCaptor
+                .getValue()
+                .apply(message)
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertError(throwable -> throwable instanceof MyCustomException);
+
+            verify(ctx).setAttribute(eq(JsonValidationPolicy.OFFLOAD_QUEUE_DEPTH_ATTRIBUTE), any());
+            verify(ctx).interruptMessageWith(executionFailureCaptor.capture());
+            assertThat(executionFailureCaptor.getValue().key()).isEqualTo("JSON_INVALID_MESSAGE_REQUEST_PAYLOAD");
+        }
+
+        @Test
+        void largeMessageNotBeingJsonIsRejectedWithTheFormatKeyWhenOffloaded() throws IOException {
+            when(configuration.getOffload()).thenReturn(ValidationOffload.builder().threshold(4).build());
+            when(ctx.metrics()).thenReturn(Metrics.builder().build());
+            when(ctx.interruptMessageWith(any())).thenReturn(Maybe.error(new MyCustomException()));
+            JsonValidationPolicy policy = new JsonValidationPolicy(configuration);
+            DefaultMessage message = DefaultMessage.builder().id("id").content(Buffer.buffer(NON_JSON)).build();
+
+            policy.onMessageRequest(ctx).test().assertComplete();
+            verify(request).onMessage(messageCaptor.capture());
+            messageCaptor
+                .getValue()
+                .apply(message)
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertError(throwable -> throwable instanceof MyCustomException);
+
+            verify(ctx).interruptMessageWith(executionFailureCaptor.capture());
+            assertThat(executionFailureCaptor.getValue().key()).isEqualTo("JSON_INVALID_MESSAGE_REQUEST_FORMAT");
+        }
+
         private ExecutionFailure messageFailureFor(String body) throws IOException {
             var schemaSource = SchemaSource.builder().sourceType(SchemaSourceType.STATIC_SCHEMA).staticSchema(DETAILED_SCHEMA).build();
             when(configuration.getSchemaSource()).thenReturn(schemaSource);
@@ -912,6 +1177,28 @@ class JsonValidationPolicyTest {
                 .test()
                 .assertError(throwable -> throwable instanceof MyCustomException);
         }
+
+        @Test
+        void testOnMessageRequest_largeRecordIsValidatedOnTheOffloadPool() throws IOException {
+            when(configuration.getOffload()).thenReturn(ValidationOffload.builder().threshold(8).build());
+            JsonValidationPolicy policy = new JsonValidationPolicy(configuration);
+            KafkaMessageStub message = new KafkaMessageStub("{\"name2\":\"foo\"}");
+
+            when(produceRequest.getErrorResponse(anyInt(), any(InvalidRecordException.class))).thenReturn(
+                createFailedProduceResponseWithTwoPartitions(Errors.INVALID_RECORD)
+            );
+            when(ctx.interruptWith(any(AbstractResponse.class))).thenReturn(Completable.error(new MyCustomException()));
+
+            policy.onMessageRequest(msgCtx).test().assertComplete();
+
+            verify(messageRequest).onMessage(messageCaptor.capture());
+            messageCaptor
+                .getValue()
+                .apply(message)
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertError(throwable -> throwable instanceof MyCustomException);
+        }
     }
 
     @Nested
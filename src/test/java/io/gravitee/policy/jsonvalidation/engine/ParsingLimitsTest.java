@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.github.fge.jackson.JsonLoader;
+import io.gravitee.policy.jsonvalidation.configuration.ValidationEngineType;
+import io.gravitee.policy.jsonvalidation.configuration.limits.PayloadLimits;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class ParsingLimitsTest {
+
+    // Parsers only check string lengths as their buffers grow, hence a string longer than any initial buffer.
+    private static final String LONG_STRING = "x".repeat(5000);
+
+    private static final ParsingLimits LIMITS = ParsingLimits.of(
+        PayloadLimits.builder().maxBytes(64).maxDepth(3).maxStringLength(8).maxNumberLength(4).maxProperties(2).build()
+    );
+
+    @ParameterizedTest
+    @MethodSource("exceedingPayloads")
+    void should_reject_payloads_breaking_a_limit(String payload) {
+        assertThatThrownBy(() -> LIMITS.readTree(bytes(payload))).isInstanceOf(StreamConstraintsException.class);
+        assertThatThrownBy(() -> LIMITS.readTree(new ByteArrayInputStream(bytes(payload)))).isInstanceOf(
+            StreamConstraintsException.class
+        );
+    }
+
+    static Stream<Arguments> exceedingPayloads() {
+        return Stream.of(
+            Arguments.of("[[[[1]]]]"),
+            Arguments.of("{\"a\":{\"b\":{\"c\":{}}}}"),
+            Arguments.of("\"" + LONG_STRING + "\""),
+            Arguments.of("{\"" + LONG_STRING + "\":1}"),
+            Arguments.of("123456789012345678901234567890"),
+            Arguments.of("{\"a\":1,\"b\":2,\"c\":3}"),
+            Arguments.of("[{\"a\":1,\"b\":2},{\"a\":1,\"b\":2,\"c\":3}]")
+        );
+    }
+
+    @Test
+    void should_read_payloads_within_the_limits() throws IOException {
+        assertThat(LIMITS.readTree(bytes("[{\"a\":1,\"b\":[2]},{\"a\":\"short\",\"b\":2}]"))).isEqualTo(
+            JsonLoader.fromString("[{\"a\":1,\"b\":[2]},{\"a\":\"short\",\"b\":2}]")
+        );
+        assertThat(LIMITS.readTree(bytes("")).isMissingNode()).isTrue();
+    }
+
+    @Test
+    void should_read_a_single_document() throws IOException {
+        assertThat(ParsingLimits.NONE.readDocument(new ByteArrayInputStream(bytes("{\"a\":1}")))).isEqualTo(
+            JsonLoader.fromString("{\"a\":1}")
+        );
+        assertThatThrownBy(() -> ParsingLimits.NONE.readDocument(new ByteArrayInputStream(bytes("{\"a\":1} {}")))).isInstanceOf(
+            IOException.class
+        );
+        assertThatThrownBy(() -> ParsingLimits.NONE.readDocument(new ByteArrayInputStream(bytes(" ")))).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void should_count_the_properties_of_skipped_objects() throws IOException {
+        try (JsonParser parser = LIMITS.createParser(bytes("[{\"a\":1,\"b\":2,\"c\":3}]"))) {
+            assertThat(parser.nextToken()).isEqualTo(JsonToken.START_ARRAY);
+            assertThat(parser.nextToken()).isEqualTo(JsonToken.START_OBJECT);
+            assertThatThrownBy(parser::skipChildren).isInstanceOf(StreamConstraintsException.class);
+        }
+    }
+
+    @Test
+    void should_check_the_payload_length() throws StreamConstraintsException {
+        LIMITS.checkLength(64);
+        ParsingLimits.NONE.checkLength(Long.MAX_VALUE);
+
+        assertThatThrownBy(() -> LIMITS.checkLength(65)).isInstanceOf(StreamConstraintsException.class);
+    }
+
+    @Test
+    void should_recognize_limit_failures_among_causes() {
+        assertThat(ParsingLimits.isExceeded(new IOException(new StreamConstraintsException("too deep")))).isTrue();
+        assertThat(ParsingLimits.isExceeded(new IOException("malformed"))).isFalse();
+    }
+
+    @ParameterizedTest
+    @EnumSource(ValidationEngineType.class)
+    void should_apply_the_limits_with_every_engine(ValidationEngineType type) throws IOException, ValidationEngineException {
+        SchemaValidator validator = ValidationEngines.create(type, null).compile(JsonLoader.fromString("{\"type\":\"object\"}"));
+        ValidationOptions options = new ValidationOptions(false, false, false, 0, LIMITS);
+
+        assertThat(validator.validate(bytes("{\"a\":1}"), options).isSuccess()).isTrue();
+        assertThatThrownBy(() -> validator.validate(bytes("{\"a\":1,\"b\":2,\"c\":3}"), options)).isInstanceOf(
+            StreamConstraintsException.class
+        );
+        assertThatThrownBy(() -> validator.validate(new ByteArrayInputStream(bytes("{\"a\":{\"b\":{\"c\":{}}}}")), options)).isInstanceOf(
+            StreamConstraintsException.class
+        );
+
+        IncrementalValidation validation = validator.newIncrementalValidation(options);
+        assertThatThrownBy(() -> {
+            validation.feed(bytes("{\"a\":\"" + LONG_STRING));
+            validation.feed(bytes(LONG_STRING + "\"}"));
+            validation.end();
+        }).isInstanceOf(StreamConstraintsException.class);
+    }
+
+    private static byte[] bytes(String payload) {
+        return payload.getBytes(StandardCharsets.UTF_8);
+    }
+}
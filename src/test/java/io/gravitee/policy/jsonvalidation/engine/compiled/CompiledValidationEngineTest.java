@@ -0,0 +1,230 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.compiled;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.fge.jackson.JsonLoader;
+import io.gravitee.policy.jsonvalidation.configuration.ValidationEngineType;
+import io.gravitee.policy.jsonvalidation.engine.SchemaValidator;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngines;
+import io.gravitee.policy.jsonvalidation.engine.ValidationOptions;
+import io.gravitee.policy.jsonvalidation.engine.ValidationReport;
+import io.gravitee.policy.jsonvalidation.engine.Violation;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class CompiledValidationEngineTest {
+
+    private static final String OBJECT_SCHEMA =
+        "{\"type\":\"object\",\"required\":[\"name\"],\"additionalProperties\":false," +
+        "\"properties\":{" +
+        "\"name\":{\"type\":\"string\",\"minLength\":2,\"maxLength\":5,\"pattern\":\"^[a-z]+$\"}," +
+        "\"age\":{\"type\":\"integer\",\"minimum\":0,\"maximum\":150,\"multipleOf\":1}," +
+        "\"score\":{\"type\":\"number\",\"exclusiveMinimum\":true,\"minimum\":0.5,\"multipleOf\":0.25}," +
+        "\"kind\":{\"enum\":[\"a\",\"b\",1,null]}," +
+        "\"tags\":{\"type\":\"array\",\"minItems\":1,\"maxItems\":3,\"items\":{\"type\":\"string\"}}," +
+        "\"address\":{\"type\":\"object\",\"required\":[\"city\"],\"properties\":{\"city\":{\"type\":\"string\"}}," +
+        "\"dependencies\":{\"zip\":[\"city\"]}}}," +
+        "\"patternProperties\":{\"^x-\":{\"type\":\"string\"}}}";
+
+    private static final String COMBINATOR_SCHEMA =
+        "{\"properties\":{" +
+        "\"any\":{\"anyOf\":[{\"type\":\"string\"},{\"type\":\"integer\"}]}," +
+        "\"one\":{\"oneOf\":[{\"type\":\"integer\"},{\"minimum\":10}]}," +
+        "\"all\":{\"allOf\":[{\"type\":\"object\"},{\"required\":[\"id\"]}]}," +
+        "\"not\":{\"not\":{\"type\":\"null\"}}}}";
+
+    private static final String RECURSIVE_SCHEMA =
+        "{\"$ref\":\"#/definitions/node\",\"definitions\":{\"node\":{\"type\":\"object\",\"required\":[\"value\"]," +
+        "\"properties\":{\"value\":{\"type\":\"integer\"}," +
+        "\"children\":{\"type\":\"array\",\"items\":{\"$ref\":\"#/definitions/node\"}}}}}}";
+
+    private static final String DISCRIMINATED_SCHEMA =
+        "{\"discriminator\":{\"propertyName\":\"kind\"}," +
+        "\"oneOf\":[{\"$ref\":\"#/definitions/created\"},{\"$ref\":\"#/definitions/deleted\"}," +
+        "{\"type\":\"object\",\"required\":[\"legacy\"]}]," +
+        "\"definitions\":{" +
+        "\"base\":{\"type\":\"object\",\"required\":[\"kind\"],\"properties\":{\"kind\":{\"type\":\"string\"}}}," +
+        "\"created\":{\"allOf\":[{\"$ref\":\"#/definitions/base\"}," +
+        "{\"required\":[\"id\"],\"properties\":{\"kind\":{\"enum\":[\"created\"]},\"id\":{\"type\":\"integer\"}}}]}," +
+        "\"deleted\":{\"type\":\"object\",\"required\":[\"kind\",\"id\"]," +
+        "\"properties\":{\"kind\":{\"enum\":[\"deleted\",\"removed\"]},\"id\":{\"type\":\"string\"}}}}}";
+
+    private static final String UNIQUE_SCHEMA =
+        "{\"properties\":{" +
+        "\"codes\":{\"type\":\"array\",\"items\":{\"enum\":[\"EUR\",\"USD\",\"GBP\",1]}}," +
+        "\"values\":{\"type\":\"array\",\"uniqueItems\":true}}}";
+
+    private static final String CONTAINER_ENUM_SCHEMA =
+        "{\"properties\":{\"point\":{\"enum\":[{\"x\":1,\"y\":[1,2]},[1,\"a\"],\"none\"]}}}";
+
+    private final CompiledValidationEngine engine = new CompiledValidationEngine(ValidationEngines.DEFAULT);
+
+    @Test
+    void should_be_created_from_the_configuration() throws IOException {
+        assertThat(ValidationEngines.create(ValidationEngineType.COMPILED, null))
+            .isInstanceOfSatisfying(CompiledValidationEngine.class, created -> assertThat(created.key()).isEqualTo("compiled"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("parityCases")
+    void should_report_the_same_failures_as_the_default_engine(String schema, String payload)
+        throws IOException, ValidationEngineException {
+        SchemaValidator compiled = engine.compile(JsonLoader.fromString(schema));
+        SchemaValidator fge = ValidationEngines.DEFAULT.compile(JsonLoader.fromString(schema));
+        assertThat(compiled).isInstanceOf(CompiledSchemaValidator.class);
+
+        for (boolean deepCheck : new boolean[] { false, true }) {
+            ValidationOptions options = new ValidationOptions(false, deepCheck);
+            ValidationReport expected = fge.validate(bytes(payload), options);
+            ValidationReport actual = compiled.validate(bytes(payload), options);
+
+            assertThat(actual.isSuccess()).as("success with deepCheck=%s", deepCheck).isEqualTo(expected.isSuccess());
+            assertThat(actual.violations().stream().map(Violation::pointer).distinct())
+                .as("pointers with deepCheck=%s", deepCheck)
+                .containsExactlyInAnyOrderElementsOf(expected.violations().stream().map(Violation::pointer).distinct().toList());
+        }
+    }
+
+    static Stream<Arguments> parityCases() {
+        return Stream.of(
+            Arguments.of(OBJECT_SCHEMA, "{\"name\":\"john\",\"age\":42,\"score\":1.5,\"kind\":null,\"tags\":[\"a\"],\"x-id\":\"1\"}"),
+            Arguments.of(OBJECT_SCHEMA, "{\"name\":\"j\",\"age\":-1,\"score\":0.5}"),
+            Arguments.of(OBJECT_SCHEMA, "{\"name\":\"John Doe\",\"age\":\"42\",\"score\":0.6,\"kind\":\"c\"}"),
+            Arguments.of(OBJECT_SCHEMA, "{\"age\":200,\"tags\":[]}"),
+            Arguments.of(OBJECT_SCHEMA, "{\"name\":\"john\",\"age\":12345678901234567890,\"tags\":[\"a\",2,\"c\",\"d\"],\"x-id\":3}"),
+            Arguments.of(OBJECT_SCHEMA, "{\"name\":\"john\",\"address\":{\"zip\":\"75000\"},\"unknown\":true}"),
+            Arguments.of(COMBINATOR_SCHEMA, "{\"any\":\"a\",\"one\":1,\"all\":{\"id\":1},\"not\":1}"),
+            Arguments.of(COMBINATOR_SCHEMA, "{\"any\":true,\"one\":12,\"all\":{},\"not\":null}"),
+            Arguments.of(RECURSIVE_SCHEMA, "{\"value\":1,\"children\":[{\"value\":2},{\"value\":3,\"children\":[{\"value\":4}]}]}"),
+            Arguments.of(RECURSIVE_SCHEMA, "{\"value\":1,\"children\":[{\"value\":\"2\"},{\"children\":[{\"value\":4.5}]}]}"),
+            Arguments.of(CONTAINER_ENUM_SCHEMA, "{\"point\":{\"y\":[1.0,2],\"x\":1}}"),
+            Arguments.of(CONTAINER_ENUM_SCHEMA, "{\"point\":[1,\"a\"]}"),
+            Arguments.of(CONTAINER_ENUM_SCHEMA, "{\"point\":\"none\"}"),
+            Arguments.of(CONTAINER_ENUM_SCHEMA, "{\"point\":{\"x\":1,\"y\":[2,1]}}"),
+            Arguments.of(CONTAINER_ENUM_SCHEMA, "{\"point\":[1,\"a\",{}]}"),
+            Arguments.of(DISCRIMINATED_SCHEMA, "{\"kind\":\"created\",\"id\":1}"),
+            Arguments.of(DISCRIMINATED_SCHEMA, "{\"kind\":\"deleted\",\"id\":1}"),
+            Arguments.of(DISCRIMINATED_SCHEMA, "{\"kind\":\"removed\",\"id\":\"1\",\"legacy\":true}"),
+            Arguments.of(DISCRIMINATED_SCHEMA, "{\"kind\":\"other\",\"legacy\":true}"),
+            Arguments.of(DISCRIMINATED_SCHEMA, "{\"kind\":1,\"id\":1}"),
+            Arguments.of(DISCRIMINATED_SCHEMA, "[{\"kind\":\"created\",\"id\":1}]"),
+            Arguments.of(UNIQUE_SCHEMA, "{\"codes\":[\"EUR\",\"USD\"],\"values\":[1,\"1\",[1,2],[2,1],{\"a\":1,\"b\":2}]}"),
+            Arguments.of(UNIQUE_SCHEMA, "{\"codes\":[\"EUR\",\"XXX\",1.0],\"values\":[1,1.0]}"),
+            Arguments.of(UNIQUE_SCHEMA, "{\"codes\":[\"EUR\"],\"values\":[{\"a\":1,\"b\":2},{\"b\":2.0,\"a\":1}]}")
+        );
+    }
+
+    @Test
+    void should_report_pointers_and_messages_of_the_default_engine() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(JsonLoader.fromString(OBJECT_SCHEMA));
+
+        ValidationReport report = validator.validate(bytes("{\"tags\":[\"a\",1]}"), new ValidationOptions(false, true));
+
+        assertThat(report.violations()).containsExactlyInAnyOrder(
+            new Violation("", "object has missing required properties ([\"name\"])"),
+            new Violation("/tags/1", "instance type (integer) does not match any allowed primitive type (allowed: [\"string\"])")
+        );
+    }
+
+    @Test
+    void should_check_unique_items_and_enums_by_value() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(JsonLoader.fromString(UNIQUE_SCHEMA));
+
+        byte[] payload = bytes("{\"codes\":[1.00],\"values\":[[0.5],[0.50]]}");
+
+        ValidationReport report = validator.validate(payload, new ValidationOptions(false, true));
+
+        assertThat(report.violations()).containsExactly(new Violation("/values", "array must not contain duplicate elements"));
+    }
+
+    @Test
+    void should_report_property_names_exhausting_the_budget_of_a_pattern() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(
+            JsonLoader.fromString("{\"type\":\"object\",\"patternProperties\":{\"^(a+)+$\":{}},\"additionalProperties\":false}")
+        );
+        String name = "a".repeat(40) + "!";
+
+        ValidationReport report = validator.validate(bytes("{\"" + name + "\":1}"), new ValidationOptions(false, false));
+
+        assertThat(report.violations()).containsExactly(
+            new Violation("", "ECMA 262 regex \"^(a+)+$\" could not be evaluated on property name \"" + name + "\" within its budget")
+        );
+    }
+
+    @Test
+    void should_stop_at_first_violation_when_failing_fast() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(JsonLoader.fromString(OBJECT_SCHEMA));
+
+        ValidationReport report = validator.validate(bytes("{\"name\":1,\"age\":\"x\"}"), new ValidationOptions(false, true, true));
+
+        assertThat(report.isSuccess()).isFalse();
+        assertThat(report.violations()).hasSize(1);
+    }
+
+    @Test
+    void should_report_the_same_violations_when_checking_items_in_parallel() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(
+            JsonLoader.fromString("{\"type\":\"array\",\"items\":{\"type\":\"object\",\"required\":[\"id\"]}}")
+        );
+        StringBuilder payload = new StringBuilder("[");
+        for (int i = 0; i < 5000; i++) {
+            payload.append(i == 0 ? "" : ",").append(i % 997 == 0 ? "{}" : "{\"id\":" + i + "}");
+        }
+        byte[] bulk = bytes(payload.append("]").toString());
+
+        ValidationReport sequential = validator.validate(bulk, new ValidationOptions(false, false, false, 0));
+        ValidationReport parallel = validator.validate(bulk, new ValidationOptions(false, false, false, 100));
+        ValidationReport parallelFailFast = validator.validate(bulk, new ValidationOptions(false, false, true, 100));
+
+        assertThat(sequential.violations())
+            .extracting(Violation::pointer)
+            .containsExactly("/0", "/997", "/1994", "/2991", "/3988", "/4985");
+        assertThat(parallel.violations()).isEqualTo(sequential.violations());
+        // The chunks stop once one of them fails: the violation reported is not necessarily the first one.
+        assertThat(parallelFailFast.violations())
+            .singleElement()
+            .extracting(Violation::pointer)
+            .isIn("/0", "/997", "/1994", "/2991", "/3988", "/4985");
+    }
+
+    @Test
+    void should_reject_empty_payloads() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(JsonLoader.fromString(OBJECT_SCHEMA));
+
+        assertThatThrownBy(() -> validator.validate(bytes(""), new ValidationOptions(false, false))).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void should_fall_back_on_unsupported_keywords() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(JsonLoader.fromString("{\"type\":\"string\",\"format\":\"email\"}"));
+
+        assertThat(validator).isNotInstanceOf(CompiledSchemaValidator.class);
+        assertThat(validator.validate(bytes("\"john\""), new ValidationOptions(false, false)).isSuccess()).isFalse();
+    }
+
+    private static byte[] bytes(String payload) {
+        return payload.getBytes(StandardCharsets.UTF_8);
+    }
+}
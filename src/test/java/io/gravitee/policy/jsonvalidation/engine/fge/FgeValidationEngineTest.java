@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.fge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.fge.jackson.JsonLoader;
+import io.gravitee.policy.jsonvalidation.configuration.ValidationEngineType;
+import io.gravitee.policy.jsonvalidation.engine.SchemaValidator;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngines;
+import io.gravitee.policy.jsonvalidation.engine.ValidationOptions;
+import io.gravitee.policy.jsonvalidation.engine.ValidationReport;
+import io.gravitee.policy.jsonvalidation.engine.Violation;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class FgeValidationEngineTest {
+
+    private static final String SCHEMA = "{\"type\":\"object\",\"properties\":{\"age\":{\"type\":\"integer\"}}}";
+    private static final String TWO_FIELDS_SCHEMA =
+        "{\"type\":\"object\",\"properties\":{\"age\":{\"type\":\"integer\"},\"name\":{\"type\":\"string\"}}}";
+    private static final ValidationOptions OPTIONS = new ValidationOptions(false, false);
+
+    private final FgeValidationEngine engine = new FgeValidationEngine(SchemaLoading.DEFAULT);
+
+    @Test
+    void should_be_the_default_engine() throws IOException {
+        assertThat(ValidationEngines.create(null, null)).isSameAs(ValidationEngines.DEFAULT);
+        assertThat(ValidationEngines.create(ValidationEngineType.FGE, null)).isInstanceOf(FgeValidationEngine.class);
+    }
+
+    @Test
+    void should_report_violations_with_instance_pointer() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(JsonLoader.fromString(SCHEMA));
+
+        ValidationReport report = validator.validate("{\"age\":\"twenty\"}".getBytes(StandardCharsets.UTF_8), OPTIONS);
+
+        assertThat(report.isSuccess()).isFalse();
+        assertThat(report.violations()).extracting(Violation::pointer).containsExactly("/age");
+        assertThat(report.toString()).contains("instance type (string) does not match");
+    }
+
+    @Test
+    void should_stop_at_first_violation_when_failing_fast() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(JsonLoader.fromString(TWO_FIELDS_SCHEMA));
+        byte[] payload = "{\"age\":\"twenty\",\"name\":1}".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(validator.validate(payload, OPTIONS).violations()).hasSize(2);
+        ValidationReport report = validator.validate(payload, new ValidationOptions(false, false, true));
+
+        assertThat(report.isSuccess()).isFalse();
+        assertThat(report.violations()).hasSize(1);
+    }
+
+    @Test
+    void should_evaluate_patterns_with_ecma_semantics() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(JsonLoader.fromString("{\"pattern\":\"^[a-z]+$\"}"));
+
+        assertThat(validator.validate(JsonLoader.fromString("\"abc\""), OPTIONS).isSuccess()).isTrue();
+        ValidationReport report = validator.validate(JsonLoader.fromString("\"abc\\n\""), OPTIONS);
+
+        assertThat(report.isSuccess()).isFalse();
+        assertThat(report.toString()).contains("ECMA 262 regex \"^[a-z]+$\" does not match input string");
+    }
+
+    @Test
+    void should_evaluate_patterns_with_ecma_semantics_when_declaring_draft_v4() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(
+            JsonLoader.fromString(
+                "{\"$schema\":\"http://json-schema.org/draft-04/schema#\",\"type\":\"object\"," +
+                "\"properties\":{\"code\":{\"pattern\":\"^[a-z]+$\"}},\"patternProperties\":{\"^(a+)+$\":{}}," +
+                "\"additionalProperties\":false}"
+            )
+        );
+
+        assertThat(validator.validate(JsonLoader.fromString("{\"code\":\"abc\",\"aaa\":1}"), OPTIONS).isSuccess()).isTrue();
+        ValidationReport report = validator.validate(JsonLoader.fromString("{\"code\":\"abc\\n\"}"), OPTIONS);
+        assertThat(report.toString()).contains("ECMA 262 regex \"^[a-z]+$\" does not match input string");
+        assertThat(validator.validate(JsonLoader.fromString("{\"b\":1}"), OPTIONS).toString())
+            .contains("object instance has properties which are not allowed by the schema: [\"b\"]");
+    }
+
+    @Test
+    void should_only_warm_up_schemas_with_local_references() throws IOException {
+        assertThat(FgeSchemaValidator.hasNonLocalReference(JsonLoader.fromString(SCHEMA))).isFalse();
+        assertThat(
+            FgeSchemaValidator.hasNonLocalReference(
+                JsonLoader.fromString("{\"$ref\":\"#/definitions/a\",\"definitions\":{\"a\":{\"type\":\"string\"}}}")
+            )
+        ).isFalse();
+        assertThat(
+            FgeSchemaValidator.hasNonLocalReference(
+                JsonLoader.fromString("{\"anyOf\":[{\"type\":\"null\"},{\"$ref\":\"https://example.com/a.json\"}]}")
+            )
+        ).isTrue();
+    }
+
+    @Test
+    void should_validate_matching_tree() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(JsonLoader.fromString(SCHEMA));
+
+        assertThat(validator.validate(JsonLoader.fromString("{\"age\":42}"), OPTIONS).isSuccess()).isTrue();
+    }
+
+    @Test
+    void should_list_syntax_errors() throws IOException {
+        assertThat(engine.checkSyntax(JsonLoader.fromString(SCHEMA))).isEmpty();
+        assertThat(engine.checkSyntax(JsonLoader.fromString("{\"minLength\":-1}"))).hasSize(1);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.fge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.fge.jackson.JsonLoader;
+import io.gravitee.policy.jsonvalidation.configuration.reference.ReferenceMapping;
+import io.gravitee.policy.jsonvalidation.configuration.reference.ReferenceResolution;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import io.gravitee.policy.jsonvalidation.schema.CompiledSchema;
+import io.gravitee.policy.jsonvalidation.schema.CompiledSchemaPool;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SchemaLoadingTest {
+
+    private static final String SCHEMA = """
+        {
+          "type": "object",
+          "properties": { "name": { "$ref": "http://schemas.example.com/common/name.json" } }
+        }""";
+
+    private static final String NAME_SCHEMA = "{\"type\":\"string\",\"minLength\":2}";
+
+    @Test
+    void should_use_default_factory_without_reference_resolution() throws IOException {
+        assertThat(SchemaLoading.of(null)).isSameAs(SchemaLoading.DEFAULT);
+        assertThat(SchemaLoading.of(new ReferenceResolution())).isSameAs(SchemaLoading.DEFAULT);
+    }
+
+    @Test
+    void should_resolve_reference_from_preloaded_schema() throws IOException, ValidationEngineException {
+        SchemaLoading schemaLoading = SchemaLoading.of(
+            ReferenceResolution.builder()
+                .offline(true)
+                .mappings(
+                    List.of(ReferenceMapping.builder().uri("http://schemas.example.com/common/name.json").schema(NAME_SCHEMA).build())
+                )
+                .build()
+        );
+
+        CompiledSchema compiledSchema = CompiledSchemaPool.shared().intern(SCHEMA, new FgeValidationEngine(schemaLoading));
+
+        assertThat(compiledSchema.validate(JsonLoader.fromString("{\"name\":\"Ada\"}"), false).isSuccess()).isTrue();
+        assertThat(compiledSchema.validate(JsonLoader.fromString("{\"name\":\"A\"}"), false).isSuccess()).isFalse();
+    }
+
+    @Test
+    void should_resolve_reference_from_mapped_directory(@TempDir Path directory) throws IOException, ValidationEngineException {
+        Files.writeString(directory.resolve("name.json"), NAME_SCHEMA);
+        SchemaLoading schemaLoading = SchemaLoading.of(
+            ReferenceResolution.builder()
+                .offline(true)
+                .mappings(
+                    List.of(ReferenceMapping.builder().uri("http://schemas.example.com/common/").directory(directory.toString()).build())
+                )
+                .build()
+        );
+
+        CompiledSchema compiledSchema = CompiledSchemaPool.shared().intern(SCHEMA, new FgeValidationEngine(schemaLoading));
+
+        assertThat(compiledSchema.validate(JsonLoader.fromString("{\"name\":\"A\"}"), false).isSuccess()).isFalse();
+    }
+
+    @Test
+    void should_preload_the_schemas_of_nested_directories(@TempDir Path directory) throws IOException, ValidationEngineException {
+        Files.createDirectories(directory.resolve("common"));
+        Files.writeString(directory.resolve("common/name.json"), NAME_SCHEMA);
+        SchemaLoading schemaLoading = SchemaLoading.of(
+            ReferenceResolution.builder()
+                .offline(true)
+                .mappings(List.of(ReferenceMapping.builder().uri("http://schemas.example.com/").directory(directory.toString()).build()))
+                .build()
+        );
+        // Written after the mapping is loaded: never read.
+        Files.writeString(directory.resolve("common/name.json"), "{}");
+
+        CompiledSchema compiledSchema = CompiledSchemaPool.shared().intern(SCHEMA, new FgeValidationEngine(schemaLoading));
+
+        assertThat(compiledSchema.validate(JsonLoader.fromString("{\"name\":\"A\"}"), false).isSuccess()).isFalse();
+    }
+
+    @Test
+    void should_reject_directory_outside_the_allowed_roots(@TempDir Path temp) throws IOException {
+        Path root = Files.createDirectory(temp.resolve("root"));
+        Path directory = Files.createDirectory(temp.resolve("other"));
+        ReferenceResolution referenceResolution = ReferenceResolution.builder()
+            .mappings(List.of(ReferenceMapping.builder().uri("http://schemas.example.com/").directory(directory.toString()).build()))
+            .build();
+        System.setProperty(SchemaLoading.REFERENCE_ROOTS_PROPERTY, root.toString());
+        try {
+            assertThatThrownBy(() -> SchemaLoading.of(referenceResolution)).isInstanceOf(IOException.class);
+            assertThat(SchemaLoading.allowedDirectory(Files.createDirectory(root.resolve("schemas")).toString())).isEqualTo(
+                root.resolve("schemas").toRealPath()
+            );
+        } finally {
+            System.clearProperty(SchemaLoading.REFERENCE_ROOTS_PROPERTY);
+        }
+    }
+
+    @Test
+    void should_not_fetch_unmapped_reference_when_offline() throws IOException, ValidationEngineException {
+        SchemaLoading schemaLoading = SchemaLoading.of(ReferenceResolution.builder().offline(true).build());
+
+        CompiledSchema compiledSchema = CompiledSchemaPool.shared().intern(SCHEMA, new FgeValidationEngine(schemaLoading));
+
+        assertThatThrownBy(() -> compiledSchema.validate(JsonLoader.fromString("{\"name\":\"Ada\"}"), false)).isInstanceOf(
+            ValidationEngineException.class
+        );
+    }
+
+    @Test
+    void should_reject_mapping_without_schema_nor_directory() {
+        ReferenceResolution referenceResolution = ReferenceResolution.builder()
+            .mappings(List.of(ReferenceMapping.builder().uri("http://schemas.example.com/common/name.json").build()))
+            .build();
+
+        assertThatThrownBy(() -> SchemaLoading.of(referenceResolution)).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.normalizer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jackson.JsonLoader;
+import io.gravitee.policy.jsonvalidation.configuration.ValidationEngineType;
+import io.gravitee.policy.jsonvalidation.engine.SchemaValidator;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngine;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngines;
+import io.gravitee.policy.jsonvalidation.engine.ValidationOptions;
+import java.io.IOException;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class SchemaNormalizerTest {
+
+    private static final String GENERATED_SCHEMA =
+        "{\"title\":\"Order\",\"description\":\"An order\",\"type\":\"object\",\"additionalProperties\":true," +
+        "\"required\":[\"id\"],\"patternProperties\":{}," +
+        "\"properties\":{" +
+        "\"id\":{\"allOf\":[{\"type\":[\"integer\",\"number\",\"integer\"],\"minimum\":1}],\"example\":42}," +
+        "\"title\":{\"type\":\"string\",\"minLength\":0,\"description\":\"A property named like an annotation\"}," +
+        "\"tags\":{\"type\":\"array\",\"items\":{},\"anyOf\":[{\"maxItems\":3},{}]}," +
+        "\"customer\":{\"$ref\":\"#/definitions/customer\"}}," +
+        "\"definitions\":{\"customer\":{\"title\":\"Customer\",\"allOf\":[{\"required\":[\"name\"]},{}]}}}";
+
+    @Test
+    void should_remove_annotations_and_noop_keywords() throws IOException {
+        JsonNode normalized = SchemaNormalizer.normalize(JsonLoader.fromString(GENERATED_SCHEMA));
+
+        assertThat(normalized).isEqualTo(
+            JsonLoader.fromString(
+                "{\"type\":\"object\",\"required\":[\"id\"]," +
+                "\"properties\":{" +
+                "\"id\":{\"type\":\"number\",\"minimum\":1}," +
+                "\"title\":{\"type\":\"string\"}," +
+                "\"tags\":{\"type\":\"array\"}," +
+                "\"customer\":{\"$ref\":\"#/definitions/customer\"}}," +
+                "\"definitions\":{\"customer\":{\"required\":[\"name\"]}}}"
+            )
+        );
+    }
+
+    @Test
+    void should_not_modify_the_schema() throws IOException {
+        JsonNode schema = JsonLoader.fromString(GENERATED_SCHEMA);
+
+        SchemaNormalizer.normalize(schema);
+
+        assertThat(schema).isEqualTo(JsonLoader.fromString(GENERATED_SCHEMA));
+    }
+
+    @Test
+    void should_keep_what_references_point_to() throws IOException {
+        JsonNode schema = JsonLoader.fromString(
+            "{\"properties\":{\"a\":{\"allOf\":[{\"type\":\"string\",\"title\":\"A\"}]},\"b\":{\"$ref\":\"#/properties/a/allOf/0\"}}}"
+        );
+
+        assertThat(SchemaNormalizer.normalize(schema)).isEqualTo(
+            JsonLoader.fromString(
+                "{\"properties\":{\"a\":{\"allOf\":[{\"type\":\"string\"}]},\"b\":{\"$ref\":\"#/properties/a/allOf/0\"}}}"
+            )
+        );
+    }
+
+    @Test
+    void should_not_merge_conflicting_or_referencing_branches() throws IOException {
+        JsonNode conflicting = JsonLoader.fromString("{\"type\":\"object\",\"oneOf\":[{\"type\":\"array\"}]}");
+        JsonNode referencing = JsonLoader.fromString(
+            "{\"type\":\"object\",\"allOf\":[{\"$ref\":\"#/definitions/a\"}],\"definitions\":{\"a\":{\"required\":[\"a\"]}}}"
+        );
+
+        assertThat(SchemaNormalizer.normalize(conflicting)).isEqualTo(conflicting);
+        assertThat(SchemaNormalizer.normalize(referencing)).isEqualTo(referencing);
+    }
+
+    @Test
+    void should_not_merge_branches_interacting_with_their_parent() throws IOException {
+        JsonNode additionalProperties = JsonLoader.fromString("{\"additionalProperties\":false,\"allOf\":[{\"properties\":{\"a\":{}}}]}");
+        JsonNode additionalItems = JsonLoader.fromString("{\"items\":[{}],\"allOf\":[{\"additionalItems\":false}]}");
+
+        assertThat(SchemaNormalizer.normalize(additionalProperties)).isEqualTo(additionalProperties);
+        assertThat(SchemaNormalizer.normalize(additionalItems)).isEqualTo(additionalItems);
+    }
+
+    @ParameterizedTest
+    @MethodSource("payloads")
+    void should_keep_validation_outcomes(String schema, String payload) throws IOException, ValidationEngineException {
+        ValidationEngine engine = ValidationEngines.create(ValidationEngineType.FGE, null, true);
+        SchemaValidator normalized = engine.compile(JsonLoader.fromString(schema));
+        SchemaValidator original = ValidationEngines.DEFAULT.compile(JsonLoader.fromString(schema));
+        ValidationOptions options = new ValidationOptions(false, true);
+
+        assertThat(normalized.validate(JsonLoader.fromString(payload), options).isSuccess()).isEqualTo(
+            original.validate(JsonLoader.fromString(payload), options).isSuccess()
+        );
+    }
+
+    static Stream<Arguments> payloads() {
+        return Stream.of(
+            Arguments.of(GENERATED_SCHEMA, "{\"id\":1,\"title\":\"\",\"tags\":[1,2,3,4],\"customer\":{\"name\":\"john\"}}"),
+            Arguments.of(GENERATED_SCHEMA, "{\"id\":0.5}"),
+            Arguments.of(GENERATED_SCHEMA, "{\"id\":\"1\",\"title\":1}"),
+            Arguments.of(GENERATED_SCHEMA, "{\"id\":2,\"customer\":{}}"),
+            Arguments.of(GENERATED_SCHEMA, "{\"title\":\"x\"}"),
+            Arguments.of(GENERATED_SCHEMA, "[]"),
+            Arguments.of("{\"additionalProperties\":false,\"allOf\":[{\"properties\":{\"a\":{}}}]}", "{\"a\":1}"),
+            Arguments.of("{\"additionalProperties\":false,\"allOf\":[{\"patternProperties\":{\"^a\":{}}}]}", "{\"a\":1}"),
+            Arguments.of("{\"properties\":{\"a\":{}},\"anyOf\":[{\"additionalProperties\":false}]}", "{\"b\":1}"),
+            Arguments.of("{\"additionalItems\":false,\"allOf\":[{\"items\":[{}]}]}", "[1,2]"),
+            Arguments.of("{\"items\":[{}],\"oneOf\":[{\"additionalItems\":false}]}", "[1,2]"),
+            Arguments.of("{\"minimum\":1,\"allOf\":[{\"minimum\":1,\"exclusiveMinimum\":true}]}", "1"),
+            Arguments.of("{\"maximum\":1,\"allOf\":[{\"maximum\":1,\"exclusiveMaximum\":true}]}", "1")
+        );
+    }
+
+    @Test
+    void should_check_the_syntax_of_the_configured_schema() throws IOException {
+        ValidationEngine engine = ValidationEngines.create(ValidationEngineType.FGE, null, true);
+
+        assertThat(engine.key()).isEqualTo("normalized");
+        // The anyOf accepts anything and is removed from the normalized schema.
+        assertThat(engine.checkSyntax(JsonLoader.fromString("{\"anyOf\":[{},{\"minLength\":-1}]}"))).hasSize(1);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.regex;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class EcmaRegexTest {
+
+    static Stream<Arguments> ecmaSemantics() {
+        return Stream.of(
+            Arguments.of("^abc$", "abc", true),
+            Arguments.of("^abc$", "abc\n", false),
+            Arguments.of("^[^]+$", "a\nb", true),
+            Arguments.of("a[]", "a", false),
+            Arguments.of("^\\s$", " ", true),
+            Arguments.of("^\\s$", "\u00a0", true),
+            Arguments.of("^\\S$", " ", false),
+            Arguments.of("^[\\S]+$", "a\u00a0b", false),
+            Arguments.of("^[\\S]+$", "ab", true),
+            Arguments.of("^[a\\S]$", "\ufeff", false),
+            Arguments.of("^\\v$", "\u000b", true),
+            Arguments.of("^\\v$", "\n", false),
+            Arguments.of("^[[]$", "[", true),
+            Arguments.of("^[a&&b]$", "&", true),
+            Arguments.of("^\\p$", "p", true),
+            Arguments.of("^a{b}$", "a{b}", true),
+            Arguments.of("^a{2}$", "aa", true),
+            Arguments.of("^\\$[0-9]+\\.?$", "$42.", true),
+            Arguments.of("colou?r", "my colour", true)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("ecmaSemantics")
+    void should_match_like_ecma(String regex, String input, boolean matches) {
+        assertThat(EcmaRegex.compile(regex).find(input)).isEqualTo(matches);
+    }
+
+    @ParameterizedTest
+    @MethodSource("unsupportedPatterns")
+    void should_reject_constructs_without_ecma_meaning(String regex) {
+        assertThatThrownBy(() -> EcmaRegex.compile(regex)).isInstanceOf(PatternSyntaxException.class);
+    }
+
+    static Stream<String> unsupportedPatterns() {
+        return Stream.of("(?<=a)b", "(?i)a", "a++", "a{2}+", "[a", "a\\", "[^\\S]", "[^a\\S]");
+    }
+
+    @Test
+    void should_translate_each_pattern_once() {
+        EcmaRegex regex = EcmaRegex.compile("^[A-Z]{3}-\\d+$");
+
+        assertThat(EcmaRegex.compile("^[A-Z]{3}-\\d+$")).isSameAs(regex);
+        assertThat(regex.source()).isEqualTo("^[A-Z]{3}-\\d+$");
+    }
+
+    @Test
+    void should_not_match_when_evaluation_exhausts_its_budget() {
+        EcmaRegex regex = EcmaRegex.compile("^(a+)+$");
+
+        assertThat(regex.find("a".repeat(40))).isTrue();
+        assertThat(regex.find("a".repeat(40) + "!")).isFalse();
+        assertThat(regex.match("a".repeat(40) + "!")).isEqualTo(EcmaRegex.Match.EXHAUSTED);
+        assertThat(regex.match("b")).isEqualTo(EcmaRegex.Match.NOT_FOUND);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.fge.jackson.JsonLoader;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+class DiscriminatorTest {
+
+    private static final String DISCRIMINATED_SCHEMA =
+        "{\"discriminator\":{\"propertyName\":\"kind\"}," +
+        "\"oneOf\":[{\"$ref\":\"#/definitions/created\"},{\"$ref\":\"#/definitions/deleted\"}," +
+        "{\"type\":\"object\",\"required\":[\"legacy\"]}]," +
+        "\"definitions\":{" +
+        "\"base\":{\"type\":\"object\",\"required\":[\"kind\"],\"properties\":{\"kind\":{\"type\":\"string\"}}}," +
+        "\"created\":{\"allOf\":[{\"$ref\":\"#/definitions/base\"}," +
+        "{\"required\":[\"id\"],\"properties\":{\"kind\":{\"enum\":[\"created\"]},\"id\":{\"type\":\"integer\"}}}]}," +
+        "\"deleted\":{\"type\":\"object\",\"required\":[\"kind\",\"id\"]," +
+        "\"properties\":{\"kind\":{\"enum\":[\"deleted\",\"removed\"]},\"id\":{\"type\":\"string\"}}}}}";
+
+    @Test
+    void should_designate_the_branches_keyed_by_the_value() throws IOException, UnsupportedSchemaException {
+        Rule rule = RuleCompiler.compile(JsonLoader.fromString(DISCRIMINATED_SCHEMA));
+
+        Discriminator discriminator = Discriminator.of(rule.getOneOf(), rule.getDiscriminatorProperty());
+
+        assertThat(discriminator.property()).isEqualTo("kind");
+        assertThat(discriminator.candidates(JsonLoader.fromString("{\"kind\":\"created\"}"))).containsExactly(0, 2);
+        assertThat(discriminator.candidates(JsonLoader.fromString("{\"kind\":\"removed\"}"))).containsExactly(1, 2);
+        assertThat(discriminator.candidates(JsonLoader.fromString("{\"kind\":\"other\"}"))).containsExactly(2);
+        assertThat(discriminator.candidates(JsonLoader.fromString("{}"))).containsExactly(2);
+        assertThat(discriminator.candidates(JsonLoader.fromString("\"created\""))).containsExactly(2);
+    }
+
+    @Test
+    void should_pick_the_property_keying_the_most_branches() throws IOException, UnsupportedSchemaException {
+        Rule rule = RuleCompiler.compile(
+            JsonLoader.fromString(
+                "{\"anyOf\":[" +
+                "{\"type\":\"object\",\"required\":[\"type\",\"v\"]," +
+                "\"properties\":{\"type\":{\"enum\":[\"a\"]},\"v\":{\"enum\":[\"1\"]}}}," +
+                "{\"type\":\"object\",\"required\":[\"type\"],\"properties\":{\"type\":{\"enum\":[\"b\"]}}}]}"
+            )
+        );
+
+        assertThat(Discriminator.of(rule.getAnyOf(), null).property()).isEqualTo("type");
+    }
+
+    @Test
+    void should_not_apply_to_branches_accepting_other_types() throws IOException, UnsupportedSchemaException {
+        Rule rule = RuleCompiler.compile(
+            JsonLoader.fromString(
+                "{\"oneOf\":[" +
+                "{\"required\":[\"type\"],\"properties\":{\"type\":{\"enum\":[\"a\"]}}}," +
+                "{\"required\":[\"type\"],\"properties\":{\"type\":{\"enum\":[\"b\"]}}}]}"
+            )
+        );
+
+        assertThat(Discriminator.of(rule.getOneOf(), null)).isNull();
+    }
+}
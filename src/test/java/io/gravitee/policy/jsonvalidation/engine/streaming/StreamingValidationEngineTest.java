@@ -0,0 +1,242 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.engine.streaming;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.fge.jackson.JsonLoader;
+import io.gravitee.policy.jsonvalidation.configuration.ValidationEngineType;
+import io.gravitee.policy.jsonvalidation.engine.IncrementalValidation;
+import io.gravitee.policy.jsonvalidation.engine.SchemaValidator;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngines;
+import io.gravitee.policy.jsonvalidation.engine.ValidationOptions;
+import io.gravitee.policy.jsonvalidation.engine.ValidationReport;
+import io.gravitee.policy.jsonvalidation.engine.Violation;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class StreamingValidationEngineTest {
+
+    private static final String OBJECT_SCHEMA =
+        "{\"type\":\"object\",\"required\":[\"name\"],\"additionalProperties\":false," +
+        "\"properties\":{" +
+        "\"name\":{\"type\":\"string\",\"minLength\":2,\"maxLength\":5,\"pattern\":\"^[a-z]+$\"}," +
+        "\"age\":{\"type\":\"integer\",\"minimum\":0,\"maximum\":150,\"multipleOf\":1}," +
+        "\"kind\":{\"enum\":[\"a\",\"b\",1,null]}," +
+        "\"tags\":{\"type\":\"array\",\"minItems\":1,\"maxItems\":3,\"items\":{\"type\":\"string\"}}," +
+        "\"address\":{\"type\":\"object\",\"required\":[\"city\"],\"properties\":{\"city\":{\"type\":\"string\"}}," +
+        "\"dependencies\":{\"zip\":[\"city\"]}}}," +
+        "\"patternProperties\":{\"^x-\":{\"type\":\"string\"}}}";
+
+    private static final String COMBINATOR_SCHEMA =
+        "{\"properties\":{" +
+        "\"any\":{\"anyOf\":[{\"type\":\"string\"},{\"type\":\"integer\"}]}," +
+        "\"one\":{\"oneOf\":[{\"type\":\"integer\"},{\"minimum\":10}]}," +
+        "\"all\":{\"allOf\":[{\"type\":\"object\"},{\"required\":[\"id\"]}]}," +
+        "\"not\":{\"not\":{\"type\":\"null\"}}}}";
+
+    private static final String RECURSIVE_SCHEMA =
+        "{\"$ref\":\"#/definitions/node\",\"definitions\":{\"node\":{\"type\":\"object\",\"required\":[\"value\"]," +
+        "\"properties\":{\"value\":{\"type\":\"integer\"}," +
+        "\"children\":{\"type\":\"array\",\"items\":{\"$ref\":\"#/definitions/node\"}}}}}}";
+
+    private static final String TUPLE_SCHEMA =
+        "{\"type\":\"array\",\"items\":[{\"type\":\"string\"},{\"type\":\"number\",\"exclusiveMinimum\":true,\"minimum\":0}]," +
+        "\"additionalItems\":false}";
+
+    private static final String CONTAINER_ENUM_SCHEMA =
+        "{\"properties\":{\"point\":{\"enum\":[{\"x\":1,\"y\":[1,2]},[1,\"a\"],\"none\"]}}}";
+
+    private final StreamingValidationEngine engine = new StreamingValidationEngine(ValidationEngines.DEFAULT);
+
+    @Test
+    void should_be_created_from_the_configuration() throws IOException {
+        assertThat(ValidationEngines.create(ValidationEngineType.STREAMING, null))
+            .isInstanceOfSatisfying(StreamingValidationEngine.class, created -> assertThat(created.key()).isEqualTo("streaming"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("parityCases")
+    void should_report_the_same_failures_as_the_default_engine(String schema, String payload)
+        throws IOException, ValidationEngineException {
+        SchemaValidator streaming = engine.compile(JsonLoader.fromString(schema));
+        SchemaValidator fge = ValidationEngines.DEFAULT.compile(JsonLoader.fromString(schema));
+        assertThat(streaming).isInstanceOf(StreamingSchemaValidator.class);
+
+        for (boolean deepCheck : new boolean[] { false, true }) {
+            ValidationOptions options = new ValidationOptions(false, deepCheck);
+            ValidationReport expected = fge.validate(bytes(payload), options);
+            ValidationReport actual = streaming.validate(bytes(payload), options);
+
+            assertThat(actual.isSuccess()).as("success with deepCheck=%s", deepCheck).isEqualTo(expected.isSuccess());
+            assertThat(actual.violations().stream().map(Violation::pointer).distinct())
+                .as("pointers with deepCheck=%s", deepCheck)
+                .containsExactlyInAnyOrderElementsOf(expected.violations().stream().map(Violation::pointer).distinct().toList());
+        }
+    }
+
+    static Stream<Arguments> parityCases() {
+        return Stream.of(
+            Arguments.of(OBJECT_SCHEMA, "{\"name\":\"john\",\"age\":42,\"kind\":null,\"tags\":[\"a\"],\"x-id\":\"1\"}"),
+            Arguments.of(OBJECT_SCHEMA, "{\"name\":\"j\",\"age\":-1}"),
+            Arguments.of(OBJECT_SCHEMA, "{\"name\":\"John Doe\",\"age\":\"42\",\"kind\":\"c\"}"),
+            Arguments.of(OBJECT_SCHEMA, "{\"age\":200,\"tags\":[]}"),
+            Arguments.of(OBJECT_SCHEMA, "{\"name\":\"john\",\"tags\":[\"a\",2,\"c\",\"d\"],\"x-id\":3}"),
+            Arguments.of(OBJECT_SCHEMA, "{\"name\":\"john\",\"address\":{\"zip\":\"75000\"},\"unknown\":true}"),
+            Arguments.of(OBJECT_SCHEMA, "[\"name\"]"),
+            Arguments.of(COMBINATOR_SCHEMA, "{\"any\":\"a\",\"one\":1,\"all\":{\"id\":1},\"not\":1}"),
+            Arguments.of(COMBINATOR_SCHEMA, "{\"any\":true,\"one\":12,\"all\":{},\"not\":null}"),
+            Arguments.of(RECURSIVE_SCHEMA, "{\"value\":1,\"children\":[{\"value\":2},{\"value\":3,\"children\":[{\"value\":4}]}]}"),
+            Arguments.of(RECURSIVE_SCHEMA, "{\"value\":1,\"children\":[{\"value\":\"2\"},{\"children\":[{\"value\":4.5}]}]}"),
+            Arguments.of(CONTAINER_ENUM_SCHEMA, "{\"point\":{\"y\":[1.0,2],\"x\":1}}"),
+            Arguments.of(CONTAINER_ENUM_SCHEMA, "{\"point\":[1,\"a\"]}"),
+            Arguments.of(CONTAINER_ENUM_SCHEMA, "{\"point\":\"none\"}"),
+            Arguments.of(CONTAINER_ENUM_SCHEMA, "{\"point\":{\"x\":1,\"y\":[2,1]}}"),
+            Arguments.of(CONTAINER_ENUM_SCHEMA, "{\"point\":[1,\"a\",{}]}"),
+            Arguments.of(TUPLE_SCHEMA, "[\"a\",1]"),
+            Arguments.of(TUPLE_SCHEMA, "[1,0,\"extra\"]")
+        );
+    }
+
+    @Test
+    void should_use_the_wording_of_the_default_engine() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(JsonLoader.fromString(OBJECT_SCHEMA));
+
+        ValidationReport report = validator.validate(bytes("{\"age\":\"42\"}"), new ValidationOptions(false, true));
+
+        assertThat(report.violations()).containsExactlyInAnyOrder(
+            new Violation("", "object has missing required properties ([\"name\"])"),
+            new Violation("/age", "instance type (string) does not match any allowed primitive type (allowed: [\"integer\"])")
+        );
+        assertThat(report.toString()).contains("--- BEGIN MESSAGES ---").contains("keyword: \"required\"");
+    }
+
+    @Test
+    void should_report_property_names_exhausting_the_budget_of_a_pattern() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(
+            JsonLoader.fromString("{\"type\":\"object\",\"patternProperties\":{\"^(a+)+$\":{}},\"additionalProperties\":false}")
+        );
+        String name = "a".repeat(40) + "!";
+
+        ValidationReport report = validator.validate(bytes("{\"" + name + "\":1}"), new ValidationOptions(false, false));
+
+        assertThat(report.violations()).containsExactly(
+            new Violation("", "ECMA 262 regex \"^(a+)+$\" could not be evaluated on property name \"" + name + "\" within its budget")
+        );
+    }
+
+    @Test
+    void should_validate_trees() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(JsonLoader.fromString(RECURSIVE_SCHEMA));
+
+        assertThat(validator.validate(JsonLoader.fromString("{\"value\":1}"), new ValidationOptions(false, false)).isSuccess()).isTrue();
+        assertThat(validator.validate(JsonLoader.fromString("{}"), new ValidationOptions(false, false)).isSuccess()).isFalse();
+    }
+
+    @Test
+    void should_reject_malformed_payloads() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(JsonLoader.fromString(OBJECT_SCHEMA));
+        ValidationOptions options = new ValidationOptions(false, false);
+
+        assertThatThrownBy(() -> validator.validate(bytes("{\"name\":\"john\""), options)).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> validator.validate(bytes(""), options)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void should_stop_reading_at_first_violation_when_failing_fast() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(JsonLoader.fromString(OBJECT_SCHEMA));
+
+        // Everything after the first violation is left unread, including the malformed end of the payload.
+        ValidationReport report = validator.validate(bytes("{\"name\":1,\"age\":\"x\",}}"), new ValidationOptions(false, true, true));
+
+        assertThat(report.isSuccess()).isFalse();
+        assertThat(report.violations()).extracting(Violation::pointer).containsExactly("/name");
+    }
+
+    @ParameterizedTest
+    @MethodSource("parityCases")
+    void should_report_the_same_failures_when_fed_in_chunks(String schema, String payload) throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(JsonLoader.fromString(schema));
+        ValidationOptions options = new ValidationOptions(false, true);
+        ValidationReport expected = validator.validate(bytes(payload), options);
+
+        IncrementalValidation validation = validator.newIncrementalValidation(options);
+        byte[] bytes = bytes(payload);
+        for (int offset = 0; offset < bytes.length; offset += 3) {
+            validation.feed(Arrays.copyOfRange(bytes, offset, Math.min(offset + 3, bytes.length)));
+        }
+        ValidationReport actual = validation.end();
+
+        assertThat(actual.isSuccess()).isEqualTo(expected.isSuccess());
+        assertThat(actual.violations()).containsExactlyInAnyOrderElementsOf(expected.violations());
+    }
+
+    @Test
+    void should_be_done_with_the_chunk_revealing_the_first_violation_when_failing_fast()
+        throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(JsonLoader.fromString(OBJECT_SCHEMA));
+        IncrementalValidation validation = validator.newIncrementalValidation(new ValidationOptions(false, true, true));
+
+        assertThat(validation.feed(bytes("{\"name\":\"jo"))).isFalse();
+        assertThat(validation.feed(bytes("hn\",\"age\":-"))).isFalse();
+        assertThat(validation.feed(bytes("1,\"tags\""))).isTrue();
+        // The rest of the payload is not parsed, even when malformed.
+        assertThat(validation.feed(bytes(":[]}}"))).isTrue();
+
+        assertThat(validation.end().violations()).extracting(Violation::pointer).containsExactly("/age");
+    }
+
+    @Test
+    void should_reject_truncated_chunked_payloads() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(JsonLoader.fromString(OBJECT_SCHEMA));
+        IncrementalValidation truncated = validator.newIncrementalValidation(new ValidationOptions(false, false));
+        IncrementalValidation empty = validator.newIncrementalValidation(new ValidationOptions(false, false));
+
+        assertThat(truncated.feed(bytes("{\"name\":\"john\""))).isFalse();
+        assertThatThrownBy(truncated::end).isInstanceOf(IOException.class);
+        assertThatThrownBy(empty::end).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void should_buffer_chunks_with_engines_validating_complete_documents() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(JsonLoader.fromString("{\"type\":\"string\",\"format\":\"email\"}"));
+        IncrementalValidation validation = validator.newIncrementalValidation(new ValidationOptions(false, false, true));
+
+        assertThat(validation.feed(bytes("\"not an"))).isFalse();
+        assertThat(validation.feed(bytes(" email\""))).isFalse();
+        assertThat(validation.end().isSuccess()).isFalse();
+    }
+
+    @Test
+    void should_fall_back_on_unsupported_keywords() throws IOException, ValidationEngineException {
+        SchemaValidator validator = engine.compile(JsonLoader.fromString("{\"type\":\"string\",\"format\":\"email\"}"));
+
+        assertThat(validator).isNotInstanceOf(StreamingSchemaValidator.class);
+        assertThat(validator.validate(bytes("\"not an email\""), new ValidationOptions(false, false)).isSuccess()).isFalse();
+    }
+
+    private static byte[] bytes(String payload) {
+        return payload.getBytes(StandardCharsets.UTF_8);
+    }
+}
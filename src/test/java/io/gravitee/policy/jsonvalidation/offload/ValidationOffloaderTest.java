@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.offload;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gravitee.policy.jsonvalidation.configuration.offload.OffloadRejectionPolicy;
+import io.gravitee.policy.jsonvalidation.configuration.offload.ValidationOffload;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ValidationOffloaderTest {
+
+    @Test
+    void should_not_offload_without_threshold() {
+        assertThat(ValidationOffloader.of(null)).isSameAs(ValidationOffloader.DISABLED);
+        assertThat(ValidationOffloader.of(ValidationOffload.builder().threads(2).build())).isSameAs(ValidationOffloader.DISABLED);
+        assertThat(ValidationOffloader.DISABLED.offloads(Long.MAX_VALUE)).isFalse();
+    }
+
+    @Test
+    void should_offload_bodies_from_the_threshold() {
+        ValidationOffloader offloader = ValidationOffloader.of(ValidationOffload.builder().threshold(1024).build());
+
+        assertThat(offloader.offloads(1023)).isFalse();
+        assertThat(offloader.offloads(1024)).isTrue();
+    }
+
+    @Test
+    void should_run_tasks_on_the_pool() {
+        ValidationOffloader offloader = ValidationOffloader.of(ValidationOffload.builder().threshold(1).build());
+
+        offloader
+            .submit(() -> Thread.currentThread().getName())
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertValue(name -> name.startsWith("json-validation-offload-"));
+    }
+
+    @Test
+    void should_reject_tasks_when_full() throws InterruptedException {
+        ValidationOffloader offloader = ValidationOffloader.of(
+            ValidationOffload.builder().threshold(1).threads(1).queueSize(1).rejectionPolicy(OffloadRejectionPolicy.REJECT).build()
+        );
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            fill(offloader, 1, release);
+
+            offloader.submit(() -> "rejected").test().assertError(RejectedExecutionException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void should_run_tasks_on_the_caller_when_full() throws InterruptedException {
+        ValidationOffloader offloader = ValidationOffloader.of(
+            ValidationOffload.builder().threshold(1).threads(1).queueSize(2).rejectionPolicy(OffloadRejectionPolicy.CALLER_RUNS).build()
+        );
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            fill(offloader, 2, release);
+
+            assertThat(offloader.queueDepth()).isEqualTo(2);
+            offloader.submit(() -> Thread.currentThread().getName()).test().assertValue(Thread.currentThread().getName());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void should_give_the_queue_depth_once_submitted() throws InterruptedException {
+        ValidationOffloader offloader = ValidationOffloader.of(ValidationOffload.builder().threshold(1).threads(1).queueSize(3).build());
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger depth = new AtomicInteger(-1);
+        try {
+            fill(offloader, 1, release);
+
+            offloader.submit(() -> "queued", depth::set).subscribe();
+
+            assertThat(depth).hasValue(2);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    // Blocks the only thread of the pool, then fills its queue.
+    private static void fill(ValidationOffloader offloader, int queueSize, CountDownLatch release) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        offloader
+            .submit(() -> {
+                started.countDown();
+                return release.await(5, TimeUnit.SECONDS);
+            })
+            .subscribe();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < queueSize; i++) {
+            offloader.submit(() -> release.await(5, TimeUnit.SECONDS)).subscribe();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.payload;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.gravitee.gateway.api.http.HttpHeaderNames;
+import io.gravitee.gateway.api.http.HttpHeaders;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class MediaTypeFilterTest {
+
+    private static final MediaTypeFilter JSON = MediaTypeFilter.of(List.of("application/json", "application/*+json"));
+
+    @ParameterizedTest
+    @MethodSource("contentTypes")
+    void should_match_content_types_against_the_ranges(String contentType, boolean accepted) {
+        assertThat(JSON.accepts(contentType)).isEqualTo(accepted);
+    }
+
+    static Stream<Arguments> contentTypes() {
+        return Stream.of(
+            Arguments.of("application/json", true),
+            Arguments.of("Application/JSON; charset=UTF-8", true),
+            Arguments.of("application/problem+json", true),
+            Arguments.of("application/vnd.api+json;version=2", true),
+            Arguments.of("text/json", false),
+            Arguments.of("application/jsonl", false),
+            Arguments.of("multipart/form-data; boundary=x", false),
+            Arguments.of("application/octet-stream", false),
+            // Bodies whose type cannot be told are validated.
+            Arguments.of(null, true),
+            Arguments.of("garbage", true)
+        );
+    }
+
+    @Test
+    void should_accept_wildcards() {
+        MediaTypeFilter filter = MediaTypeFilter.of(List.of("text/*", "*/*+json"));
+
+        assertThat(filter.accepts("text/plain")).isTrue();
+        assertThat(filter.accepts("application/ld+json")).isTrue();
+        assertThat(filter.accepts("application/xml")).isFalse();
+    }
+
+    @Test
+    void should_read_the_content_type_header() {
+        assertThat(JSON.accepts(HttpHeaders.create().set(HttpHeaderNames.CONTENT_TYPE, "application/json"))).isTrue();
+        assertThat(JSON.accepts(HttpHeaders.create().set(HttpHeaderNames.CONTENT_TYPE, "image/png"))).isFalse();
+        assertThat(JSON.accepts(HttpHeaders.create())).isTrue();
+    }
+
+    @Test
+    void should_accept_everything_without_ranges() {
+        assertThat(MediaTypeFilter.of(null)).isSameAs(MediaTypeFilter.ANY);
+        assertThat(MediaTypeFilter.of(List.of()).accepts("image/png")).isTrue();
+    }
+
+    @Test
+    void should_reject_invalid_ranges() {
+        assertThatThrownBy(() -> MediaTypeFilter.of(List.of("json"))).isInstanceOf(IllegalArgumentException.class);
+    }
+}
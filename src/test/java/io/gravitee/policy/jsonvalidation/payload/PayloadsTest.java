@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.payload;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gravitee.gateway.api.buffer.Buffer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class PayloadsTest {
+
+    @Test
+    void should_read_the_native_buffer_without_consuming_it() throws IOException {
+        Buffer buffer = Buffer.buffer("{\"id\":1}");
+        Object nativeBuffer = buffer.getNativeBuffer();
+
+        try (InputStream payload = Payloads.open(buffer)) {
+            assertThat(nativeBuffer).isInstanceOf(ByteBuf.class);
+            assertThat(payload).isInstanceOf(ByteBufInputStream.class);
+            assertThat(new String(payload.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}");
+        }
+        assertThat(buffer.toString()).isEqualTo("{\"id\":1}");
+        try (InputStream payload = Payloads.open(buffer)) {
+            assertThat(payload.readAllBytes()).hasSize(8);
+        }
+    }
+
+    @Test
+    void should_view_the_native_buffer_without_consuming_it() {
+        Buffer buffer = Buffer.buffer("{\"id\":").appendBuffer(Buffer.buffer("1}"));
+
+        StringBuilder content = new StringBuilder();
+        for (ByteBuffer view : Payloads.views(buffer)) {
+            content.append(StandardCharsets.UTF_8.decode(view));
+        }
+
+        assertThat(content).hasToString("{\"id\":1}");
+        assertThat(buffer.toString()).isEqualTo("{\"id\":1}");
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.schema;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+class CompiledSchemaPoolTest {
+
+    @Test
+    void should_share_compiled_schema_for_identical_content() throws IOException, ValidationEngineException {
+        CompiledSchemaPool pool = new CompiledSchemaPool();
+
+        CompiledSchema first = pool.intern("{\"type\":\"object\",\"required\":[\"name\"]}");
+        CompiledSchema second = pool.intern("{\n  \"required\": [\"name\"],\n  \"type\": \"object\"\n}");
+
+        assertThat(second).isSameAs(first);
+        assertThat(pool.stats()).isEqualTo(new CompiledSchemaPool.Stats(1, 1, 1));
+    }
+
+    @Test
+    void should_not_share_compiled_schema_for_different_content() throws IOException, ValidationEngineException {
+        CompiledSchemaPool pool = new CompiledSchemaPool();
+
+        CompiledSchema first = pool.intern("{\"type\":\"object\"}");
+        CompiledSchema second = pool.intern("{\"type\":\"array\"}");
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(pool.stats().size()).isEqualTo(2);
+    }
+
+    @Test
+    void should_distinguish_values_of_different_types() {
+        assertThat(CompiledSchemaPool.fingerprint(TextNode.valueOf("1"))).isNotEqualTo(CompiledSchemaPool.fingerprint(IntNode.valueOf(1)));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.schema;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jackson.JsonLoader;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import java.io.IOException;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class SchemaBundlerTest {
+
+    private static final String ROOT = """
+        {
+          "type": "object",
+          "properties": {
+            "address": { "$ref": "address.json" },
+            "city": { "$ref": "address.json#/properties/city" },
+            "other": { "$ref": "#/definitions/other" }
+          },
+          "definitions": { "other": { "type": "string" } }
+        }""";
+
+    private static final String ADDRESS = """
+        {
+          "$schema": "http://json-schema.org/draft-04/schema#",
+          "id": "http://example.com/address.json",
+          "type": "object",
+          "properties": {
+            "city": { "$ref": "#/definitions/city" }
+          },
+          "definitions": { "city": { "type": "string", "minLength": 2 } }
+        }""";
+
+    @Test
+    void should_return_schema_unchanged_without_dependencies() throws IOException {
+        JsonNode bundled = SchemaBundler.bundle(ROOT, Map.of());
+
+        assertThat(bundled).isEqualTo(JsonLoader.fromString(ROOT));
+    }
+
+    @Test
+    void should_inline_dependencies_and_rewrite_references() throws IOException {
+        JsonNode bundled = SchemaBundler.bundle(ROOT, Map.of("address.json", ADDRESS));
+
+        assertThat(bundled.at("/properties/address/$ref").asText()).isEqualTo("#/definitions/address.json");
+        assertThat(bundled.at("/properties/city/$ref").asText()).isEqualTo("#/definitions/address.json/properties/city");
+        assertThat(bundled.at("/properties/other/$ref").asText()).isEqualTo("#/definitions/other");
+        assertThat(bundled.at("/definitions/address.json/properties/city/$ref").asText()).isEqualTo(
+            "#/definitions/address.json/definitions/city"
+        );
+        assertThat(bundled.at("/definitions/address.json").has("id")).isFalse();
+    }
+
+    @Test
+    void should_percent_encode_definition_keys_in_references() throws IOException, ValidationEngineException {
+        String root = "{\"properties\":{\"address\":{\"$ref\":\"common types/address 100%.json\"}}}";
+        JsonNode bundled = SchemaBundler.bundle(root, Map.of("common types/address 100%.json", ADDRESS));
+
+        assertThat(bundled.at("/properties/address/$ref").asText()).isEqualTo("#/definitions/common%20types~1address%20100%25.json");
+        assertThat(bundled.at("/definitions/common types~1address 100%.json").isObject()).isTrue();
+        CompiledSchema compiledSchema = CompiledSchema.compile(bundled);
+        assertThat(compiledSchema.validate(JsonLoader.fromString("{\"address\":{\"city\":\"L\"}}"), false).isSuccess()).isFalse();
+    }
+
+    @Test
+    void should_validate_against_inlined_dependency() throws IOException, ValidationEngineException {
+        CompiledSchema compiledSchema = CompiledSchema.compile(SchemaBundler.bundle(ROOT, Map.of("address.json", ADDRESS)));
+
+        assertThat(compiledSchema.validate(JsonLoader.fromString("{\"address\":{\"city\":\"Lille\"}}"), false).isSuccess()).isTrue();
+        assertThat(compiledSchema.validate(JsonLoader.fromString("{\"address\":{\"city\":\"L\"}}"), false).isSuccess()).isFalse();
+    }
+}
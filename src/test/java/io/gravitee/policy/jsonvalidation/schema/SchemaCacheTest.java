@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.schema;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+class SchemaCacheTest {
+
+    private static final String RESOURCE_NAME = "registry";
+    private static final String SCHEMA = "{\"type\":\"object\"}";
+
+    @Test
+    void should_reuse_compiled_schema_for_same_subject_id_and_version() throws IOException, ValidationEngineException {
+        SchemaCache cache = new SchemaCache();
+
+        CompilableSchema first = cache.get(RESOURCE_NAME, new TestSchema(SCHEMA, "subject"));
+        CompilableSchema second = cache.get(RESOURCE_NAME, new TestSchema(SCHEMA, "subject"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.compiledSchema()).isSameAs(first.compiledSchema());
+        assertThat(cache.stats()).isEqualTo(new SchemaCache.Stats(1, 1, 0, 1));
+    }
+
+    @Test
+    void should_not_share_entries_across_resources() {
+        SchemaCache cache = new SchemaCache();
+
+        CompilableSchema first = cache.get(RESOURCE_NAME, new TestSchema(SCHEMA, "subject"));
+        CompilableSchema second = cache.get("other-registry", new TestSchema(SCHEMA, "subject"));
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(cache.stats().misses()).isEqualTo(2);
+    }
+
+    @Test
+    void should_evict_least_recently_used_entry_when_full() {
+        SchemaCache cache = new SchemaCache(2);
+
+        CompilableSchema a = cache.get(RESOURCE_NAME, new TestSchema(SCHEMA, "a"));
+        cache.get(RESOURCE_NAME, new TestSchema(SCHEMA, "b"));
+        cache.get(RESOURCE_NAME, new TestSchema(SCHEMA, "a"));
+        cache.get(RESOURCE_NAME, new TestSchema(SCHEMA, "c"));
+
+        assertThat(cache.get(RESOURCE_NAME, new TestSchema(SCHEMA, "a"))).isSameAs(a);
+        assertThat(cache.stats()).isEqualTo(new SchemaCache.Stats(2, 3, 1, 2));
+    }
+}
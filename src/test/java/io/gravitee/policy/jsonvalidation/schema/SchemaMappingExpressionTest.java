@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.schema;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import io.gravitee.el.TemplateEngine;
+import io.gravitee.gateway.api.http.HttpHeaders;
+import io.gravitee.gateway.reactive.api.context.http.HttpPlainExecutionContext;
+import io.gravitee.gateway.reactive.api.context.http.HttpPlainRequest;
+import io.gravitee.gateway.reactive.api.context.kafka.KafkaMessageExecutionContext;
+import io.gravitee.gateway.reactive.api.message.kafka.KafkaMessage;
+import io.reactivex.rxjava3.core.Maybe;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SchemaMappingExpressionTest {
+
+    @Mock
+    TemplateEngine templateEngine;
+
+    @Mock
+    HttpPlainExecutionContext httpCtx;
+
+    @Mock
+    HttpPlainRequest request;
+
+    @Mock
+    HttpHeaders headers;
+
+    @Test
+    void should_precompile_literal_and_single_accessor_shapes() {
+        assertThat(SchemaMappingExpression.parse("orders-value").isPrecompiled()).isTrue();
+        assertThat(SchemaMappingExpression.parse("{#request.headers['X-Schema']}").isPrecompiled()).isTrue();
+        assertThat(SchemaMappingExpression.parse("{#request.headers[\"X-Schema\"]}").isPrecompiled()).isTrue();
+        assertThat(SchemaMappingExpression.parse("{#message.headers['X-Schema']}").isPrecompiled()).isTrue();
+        assertThat(SchemaMappingExpression.parse("{#message.attributes['X-Schema']}").isPrecompiled()).isTrue();
+        assertThat(SchemaMappingExpression.parse("{#message.topic}").isPrecompiled()).isTrue();
+
+        assertThat(SchemaMappingExpression.parse("{#message.topic + '-value'}").isPrecompiled()).isFalse();
+        assertThat(SchemaMappingExpression.parse("{#request.attributes['X-Schema']}").isPrecompiled()).isFalse();
+        assertThat(SchemaMappingExpression.parse("{#request.headers['X-Schema'][0]}").isPrecompiled()).isFalse();
+    }
+
+    @Test
+    void should_evaluate_literal_without_template_engine() {
+        SchemaMappingExpression.parse("orders-value").eval(httpCtx, null, () -> templateEngine).test().assertValue("orders-value");
+
+        verifyNoInteractions(templateEngine, httpCtx);
+    }
+
+    @Test
+    void should_read_request_header_without_template_engine() {
+        when(httpCtx.request()).thenReturn(request);
+        when(request.headers()).thenReturn(headers);
+        when(headers.getAll("X-Schema")).thenReturn(List.of("orders-value"));
+        when(headers.get("X-Schema")).thenReturn("orders-value");
+
+        SchemaMappingExpression.parse("{#request.headers['X-Schema']}")
+            .eval(httpCtx, null, () -> templateEngine)
+            .test()
+            .assertValue("orders-value");
+
+        verifyNoInteractions(templateEngine);
+    }
+
+    @Test
+    void should_complete_empty_when_request_header_is_missing() {
+        when(httpCtx.request()).thenReturn(request);
+        when(request.headers()).thenReturn(headers);
+        when(headers.getAll("X-Schema")).thenReturn(List.of());
+
+        SchemaMappingExpression.parse("{#request.headers['X-Schema']}")
+            .eval(httpCtx, null, () -> templateEngine)
+            .test()
+            .assertComplete()
+            .assertNoValues();
+    }
+
+    @Test
+    void should_fall_back_to_template_engine_for_multi_valued_header() {
+        when(httpCtx.request()).thenReturn(request);
+        when(request.headers()).thenReturn(headers);
+        when(headers.getAll("X-Schema")).thenReturn(List.of("a", "b"));
+        when(templateEngine.eval("{#request.headers['X-Schema']}", String.class)).thenReturn(Maybe.just("a,b"));
+
+        SchemaMappingExpression.parse("{#request.headers['X-Schema']}")
+            .eval(httpCtx, null, () -> templateEngine)
+            .test()
+            .assertValue("a,b");
+    }
+
+    @Test
+    void should_read_kafka_topic_without_template_engine() {
+        KafkaMessage message = mock(KafkaMessage.class);
+        when(message.topic()).thenReturn("orders");
+
+        SchemaMappingExpression.parse("{#message.topic}")
+            .eval(mock(KafkaMessageExecutionContext.class), message, () -> templateEngine)
+            .test()
+            .assertValue("orders");
+
+        verifyNoInteractions(templateEngine);
+    }
+
+    @Test
+    void should_evaluate_complex_expression_with_template_engine() {
+        when(templateEngine.eval("{#message.topic + '-value'}", String.class)).thenReturn(Maybe.just("orders-value"));
+
+        SchemaMappingExpression.parse("{#message.topic + '-value'}")
+            .eval(mock(KafkaMessageExecutionContext.class), mock(KafkaMessage.class), () -> templateEngine)
+            .test()
+            .assertValue("orders-value");
+    }
+}
@@ -16,29 +16,47 @@
 package io.gravitee.policy.jsonvalidation.schema;
 
 import static io.gravitee.policy.jsonvalidation.schema.SchemaResolverFactory.createSchemaResolver;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.github.fge.jackson.JsonLoader;
+import io.gravitee.common.component.Lifecycle;
 import io.gravitee.el.TemplateEngine;
+import io.gravitee.gateway.api.http.HttpHeaders;
 import io.gravitee.gateway.reactive.api.context.http.HttpMessageExecutionContext;
 import io.gravitee.gateway.reactive.api.context.http.HttpPlainExecutionContext;
+import io.gravitee.gateway.reactive.api.context.http.HttpPlainRequest;
 import io.gravitee.gateway.reactive.api.context.kafka.KafkaMessageExecutionContext;
 import io.gravitee.gateway.reactive.api.message.Message;
 import io.gravitee.gateway.reactive.api.message.kafka.KafkaMessage;
+import io.gravitee.policy.JsonValidationException;
 import io.gravitee.policy.jsonvalidation.configuration.JsonValidationPolicyConfiguration;
 import io.gravitee.policy.jsonvalidation.configuration.schema.SchemaSource;
 import io.gravitee.policy.jsonvalidation.configuration.schema.SchemaSourceType;
+import io.gravitee.reporter.api.v4.metric.Metrics;
 import io.gravitee.resource.api.ResourceManager;
 import io.gravitee.resource.schema_registry.api.SchemaRegistryResource;
+import io.gravitee.resource.schema_registry.api.Schema;
 import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.subjects.MaybeSubject;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -182,7 +200,7 @@ public class SchemaResolverTest {
             when(resourceManager.getResource(TEST_SCHEMA_REGISTRY_RESOURCE_NAME, SchemaRegistryResource.class)).thenReturn(
                 schemaRegistryResource
             );
-            when(schemaRegistryResource.getSchema(TEST_SCHEMA_SUBJECT)).thenReturn(
+            lenient().when(schemaRegistryResource.getSchema(TEST_SCHEMA_SUBJECT)).thenReturn(
                 Maybe.just(new TestSchema(JSON_SCHEMA, TEST_SCHEMA_SUBJECT))
             );
         }
@@ -190,11 +208,14 @@ public class SchemaResolverTest {
         @Test
         public void testResolveSchema_V4Proxy() {
             HttpPlainExecutionContext ctx = mock(HttpPlainExecutionContext.class);
+            HttpPlainRequest request = mock(HttpPlainRequest.class);
+            HttpHeaders headers = mock(HttpHeaders.class);
 
-            when(ctx.getTemplateEngine()).thenReturn(templateEngine);
             when(ctx.getComponent(ResourceManager.class)).thenReturn(resourceManager);
-
-            when(templateEngine.eval("{#request.headers['X-Schema-Name']}", String.class)).thenReturn(Maybe.just(TEST_SCHEMA_SUBJECT));
+            when(ctx.request()).thenReturn(request);
+            when(request.headers()).thenReturn(headers);
+            when(headers.getAll("X-Schema-Name")).thenReturn(List.of(TEST_SCHEMA_SUBJECT));
+            when(headers.get("X-Schema-Name")).thenReturn(TEST_SCHEMA_SUBJECT);
 
             when(configuration.getSchemaSource()).thenReturn(
                 SchemaSource.builder()
@@ -216,10 +237,8 @@ public class SchemaResolverTest {
             Message message = mock(Message.class);
             HttpMessageExecutionContext ctx = mock(HttpMessageExecutionContext.class);
 
-            when(ctx.getTemplateEngine(message)).thenReturn(templateEngine);
             when(ctx.getComponent(ResourceManager.class)).thenReturn(resourceManager);
-
-            when(templateEngine.eval("{#message.attributes['X-Schema-Name']}", String.class)).thenReturn(Maybe.just(TEST_SCHEMA_SUBJECT));
+            when(message.attributes()).thenReturn(Map.of("X-Schema-Name", TEST_SCHEMA_SUBJECT));
 
             when(configuration.getSchemaSource()).thenReturn(
                 SchemaSource.builder()
@@ -241,10 +260,8 @@ public class SchemaResolverTest {
             KafkaMessage kafkaMessage = mock(KafkaMessage.class);
             KafkaMessageExecutionContext ctx = mock(KafkaMessageExecutionContext.class);
 
-            when(ctx.getTemplateEngine(kafkaMessage)).thenReturn(templateEngine);
             when(ctx.getComponent(ResourceManager.class)).thenReturn(resourceManager);
-
-            when(templateEngine.eval("{#message.topic}", String.class)).thenReturn(Maybe.just(TEST_SCHEMA_SUBJECT));
+            when(kafkaMessage.topic()).thenReturn(TEST_SCHEMA_SUBJECT);
 
             when(configuration.getSchemaSource()).thenReturn(
                 SchemaSource.builder()
@@ -260,5 +277,173 @@ public class SchemaResolverTest {
                 .assertComplete()
                 .assertValue(schema -> Objects.equals(JsonLoader.fromString(schema.getContent()), referenceSchema));
         }
+
+        @Test
+        public void testResolveSchema_concurrentLookupsOfSameSubjectAreCoalesced() {
+            KafkaMessage kafkaMessage = mock(KafkaMessage.class);
+            KafkaMessageExecutionContext ctx = mock(KafkaMessageExecutionContext.class);
+            MaybeSubject<Schema> pendingLookup = MaybeSubject.create();
+
+            when(ctx.getTemplateEngine(kafkaMessage)).thenReturn(templateEngine);
+            when(ctx.getComponent(ResourceManager.class)).thenReturn(resourceManager);
+            when(templateEngine.eval("{#message.attributes['schema'] + '-value'}", String.class)).thenReturn(
+                Maybe.just("burstSchema")
+            );
+            when(schemaRegistryResource.getSchema("burstSchema")).thenReturn(
+                pendingLookup,
+                Maybe.just(new TestSchema(JSON_SCHEMA, "burstSchema"))
+            );
+
+            when(configuration.getSchemaSource()).thenReturn(
+                SchemaSource.builder()
+                    .sourceType(SchemaSourceType.SCHEMA_REGISTRY_RESOURCE)
+                    .resourceName(TEST_SCHEMA_REGISTRY_RESOURCE_NAME)
+                    .schemaMapping("{#message.attributes['schema'] + '-value'}")
+                    .build()
+            );
+
+            SchemaResolver resolver = createSchemaResolver(configuration);
+            TestObserver<Schema> first = resolver.resolveSchema(ctx, kafkaMessage).test();
+            TestObserver<Schema> second = resolver.resolveSchema(ctx, kafkaMessage).test();
+
+            first.assertNotComplete();
+            second.assertNotComplete();
+
+            pendingLookup.onSuccess(new TestSchema(JSON_SCHEMA, "burstSchema"));
+
+            first.assertComplete();
+            second.assertComplete();
+            verify(schemaRegistryResource, times(1)).getSchema("burstSchema");
+
+            // Once the shared lookup has completed, the next resolution goes back to the registry.
+            resolver.resolveSchema(ctx, kafkaMessage).test().assertComplete();
+            verify(schemaRegistryResource, times(2)).getSchema("burstSchema");
+        }
+
+        @Test
+        public void testResolveSchema_staleSchemaIsServedWhileRefreshedInBackground() {
+            String updatedSchema = JSON_SCHEMA.replace("\"name\"]", "\"name\", \"age\"]");
+            KafkaMessageExecutionContext ctx = mock(KafkaMessageExecutionContext.class);
+            AtomicLong now = new AtomicLong();
+
+            when(ctx.getComponent(ResourceManager.class)).thenReturn(resourceManager);
+            when(schemaRegistryResource.getSchema("orders")).thenReturn(
+                Maybe.just(new TestSchema(JSON_SCHEMA, "orders")),
+                Maybe.just(
+                    new TestSchema(updatedSchema, "orders") {
+                        @Override
+                        public String getVersion() {
+                            return "2";
+                        }
+                    }
+                )
+            );
+
+            SchemaResolver resolver = new ResourceBasedSchemaResolver(
+                TEST_SCHEMA_REGISTRY_RESOURCE_NAME,
+                "orders",
+                Duration.ofSeconds(1),
+                ResourceBasedSchemaResolver.DEFAULT_NEGATIVE_CACHE_TTL,
+                now::get
+            );
+            KafkaMessage kafkaMessage = mock(KafkaMessage.class);
+
+            resolver.resolveSchema(ctx, kafkaMessage).test().assertValue(schema -> schema.getContent().equals(JSON_SCHEMA));
+
+            now.set(500);
+            resolver.resolveSchema(ctx, kafkaMessage).test().assertValue(schema -> schema.getContent().equals(JSON_SCHEMA));
+            verify(schemaRegistryResource, times(1)).getSchema("orders");
+
+            // Interval elapsed: the stale schema is still returned, the refresh happens off the request path.
+            now.set(1000);
+            resolver.resolveSchema(ctx, kafkaMessage).test().assertValue(schema -> schema.getContent().equals(JSON_SCHEMA));
+            verify(schemaRegistryResource, times(2)).getSchema("orders");
+
+            now.set(1001);
+            resolver.resolveSchema(ctx, kafkaMessage).test().assertValue(schema -> schema.getContent().equals(updatedSchema));
+            verify(schemaRegistryResource, times(2)).getSchema("orders");
+        }
+
+        @Test
+        public void testResolveSchema_resolvedSchemaIsServedWhenItsRefreshMisses() {
+            KafkaMessageExecutionContext ctx = mock(KafkaMessageExecutionContext.class);
+            KafkaMessage kafkaMessage = mock(KafkaMessage.class);
+            AtomicLong now = new AtomicLong();
+
+            when(ctx.getComponent(ResourceManager.class)).thenReturn(resourceManager);
+            when(schemaRegistryResource.getSchema("orders")).thenReturn(Maybe.just(new TestSchema(JSON_SCHEMA, "orders")), Maybe.empty());
+
+            SchemaResolver resolver = new ResourceBasedSchemaResolver(
+                TEST_SCHEMA_REGISTRY_RESOURCE_NAME,
+                "orders",
+                Duration.ofSeconds(1),
+                Duration.ofSeconds(5),
+                now::get
+            );
+
+            resolver.resolveSchema(ctx, kafkaMessage).test().assertValue(schema -> schema.getContent().equals(JSON_SCHEMA));
+
+            // The refresh finds nothing: the subject is negatively cached, but the resolved schema keeps being served.
+            now.set(1000);
+            resolver.resolveSchema(ctx, kafkaMessage).test().assertValue(schema -> schema.getContent().equals(JSON_SCHEMA));
+            now.set(1001);
+            resolver.resolveSchema(ctx, kafkaMessage).test().assertValue(schema -> schema.getContent().equals(JSON_SCHEMA));
+            verify(schemaRegistryResource, times(2)).getSchema("orders");
+        }
+
+        @Test
+        public void testResolveSchema_missingSubjectIsRejectedInMemoryUntilTtlExpires() {
+            KafkaMessageExecutionContext ctx = mock(KafkaMessageExecutionContext.class);
+            KafkaMessage kafkaMessage = mock(KafkaMessage.class);
+            AtomicLong now = new AtomicLong();
+
+            when(ctx.getComponent(ResourceManager.class)).thenReturn(resourceManager);
+            when(schemaRegistryResource.getSchema("unknown")).thenReturn(Maybe.empty());
+
+            ResourceBasedSchemaResolver resolver = new ResourceBasedSchemaResolver(
+                TEST_SCHEMA_REGISTRY_RESOURCE_NAME,
+                "unknown",
+                Duration.ZERO,
+                Duration.ofSeconds(5),
+                now::get
+            );
+
+            resolver.resolveSchema(ctx, kafkaMessage).test().assertError(JsonValidationException.class);
+            now.set(4999);
+            resolver.resolveSchema(ctx, kafkaMessage).test().assertError(JsonValidationException.class);
+            verify(schemaRegistryResource, times(1)).getSchema("unknown");
+            assertThat(resolver.missingSubjectStats()).isEqualTo(new NegativeCache.Stats(1, 1, 1));
+            Metrics metrics = Metrics.builder().build();
+            resolver.reportStats(metrics);
+            assertThat(metrics.getCustomMetrics())
+                .containsEntry(ResourceBasedSchemaResolver.MISSING_SUBJECT_HITS_METRIC, "1")
+                .containsEntry(ResourceBasedSchemaResolver.SCHEMA_CACHE_HITS_METRIC, "0");
+
+            now.set(5000);
+            resolver.resolveSchema(ctx, kafkaMessage).test().assertError(JsonValidationException.class);
+            verify(schemaRegistryResource, times(2)).getSchema("unknown");
+        }
+
+        @ParameterizedTest
+        @EnumSource(value = Lifecycle.State.class, names = "STARTED", mode = EnumSource.Mode.EXCLUDE)
+        public void testResolveSchema_resourceIsLookedUpOnceWhileStarted(Lifecycle.State state) {
+            KafkaMessageExecutionContext ctx = mock(KafkaMessageExecutionContext.class);
+            KafkaMessage kafkaMessage = mock(KafkaMessage.class);
+
+            when(ctx.getComponent(ResourceManager.class)).thenReturn(resourceManager);
+            when(kafkaMessage.topic()).thenReturn(TEST_SCHEMA_SUBJECT);
+            when(schemaRegistryResource.lifecycleState()).thenReturn(Lifecycle.State.STARTED);
+
+            SchemaResolver resolver = new ResourceBasedSchemaResolver(TEST_SCHEMA_REGISTRY_RESOURCE_NAME, "{#message.topic}");
+
+            resolver.resolveSchema(ctx, kafkaMessage).test().assertComplete();
+            resolver.resolveSchema(ctx, kafkaMessage).test().assertComplete();
+            verify(resourceManager, times(1)).getResource(TEST_SCHEMA_REGISTRY_RESOURCE_NAME, SchemaRegistryResource.class);
+
+            when(schemaRegistryResource.lifecycleState()).thenReturn(state);
+
+            resolver.resolveSchema(ctx, kafkaMessage).test().assertComplete();
+            verify(resourceManager, times(2)).getResource(TEST_SCHEMA_REGISTRY_RESOURCE_NAME, SchemaRegistryResource.class);
+        }
     }
 }
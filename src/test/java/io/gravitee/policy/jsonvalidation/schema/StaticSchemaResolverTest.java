@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.jsonvalidation.schema;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+class StaticSchemaResolverTest {
+
+    @Test
+    void should_compile_valid_schema_at_construction() {
+        StaticSchemaResolver resolver = new StaticSchemaResolver("{\"type\":\"object\",\"properties\":{\"name\":{\"type\":\"string\"}}}");
+
+        assertThatCode(resolver::validate).doesNotThrowAnyException();
+    }
+
+    @Test
+    void should_reject_schema_with_syntax_error() {
+        StaticSchemaResolver resolver = new StaticSchemaResolver("{\"type\":\"object\",\"minProperties\":-1}");
+
+        assertThatThrownBy(resolver::validate).isInstanceOf(IOException.class).hasMessageStartingWith("Invalid JSON schema");
+    }
+
+    @Test
+    void should_reject_schema_that_is_not_json() {
+        StaticSchemaResolver resolver = new StaticSchemaResolver("{\"type\":");
+
+        assertThatThrownBy(resolver::validate).isInstanceOf(IOException.class);
+    }
+}
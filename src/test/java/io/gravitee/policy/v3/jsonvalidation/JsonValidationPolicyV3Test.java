@@ -34,6 +34,8 @@ import io.gravitee.gateway.api.Request;
 import io.gravitee.gateway.api.Response;
 import io.gravitee.gateway.api.buffer.Buffer;
 import io.gravitee.gateway.api.buffer.BufferFactory;
+import io.gravitee.gateway.api.http.HttpHeaderNames;
+import io.gravitee.gateway.api.http.HttpHeaders;
 import io.gravitee.gateway.api.stream.BufferedReadWriteStream;
 import io.gravitee.gateway.api.stream.ReadWriteStream;
 import io.gravitee.gateway.api.stream.SimpleReadWriteStream;
@@ -41,6 +43,10 @@ import io.gravitee.policy.api.PolicyChain;
 import io.gravitee.policy.api.PolicyResult;
 import io.gravitee.policy.jsonvalidation.configuration.JsonValidationPolicyConfiguration;
 import io.gravitee.policy.jsonvalidation.configuration.PolicyScope;
+import io.gravitee.policy.jsonvalidation.configuration.limits.PayloadLimits;
+import io.gravitee.policy.jsonvalidation.engine.ValidationEngineException;
+import io.gravitee.policy.jsonvalidation.schema.CompiledSchema;
+import io.gravitee.policy.jsonvalidation.schema.CompiledSchemaPool;
 import io.gravitee.reporter.api.http.Metrics;
 import io.reactivex.rxjava3.core.Maybe;
 import java.io.IOException;
@@ -269,6 +275,60 @@ public class JsonValidationPolicyV3Test {
         policyAssertions(JsonValidationPolicyV3.JSON_INVALID_FORMAT_KEY);
     }
 
+    @Test
+    public void shouldRejectPayloadWithTrailingContent() {
+        when(configuration.getScope()).thenReturn(PolicyScope.REQUEST_CONTENT);
+
+        Buffer buffer = factory.buffer("{\"name\":\"foo\"} {}");
+        var readWriteStream = policy.onRequestContent(mockRequest, mockResponse, mockExecutionContext, mockPolicychain);
+
+        final AtomicBoolean hasCalledEndOnReadWriteStreamParentClass = spyEndHandler(readWriteStream);
+
+        readWriteStream.write(buffer);
+        readWriteStream.end();
+
+        assertThat(hasCalledEndOnReadWriteStreamParentClass).isFalse();
+
+        policyAssertions(JsonValidationPolicyV3.JSON_INVALID_FORMAT_KEY);
+    }
+
+    @Test
+    public void shouldRejectPayloadAnnouncingMoreThanMaxBytes() {
+        when(configuration.getScope()).thenReturn(PolicyScope.REQUEST_CONTENT);
+        when(configuration.getPayloadLimits()).thenReturn(PayloadLimits.builder().maxBytes(8).build());
+        when(mockRequest.headers()).thenReturn(HttpHeaders.create().set(HttpHeaderNames.CONTENT_LENGTH, "14"));
+        JsonValidationPolicyV3 policy = new JsonValidationPolicyV3(configuration);
+
+        var readWriteStream = policy.onRequestContent(mockRequest, mockResponse, mockExecutionContext, mockPolicychain);
+
+        final AtomicBoolean hasCalledEndOnReadWriteStreamParentClass = spyEndHandler(readWriteStream);
+
+        readWriteStream.write(factory.buffer("{\"name\":\"foo\"}"));
+        readWriteStream.end();
+
+        assertThat(hasCalledEndOnReadWriteStreamParentClass).isFalse();
+
+        policyAssertions(JsonValidationPolicyV3.JSON_PAYLOAD_LIMIT_EXCEEDED_KEY);
+    }
+
+    @Test
+    public void shouldRejectPayloadBreakingAParsingLimit() {
+        when(configuration.getScope()).thenReturn(PolicyScope.REQUEST_CONTENT);
+        when(configuration.getPayloadLimits()).thenReturn(PayloadLimits.builder().maxDepth(1).build());
+        JsonValidationPolicyV3 policy = new JsonValidationPolicyV3(configuration);
+
+        var readWriteStream = policy.onRequestContent(mockRequest, mockResponse, mockExecutionContext, mockPolicychain);
+
+        final AtomicBoolean hasCalledEndOnReadWriteStreamParentClass = spyEndHandler(readWriteStream);
+
+        readWriteStream.write(factory.buffer("{\"name\":\"foo\",\"preferences\":{}}"));
+        readWriteStream.end();
+
+        assertThat(hasCalledEndOnReadWriteStreamParentClass).isFalse();
+
+        policyAssertions(JsonValidationPolicyV3.JSON_PAYLOAD_LIMIT_EXCEEDED_KEY);
+    }
+
     @Test
     public void shouldMalformedJsonSchemaBeRejected() {
         when(configuration.getScope()).thenReturn(PolicyScope.REQUEST_CONTENT);
@@ -801,5 +861,33 @@ public class JsonValidationPolicyV3Test {
 
             assertThatThrownBy(() -> policy.buildDetailedMessage(parsedSchema, null)).isInstanceOf(RuntimeException.class);
         }
+
+        @Test
+        void emptyDeepReportOfCompiledSchemaCollapsesToEmptyOptional() throws IOException, ValidationEngineException {
+            CompiledSchema compiledSchema = CompiledSchemaPool.shared().intern("{}");
+            JsonNode jsonNode = JsonLoader.fromString("{\"name\":\"Ada\"}");
+
+            Optional<String> detailedMessage = policy.buildDetailedMessage(compiledSchema, jsonNode);
+
+            assertThat(detailedMessage).isEmpty();
+        }
+
+        @Test
+        void detailsListEveryViolationOfTheGivenSchema() throws IOException, ValidationEngineException {
+            CompiledSchema compiledSchema = CompiledSchemaPool.shared().intern(JSON_SCHEMA);
+            JsonNode jsonNode = JsonLoader.fromString("{}");
+
+            Optional<String> detailedMessage = policy.buildDetailedMessage(compiledSchema, jsonNode);
+
+            assertThat(detailedMessage).hasValueSatisfying(message -> assertThat(message).startsWith("(root) — "));
+        }
+
+        @Test
+        void unexpectedRuntimeExceptionOfCompiledSchemaPropagatesInsteadOfBecomingEmptyOptional()
+            throws IOException, ValidationEngineException {
+            CompiledSchema compiledSchema = CompiledSchemaPool.shared().intern(JSON_SCHEMA);
+
+            assertThatThrownBy(() -> policy.buildDetailedMessage(compiledSchema, null)).isInstanceOf(RuntimeException.class);
+        }
     }
 }